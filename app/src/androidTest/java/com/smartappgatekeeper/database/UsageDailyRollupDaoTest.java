@@ -0,0 +1,84 @@
+package com.smartappgatekeeper.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.smartappgatekeeper.database.dao.UsageDailyRollupDao;
+import com.smartappgatekeeper.database.dao.UsageEventDao;
+import com.smartappgatekeeper.database.entities.UsageDailyRollup;
+import com.smartappgatekeeper.database.entities.UsageEvent;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Rollup rows maintained batch by batch must equal the rows rebuilt by the raw GROUP BY
+ */
+@RunWith(AndroidJUnit4.class)
+public class UsageDailyRollupDaoTest {
+
+    private static final long FIRST_DAY = 19_000;
+    private static final int DAYS = 30;
+    private static final String[] PACKAGES = {"com.example.a", "com.example.b", "com.example.c", "", null};
+    private static final String[] TYPES = {"app_launch", "app_unlock", "quiz_success", null};
+
+    private AppDatabase database;
+    private UsageEventDao usageEventDao;
+    private UsageDailyRollupDao rollupDao;
+
+    @Before
+    public void setUp() {
+        database = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), AppDatabase.class)
+                .build();
+        usageEventDao = database.usageEventDao();
+        rollupDao = database.usageDailyRollupDao();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void incrementalRollupMatchesRebuild() {
+        Random random = new Random(13);
+        for (int batch = 0; batch < 100; batch++) {
+            List<UsageEvent> events = new ArrayList<>();
+            int size = 1 + random.nextInt(64);
+            for (int i = 0; i < size; i++) {
+                UsageEvent event = new UsageEvent();
+                event.epochDay = FIRST_DAY + random.nextInt(DAYS);
+                event.packageName = PACKAGES[random.nextInt(PACKAGES.length)];
+                event.eventType = TYPES[random.nextInt(TYPES.length)];
+                event.durationSeconds = random.nextInt(600) - 60;
+                event.coinsEarned = random.nextInt(20);
+                event.timeSpentSeconds = random.nextInt(120);
+                events.add(event);
+            }
+            // Same transaction shape as AppRepository.writeUsageEvents
+            database.runInTransaction(() -> {
+                usageEventDao.insertUsageEvents(events);
+                rollupDao.applyDeltas(UsageDailyRollup.deltasOf(events));
+            });
+        }
+
+        List<UsageDailyRollup> incremental = rollupDao.getRollupsByDaysSync(FIRST_DAY, FIRST_DAY + DAYS);
+        rollupDao.rebuildFrom(FIRST_DAY);
+        List<UsageDailyRollup> rebuilt = rollupDao.getRollupsByDaysSync(FIRST_DAY, FIRST_DAY + DAYS);
+
+        assertFalse(rebuilt.isEmpty());
+        assertEquals(rebuilt.size(), incremental.size());
+        assertEquals(new HashSet<>(rebuilt), new HashSet<>(incremental));
+    }
+}
@@ -0,0 +1,92 @@
+package com.smartappgatekeeper.database;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * EXPLAIN QUERY PLAN checks that the usage_events and quiz_results filters are
+ * served by the schema v4 indices: an index search, no full scan, no temp B-tree sort.
+ * Runs on the device SQLite, since that is the planner the app actually gets.
+ */
+@RunWith(AndroidJUnit4.class)
+public class UsageQueryPlanTest {
+
+    private AppDatabase database;
+
+    @Before
+    public void setUp() {
+        database = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), AppDatabase.class)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void usageEventFiltersUseIndices() {
+        assertIndexed("SELECT * FROM usage_events WHERE (timestamp, id) < (?, ?) ORDER BY timestamp DESC, id DESC LIMIT ?", 0L, 0, 50);
+        assertIndexed("SELECT * FROM usage_events WHERE packageName = ? ORDER BY timestamp DESC", "com.example");
+        assertIndexed("SELECT * FROM usage_events WHERE packageName = ? AND timestamp >= ? AND timestamp <= ? ORDER BY timestamp DESC", "com.example", 0L, 1L);
+        assertIndexed("SELECT * FROM usage_events WHERE eventType = ? ORDER BY timestamp DESC", "app_launch");
+        assertIndexed("SELECT * FROM usage_events WHERE timestamp >= ? AND timestamp <= ? ORDER BY timestamp DESC", 0L, 1L);
+        assertIndexed("SELECT * FROM usage_events WHERE success = 1 ORDER BY timestamp DESC LIMIT ?", 20);
+        assertIndexed("SELECT * FROM usage_events WHERE success = 0 ORDER BY timestamp DESC LIMIT ?", 20);
+        assertIndexed("SELECT * FROM usage_events WHERE sessionId = ? ORDER BY timestamp ASC", "session");
+    }
+
+    @Test
+    public void usageEventAggregatesUseCoveringIndices() {
+        assertCovered("SELECT COUNT(*) FROM usage_events WHERE packageName = ? AND success = 1", "com.example");
+        assertCovered("SELECT COUNT(*) FROM usage_events WHERE packageName = ? AND success = 0", "com.example");
+        assertCovered("SELECT AVG(timeSpentSeconds) FROM usage_events WHERE packageName = ? AND success = 1", "com.example");
+        assertCovered("SELECT SUM(durationSeconds) FROM usage_events WHERE packageName = ? AND eventType = 'app_unlock' AND timestamp >= ? AND timestamp <= ?", "com.example", 0L, 1L);
+    }
+
+    @Test
+    public void quizResultFiltersUseIndices() {
+        assertIndexed("SELECT * FROM quiz_results WHERE userId = ? ORDER BY completedAt DESC", "user");
+        assertIndexed("SELECT * FROM quiz_results WHERE userId = ? AND topic = ? ORDER BY completedAt DESC", "user", "java");
+        assertIndexed("SELECT * FROM quiz_results WHERE userId = ? AND difficulty = ? ORDER BY completedAt DESC", "user", "easy");
+        assertIndexed("SELECT * FROM quiz_results WHERE userId = ? AND completedAt >= ? AND completedAt <= ? ORDER BY completedAt DESC", "user", 0L, 1L);
+        assertIndexed("SELECT * FROM quiz_results WHERE userId = ? ORDER BY completedAt DESC LIMIT ?", "user", 10);
+        assertIndexed("SELECT * FROM quiz_results WHERE quizId = ?", "quiz");
+    }
+
+    private void assertIndexed(String sql, Object... args) {
+        String plan = explain(sql, args);
+        assertTrue(sql + "\n" + plan, plan.contains("USING INDEX") || plan.contains("USING COVERING INDEX"));
+        assertFalse(sql + "\n" + plan, plan.contains("SCAN "));
+        assertFalse(sql + "\n" + plan, plan.contains("TEMP B-TREE"));
+    }
+
+    private void assertCovered(String sql, Object... args) {
+        assertIndexed(sql, args);
+        String plan = explain(sql, args);
+        assertTrue(sql + "\n" + plan, plan.contains("USING COVERING INDEX"));
+    }
+
+    private String explain(String sql, Object... args) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + sql, args))) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
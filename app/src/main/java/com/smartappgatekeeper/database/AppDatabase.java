@@ -23,9 +23,12 @@ import com.smartappgatekeeper.database.converters.DateConverters;
         UsageEvent.class,
         Streak.class,
         AppSettings.class,
-        QuizResult.class
+        QuizResult.class,
+        UsageDailyRollup.class,
+        QuestionRecord.class,
+        QuestionReview.class
     },
-    version = 3,
+    version = 8,
     exportSchema = false
 )
 @TypeConverters({DateConverters.class})
@@ -82,6 +85,104 @@ public abstract class AppDatabase extends RoomDatabase {
         }
     };
     
+    // Migration from version 3 to 4
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Indices backing the UsageEventDao and QuizResultDao filters
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_usage_events_packageName_timestamp` ON `usage_events` (`packageName`, `timestamp`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_usage_events_packageName_success_timeSpentSeconds` ON `usage_events` (`packageName`, `success`, `timeSpentSeconds`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_usage_events_packageName_eventType_timestamp_durationSeconds` ON `usage_events` (`packageName`, `eventType`, `timestamp`, `durationSeconds`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_usage_events_eventType_timestamp` ON `usage_events` (`eventType`, `timestamp`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_usage_events_sessionId_timestamp` ON `usage_events` (`sessionId`, `timestamp`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_usage_events_success_timestamp` ON `usage_events` (`success`, `timestamp`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_usage_events_timestamp` ON `usage_events` (`timestamp`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_quiz_results_userId_completedAt` ON `quiz_results` (`userId`, `completedAt`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_quiz_results_userId_topic_completedAt` ON `quiz_results` (`userId`, `topic`, `completedAt`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_quiz_results_userId_difficulty_completedAt` ON `quiz_results` (`userId`, `difficulty`, `completedAt`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_quiz_results_quizId` ON `quiz_results` (`quizId`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_quiz_results_completedAt` ON `quiz_results` (`completedAt`)");
+            database.execSQL("ANALYZE");
+        }
+    };
+    
+    // Migration from version 4 to 5
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Local day/hour buckets of timestampLong
+            database.execSQL("ALTER TABLE usage_events ADD COLUMN epochDay INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE usage_events ADD COLUMN hourOfDay INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("UPDATE usage_events SET " +
+                "epochDay = CAST(julianday(timestampLong / 1000, 'unixepoch', 'localtime') - 2440587.5 AS INTEGER), " +
+                "hourOfDay = CAST(strftime('%H', timestampLong / 1000, 'unixepoch', 'localtime') AS INTEGER)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_usage_events_epochDay_packageName` ON `usage_events` (`epochDay`, `packageName`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_usage_events_packageName_success_epochDay` ON `usage_events` (`packageName`, `success`, `epochDay`)");
+        }
+    };
+    
+    // Migration from version 5 to 6
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Daily rollup of usage_events, backfilled from the raw rows
+            database.execSQL("CREATE TABLE IF NOT EXISTS `usage_daily_rollup` (" +
+                "`epochDay` INTEGER NOT NULL, " +
+                "`packageName` TEXT NOT NULL, " +
+                "`eventType` TEXT NOT NULL, " +
+                "`eventCount` INTEGER NOT NULL, " +
+                "`totalDurationSeconds` INTEGER NOT NULL, " +
+                "`totalCoinsEarned` INTEGER NOT NULL, " +
+                "`totalTimeSpentSeconds` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`epochDay`, `packageName`, `eventType`))");
+            database.execSQL("INSERT INTO usage_daily_rollup (epochDay, packageName, eventType, eventCount, " +
+                "totalDurationSeconds, totalCoinsEarned, totalTimeSpentSeconds) " +
+                "SELECT epochDay, IFNULL(packageName, ''), IFNULL(eventType, ''), COUNT(*), " +
+                "SUM(MAX(durationSeconds, 0)), SUM(coinsEarned), SUM(timeSpentSeconds) " +
+                "FROM usage_events GROUP BY epochDay, IFNULL(packageName, ''), IFNULL(eventType, '')");
+        }
+    };
+    
+    // Migration from version 6 to 7
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Local copy of the Supabase questions table, filled by the pull sync
+            database.execSQL("CREATE TABLE IF NOT EXISTS `questions` (" +
+                "`id` TEXT NOT NULL, " +
+                "`questionText` TEXT, " +
+                "`optionA` TEXT, " +
+                "`optionB` TEXT, " +
+                "`optionC` TEXT, " +
+                "`optionD` TEXT, " +
+                "`correctAnswer` TEXT, " +
+                "`explanation` TEXT, " +
+                "`topic` TEXT, " +
+                "`difficulty` TEXT, " +
+                "`isActive` INTEGER NOT NULL, " +
+                "`updatedAt` TEXT, " +
+                "PRIMARY KEY(`id`))");
+        }
+    };
+    
+    // Migration from version 7 to 8
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Spaced-repetition state, one row per answered question
+            database.execSQL("CREATE TABLE IF NOT EXISTS `question_reviews` (" +
+                "`questionKey` INTEGER NOT NULL, " +
+                "`topic` TEXT, " +
+                "`difficulty` TEXT, " +
+                "`dueAt` INTEGER NOT NULL, " +
+                "`intervalDays` INTEGER NOT NULL, " +
+                "`easeFactor` REAL NOT NULL, " +
+                "`repetitions` INTEGER NOT NULL, " +
+                "`lastAnsweredAt` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`questionKey`))");
+        }
+    };
+    
     // DAO accessors
     public abstract UserProfileDao userProfileDao();
     public abstract TargetAppDao targetAppDao();
@@ -89,6 +190,10 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract StreakDao streakDao();
     public abstract AppSettingsDao appSettingsDao();
     public abstract QuizResultDao quizResultDao();
+    public abstract UsageDailyRollupDao usageDailyRollupDao();
+    public abstract DashboardDao dashboardDao();
+    public abstract QuestionDao questionDao();
+    public abstract QuestionReviewDao questionReviewDao();
     
     /**
      * Get singleton instance of the database
@@ -104,8 +209,12 @@ public abstract class AppDatabase extends RoomDatabase {
                         AppDatabase.class,
                         "smart_app_gatekeeper_database"
                     )
-                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3)
+                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8)
                     .fallbackToDestructiveMigration()
+                    // Readers never block on the single writer
+                    .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                    .setQueryExecutor(DatabaseExecutors.getInstance().reader(DatabaseExecutors.Lane.UI))
+                    .setTransactionExecutor(DatabaseExecutors.getInstance().writer())
                     .build();
                 }
             }
@@ -0,0 +1,190 @@
+package com.smartappgatekeeper.database;
+
+import android.util.Log;
+
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Database executors: one writer thread and a prioritized read pool
+ * FR-002: System shall display quiz modal within 200ms of app launch attempt
+ *
+ * With WAL, readers never wait for the writer, so every write goes through a
+ * single thread while reads run in parallel on the read pool. Read tasks are
+ * queued by lane: interception lookups run before UI reads, which run before
+ * analytics; tasks within a lane keep FIFO order. Each lane records its
+ * queue depth and how long tasks waited before starting.
+ */
+public final class DatabaseExecutors {
+    private static final String TAG = "DatabaseExecutors";
+    private static volatile DatabaseExecutors INSTANCE;
+
+    private static final int READ_THREADS = 3;
+
+    /**
+     * Read lanes in priority order, plus the writer
+     */
+    public enum Lane {
+        INTERCEPTION,
+        UI,
+        ANALYTICS,
+        WRITE
+    }
+
+    private static final class LaneMetrics {
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicInteger maxQueued = new AtomicInteger();
+        final AtomicLong started = new AtomicLong();
+        final AtomicLong totalWaitNanos = new AtomicLong();
+        final AtomicLong maxWaitNanos = new AtomicLong();
+    }
+
+    /**
+     * A task tagged with its lane; orders by lane, then by submission
+     */
+    private final class LaneTask implements Runnable, Comparable<LaneTask> {
+        final Lane lane;
+        final long sequence;
+        final long enqueuedNanos = System.nanoTime();
+        final Runnable task;
+
+        LaneTask(Lane lane, long sequence, Runnable task) {
+            this.lane = lane;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            LaneMetrics laneMetrics = metrics[lane.ordinal()];
+            long waited = System.nanoTime() - enqueuedNanos;
+            laneMetrics.queued.decrementAndGet();
+            laneMetrics.started.incrementAndGet();
+            laneMetrics.totalWaitNanos.addAndGet(waited);
+            updateMax(laneMetrics.maxWaitNanos, waited);
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // Keep the thread; a replacement would reset the writer identity
+                Log.e(TAG, "Task failed on " + lane + " lane", e);
+            }
+        }
+
+        @Override
+        public int compareTo(LaneTask other) {
+            if (lane != other.lane) {
+                return Integer.compare(lane.ordinal(), other.lane.ordinal());
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final ThreadPoolExecutor readPool;
+    private final ThreadPoolExecutor writePool;
+    private final LaneMetrics[] metrics = new LaneMetrics[Lane.values().length];
+    private final Executor[] laneExecutors = new Executor[Lane.values().length];
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile Thread writerThread;
+
+    public static DatabaseExecutors getInstance() {
+        if (INSTANCE == null) {
+            synchronized (DatabaseExecutors.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new DatabaseExecutors();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private DatabaseExecutors() {
+        AtomicInteger readerCount = new AtomicInteger();
+        // Fixed size: with an unbounded queue the pool never grows past its core threads
+        readPool = new ThreadPoolExecutor(READ_THREADS, READ_THREADS, 0L, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(),
+            runnable -> new Thread(runnable, "db-reader-" + readerCount.incrementAndGet()));
+        writePool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "db-writer");
+                writerThread = thread;
+                return thread;
+            });
+
+        for (Lane lane : Lane.values()) {
+            metrics[lane.ordinal()] = new LaneMetrics();
+            ThreadPoolExecutor pool = lane == Lane.WRITE ? writePool : readPool;
+            laneExecutors[lane.ordinal()] = task -> {
+                LaneMetrics laneMetrics = metrics[lane.ordinal()];
+                updateMax(laneMetrics.maxQueued, laneMetrics.queued.incrementAndGet());
+                pool.execute(new LaneTask(lane, sequence.incrementAndGet(), task));
+            };
+        }
+    }
+
+    /**
+     * The single writer; every insert, update and delete goes here
+     */
+    public Executor writer() {
+        return laneExecutors[Lane.WRITE.ordinal()];
+    }
+
+    public Executor reader(Lane lane) {
+        if (lane == Lane.WRITE) {
+            throw new IllegalArgumentException("WRITE is not a read lane");
+        }
+        return laneExecutors[lane.ordinal()];
+    }
+
+    public boolean isWriterThread() {
+        return Thread.currentThread() == writerThread;
+    }
+
+    public int getQueueDepth(Lane lane) {
+        return metrics[lane.ordinal()].queued.get();
+    }
+
+    /**
+     * Mean time tasks of a lane waited in the queue, in milliseconds
+     */
+    public double getAverageWaitMillis(Lane lane) {
+        LaneMetrics laneMetrics = metrics[lane.ordinal()];
+        long started = laneMetrics.started.get();
+        return started > 0 ? laneMetrics.totalWaitNanos.get() / (started * 1_000_000.0) : 0;
+    }
+
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Lane lane : Lane.values()) {
+            LaneMetrics laneMetrics = metrics[lane.ordinal()];
+            if (summary.length() > 0) {
+                summary.append('\n');
+            }
+            summary.append(String.format(Locale.US,
+                "%s: queued %d (max %d), ran %d, wait avg %.1fms max %.1fms",
+                lane, laneMetrics.queued.get(), laneMetrics.maxQueued.get(), laneMetrics.started.get(),
+                getAverageWaitMillis(lane), laneMetrics.maxWaitNanos.get() / 1_000_000.0));
+        }
+        return summary.toString();
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Retry until the larger value is stored
+        }
+    }
+
+    private static void updateMax(AtomicInteger max, int value) {
+        int current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Retry until the larger value is stored
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.smartappgatekeeper.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import com.smartappgatekeeper.model.DashboardSnapshot;
+
+/**
+ * Data Access Object for the combined dashboard aggregate
+ * FR-016: System shall display daily and weekly usage statistics
+ */
+@Dao
+public interface DashboardDao {
+    
+    // Course completion: a topic passed with 80%+ accuracy
+    @Query("SELECT :today AS epochDay, " +
+           "COALESCE((SELECT SUM(totalDurationSeconds) FROM usage_daily_rollup WHERE eventType = 'app_unlock' AND epochDay = :today), 0) AS todayUnlockedSeconds, " +
+           "COALESCE((SELECT SUM(totalDurationSeconds) FROM usage_daily_rollup WHERE eventType = 'app_unlock' AND epochDay BETWEEN :weekStartDay AND :weekEndDay), 0) AS weekUnlockedSeconds, " +
+           "COALESCE((SELECT currentCount FROM streaks WHERE streakType = 'daily' LIMIT 1), 0) AS currentStreak, " +
+           "COALESCE((SELECT SUM(totalQuestionsAnswered) FROM streaks), 0) AS questionsAnswered, " +
+           "COALESCE((SELECT SUM(totalCorrectAnswers) FROM streaks), 0) AS correctAnswers, " +
+           "COALESCE((SELECT SUM(totalCoinsEarned) FROM streaks), 0) AS coinsEarned, " +
+           "(SELECT COUNT(DISTINCT topic) FROM quiz_results WHERE userId = :userId AND isPassed = 1 AND accuracy >= 80.0) AS coursesCompleted")
+    DashboardSnapshot getDashboardSnapshotSync(String userId, long today, long weekStartDay, long weekEndDay);
+}
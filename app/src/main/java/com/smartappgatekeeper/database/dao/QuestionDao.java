@@ -0,0 +1,23 @@
+package com.smartappgatekeeper.database.dao;
+
+import androidx.room.*;
+import com.smartappgatekeeper.database.entities.QuestionRecord;
+import java.util.List;
+
+/**
+ * Data Access Object for the questions table
+ * FR-006: System shall generate questions from selected topics
+ */
+@Dao
+public interface QuestionDao {
+    
+    // Pulled rows replace the local copy; the server is the source of truth
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertQuestions(List<QuestionRecord> questions);
+    
+    @Query("SELECT * FROM questions WHERE isActive = 1 ORDER BY topic, difficulty, id")
+    List<QuestionRecord> getActiveQuestionsSync();
+    
+    @Query("SELECT COUNT(*) FROM questions WHERE isActive = 1")
+    int getActiveQuestionCountSync();
+}
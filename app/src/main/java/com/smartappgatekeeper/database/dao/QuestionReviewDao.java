@@ -0,0 +1,19 @@
+package com.smartappgatekeeper.database.dao;
+
+import androidx.room.*;
+import com.smartappgatekeeper.database.entities.QuestionReview;
+import java.util.List;
+
+/**
+ * Data Access Object for the question_reviews table
+ * FR-006: System shall generate questions from selected topics
+ */
+@Dao
+public interface QuestionReviewDao {
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertReview(QuestionReview review);
+    
+    @Query("SELECT * FROM question_reviews")
+    List<QuestionReview> getAllReviewsSync();
+}
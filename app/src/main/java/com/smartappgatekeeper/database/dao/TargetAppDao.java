@@ -18,6 +18,9 @@ public interface TargetAppDao {
     @Query("SELECT * FROM target_apps WHERE isEnabled = 1 ORDER BY appName ASC")
     LiveData<List<TargetApp>> getEnabledTargetApps();
     
+    @Query("SELECT * FROM target_apps")
+    List<TargetApp> getAllTargetAppsSync();
+    
     @Query("SELECT * FROM target_apps WHERE packageName = :packageName LIMIT 1")
     LiveData<TargetApp> getTargetAppByPackage(String packageName);
     
@@ -25,7 +28,7 @@ public interface TargetAppDao {
     TargetApp getTargetAppByPackageSync(String packageName);
     
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertTargetApp(TargetApp targetApp);
+    long insertTargetApp(TargetApp targetApp);
     
     @Update
     void updateTargetApp(TargetApp targetApp);
@@ -51,15 +54,9 @@ public interface TargetAppDao {
     @Query("UPDATE target_apps SET selectedTopics = :topics WHERE id = :appId")
     void updateSelectedTopics(int appId, String topics);
     
-    @Query("UPDATE target_apps SET currentUsesToday = :uses WHERE id = :appId")
-    void updateCurrentUsesToday(int appId, int uses);
-    
-    @Query("UPDATE target_apps SET emergencyUsesUsed = :uses WHERE id = :appId")
-    void updateEmergencyUsesUsed(int appId, int uses);
-    
-    @Query("UPDATE target_apps SET currentUsesToday = 0")
-    void resetDailyUsage();
+    @Query("UPDATE target_apps SET currentUsesToday = :uses, emergencyUsesUsed = :emergencyUses WHERE packageName = :packageName")
+    void updateUsageCounters(String packageName, int uses, int emergencyUses);
     
-    @Query("UPDATE target_apps SET emergencyUsesUsed = 0")
-    void resetEmergencyUsage();
+    @Query("UPDATE target_apps SET currentUsesToday = 0, emergencyUsesUsed = 0 WHERE currentUsesToday != 0 OR emergencyUsesUsed != 0")
+    void clearUsageCounters();
 }
\ No newline at end of file
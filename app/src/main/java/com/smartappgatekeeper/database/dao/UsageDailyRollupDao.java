@@ -0,0 +1,110 @@
+package com.smartappgatekeeper.database.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.*;
+import com.smartappgatekeeper.database.entities.UsageDailyRollup;
+import java.util.List;
+
+/**
+ * Data Access Object for the usage_daily_rollup table
+ * FR-004: System shall log all interception events for analytics
+ */
+@Dao
+public interface UsageDailyRollupDao {
+    
+    @Query("SELECT * FROM usage_daily_rollup WHERE epochDay BETWEEN :startDay AND :endDay ORDER BY epochDay ASC")
+    LiveData<List<UsageDailyRollup>> getRollupsByDays(long startDay, long endDay);
+    
+    @Query("SELECT * FROM usage_daily_rollup WHERE epochDay BETWEEN :startDay AND :endDay ORDER BY epochDay ASC")
+    List<UsageDailyRollup> getRollupsByDaysSync(long startDay, long endDay);
+    
+    @Query("SELECT eventType, SUM(eventCount) AS eventCount FROM usage_daily_rollup WHERE epochDay BETWEEN :startDay AND :endDay GROUP BY eventType")
+    LiveData<List<TypeCount>> getEventTypeCounts(long startDay, long endDay);
+    
+    @Query("SELECT eventType, SUM(eventCount) AS eventCount FROM usage_daily_rollup WHERE epochDay BETWEEN :startDay AND :endDay GROUP BY eventType")
+    List<TypeCount> getEventTypeCountsSync(long startDay, long endDay);
+    
+    // Days with at least one event of a type, newest first
+    @Query("SELECT DISTINCT epochDay FROM usage_daily_rollup WHERE eventType = :eventType AND eventCount > 0 AND epochDay BETWEEN :startDay AND :endDay ORDER BY epochDay DESC")
+    List<Long> getActiveDaysSync(String eventType, long startDay, long endDay);
+    
+    // Incremental maintenance: create the row if needed, then add the deltas.
+    // (SQLite UPSERT needs API 30; minSdk is 26)
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertIfAbsent(UsageDailyRollup rollup);
+    
+    @Query("UPDATE usage_daily_rollup SET " +
+           "eventCount = eventCount + :eventCount, " +
+           "totalDurationSeconds = totalDurationSeconds + :durationSeconds, " +
+           "totalCoinsEarned = totalCoinsEarned + :coinsEarned, " +
+           "totalTimeSpentSeconds = totalTimeSpentSeconds + :timeSpentSeconds " +
+           "WHERE epochDay = :epochDay AND packageName = :packageName AND eventType = :eventType")
+    void addToRollup(long epochDay, String packageName, String eventType,
+                     int eventCount, long durationSeconds, long coinsEarned, long timeSpentSeconds);
+    
+    /**
+     * Merge pre-aggregated deltas; call inside the event insert transaction
+     */
+    default void applyDeltas(Iterable<UsageDailyRollup> deltas) {
+        UsageDailyRollup empty = new UsageDailyRollup();
+        for (UsageDailyRollup delta : deltas) {
+            empty.epochDay = delta.epochDay;
+            empty.packageName = delta.packageName;
+            empty.eventType = delta.eventType;
+            insertIfAbsent(empty);
+            addToRollup(delta.epochDay, delta.packageName, delta.eventType, delta.eventCount,
+                delta.totalDurationSeconds, delta.totalCoinsEarned, delta.totalTimeSpentSeconds);
+        }
+    }
+    
+    // Rebuild from raw usage_events for days >= fromDay
+    @Query("DELETE FROM usage_daily_rollup WHERE epochDay >= :fromDay")
+    void deleteRollupsFrom(long fromDay);
+    
+    @Query("INSERT INTO usage_daily_rollup (epochDay, packageName, eventType, eventCount, totalDurationSeconds, totalCoinsEarned, totalTimeSpentSeconds) " +
+           "SELECT epochDay, IFNULL(packageName, ''), IFNULL(eventType, ''), COUNT(*), " +
+           "SUM(MAX(durationSeconds, 0)), SUM(coinsEarned), SUM(timeSpentSeconds) " +
+           "FROM usage_events WHERE epochDay >= :fromDay " +
+           "GROUP BY epochDay, IFNULL(packageName, ''), IFNULL(eventType, '')")
+    void insertRollupsFromEvents(long fromDay);
+    
+    @Transaction
+    default void rebuildFrom(long fromDay) {
+        deleteRollupsFrom(fromDay);
+        insertRollupsFromEvents(fromDay);
+    }
+    
+    // Roll up days before beforeDay that have raw events but no rollup rows at all.
+    // Days that already have rows are maintained by the insert path and left alone.
+    @Query("SELECT COUNT(DISTINCT epochDay) FROM usage_events WHERE epochDay < :beforeDay " +
+           "AND epochDay NOT IN (SELECT epochDay FROM usage_daily_rollup WHERE epochDay < :beforeDay)")
+    int countDaysWithoutRollup(long beforeDay);
+    
+    @Query("INSERT INTO usage_daily_rollup (epochDay, packageName, eventType, eventCount, totalDurationSeconds, totalCoinsEarned, totalTimeSpentSeconds) " +
+           "SELECT epochDay, IFNULL(packageName, ''), IFNULL(eventType, ''), COUNT(*), " +
+           "SUM(MAX(durationSeconds, 0)), SUM(coinsEarned), SUM(timeSpentSeconds) " +
+           "FROM usage_events WHERE epochDay < :beforeDay " +
+           "AND epochDay NOT IN (SELECT epochDay FROM usage_daily_rollup WHERE epochDay < :beforeDay) " +
+           "GROUP BY epochDay, IFNULL(packageName, ''), IFNULL(eventType, '')")
+    void insertMissingRollupsBefore(long beforeDay);
+    
+    /**
+     * @return days rolled up
+     */
+    @Transaction
+    default int rollUpMissingDaysBefore(long beforeDay) {
+        int days = countDaysWithoutRollup(beforeDay);
+        if (days > 0) {
+            insertMissingRollupsBefore(beforeDay);
+        }
+        return days;
+    }
+    
+    /**
+     * Event count for one event type
+     */
+    class TypeCount {
+        public String eventType;
+        public int eventCount;
+    }
+}
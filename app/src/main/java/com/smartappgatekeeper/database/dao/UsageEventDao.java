@@ -17,6 +17,13 @@ public interface UsageEventDao {
     @Query("SELECT * FROM usage_events ORDER BY timestamp DESC")
     LiveData<List<UsageEvent>> getAllUsageEvents();
     
+    // Keyset page: events strictly older than (cursorTime, cursorId), served by the timestamp index
+    @Query("SELECT * FROM usage_events WHERE (timestamp, id) < (:cursorTime, :cursorId) ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    List<UsageEvent> getUsageEventsBeforeSync(long cursorTime, int cursorId, int limit);
+    
+    @Query("SELECT COUNT(*) FROM usage_events")
+    int getUsageEventCountSync();
+    
     @Query("SELECT * FROM usage_events WHERE packageName = :packageName ORDER BY timestamp DESC")
     LiveData<List<UsageEvent>> getUsageEventsByPackage(String packageName);
     
@@ -38,18 +45,14 @@ public interface UsageEventDao {
     @Query("SELECT * FROM usage_events WHERE sessionId = :sessionId ORDER BY timestamp ASC")
     LiveData<List<UsageEvent>> getUsageEventsBySession(String sessionId);
     
+    // Rows change only through AppRepository.writeUsageEvents, which updates usage_daily_rollup
+    // in the same transaction; there is deliberately no per-row update or delete
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertUsageEvent(UsageEvent usageEvent);
     
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertUsageEvents(List<UsageEvent> usageEvents);
     
-    @Update
-    void updateUsageEvent(UsageEvent usageEvent);
-    
-    @Delete
-    void deleteUsageEvent(UsageEvent usageEvent);
-    
     @Query("SELECT COUNT(*) FROM usage_events WHERE packageName = :packageName AND success = 1")
     LiveData<Integer> getSuccessfulAttemptsCount(String packageName);
     
@@ -65,12 +68,61 @@ public interface UsageEventDao {
     @Query("SELECT SUM(durationSeconds) FROM usage_events WHERE packageName = :packageName AND eventType = 'app_unlock' AND timestamp >= :startDate AND timestamp <= :endDate")
     LiveData<Long> getTotalUsageTime(String packageName, Date startDate, Date endDate);
     
-    @Query("SELECT COUNT(DISTINCT DATE(timestamp)) FROM usage_events WHERE packageName = :packageName AND success = 1 AND timestamp >= :startDate AND timestamp <= :endDate")
-    LiveData<Integer> getActiveDaysCount(String packageName, Date startDate, Date endDate);
+    // Day/hour statistics on the local epochDay/hourOfDay buckets (inclusive day ranges)
+    @Query("SELECT COUNT(DISTINCT epochDay) FROM usage_events WHERE packageName = :packageName AND success = 1 AND epochDay BETWEEN :startDay AND :endDay")
+    LiveData<Integer> getActiveDaysCount(String packageName, long startDay, long endDay);
+    
+    @Query("SELECT * FROM usage_events WHERE epochDay BETWEEN :startDay AND :endDay ORDER BY timestamp DESC")
+    LiveData<List<UsageEvent>> getUsageEventsByDays(long startDay, long endDay);
+    
+    @Query("SELECT epochDay AS bucket, COUNT(*) AS eventCount, SUM(durationSeconds) AS totalDurationSeconds FROM usage_events WHERE epochDay BETWEEN :startDay AND :endDay GROUP BY epochDay ORDER BY epochDay")
+    LiveData<List<BucketCount>> getEventCountsByDay(long startDay, long endDay);
+    
+    @Query("SELECT hourOfDay AS bucket, COUNT(*) AS eventCount, SUM(durationSeconds) AS totalDurationSeconds FROM usage_events WHERE epochDay BETWEEN :startDay AND :endDay GROUP BY hourOfDay ORDER BY hourOfDay")
+    LiveData<List<BucketCount>> getEventCountsByHour(long startDay, long endDay);
+    
+    // Aggregates computed in SQL over an epochDay range, so callers never scan the whole table
+    @Query("SELECT hourOfDay AS bucket, COUNT(*) AS eventCount, SUM(durationSeconds) AS totalDurationSeconds FROM usage_events WHERE epochDay BETWEEN :startDay AND :endDay GROUP BY hourOfDay ORDER BY hourOfDay")
+    List<BucketCount> getHourlyHistogramSync(long startDay, long endDay);
+    
+    @Query("SELECT appName, COUNT(*) AS eventCount FROM usage_events WHERE epochDay BETWEEN :startDay AND :endDay AND appName IS NOT NULL GROUP BY appName ORDER BY eventCount DESC LIMIT :limit")
+    List<AppCount> getTopAppsSync(long startDay, long endDay, int limit);
     
     @Query("DELETE FROM usage_events WHERE timestamp < :cutoffDate")
     void deleteOldEvents(Date cutoffDate);
     
-    @Delete
-    void delete(UsageEvent event);
+    // Bounded retention delete, oldest day first so at most one day is ever partly deleted;
+    // returns rows removed, fewer than limit once done
+    @Query("DELETE FROM usage_events WHERE id IN (SELECT id FROM usage_events WHERE epochDay < :cutoffDay ORDER BY epochDay, id LIMIT :limit)")
+    int deleteEventsBeforeDay(long cutoffDay, int limit);
+    
+    /**
+     * Event count and total duration for one day or hour bucket
+     */
+    class BucketCount {
+        public long bucket;
+        public int eventCount;
+        public long totalDurationSeconds;
+    }
+    
+    /**
+     * Event count for one app name
+     */
+    class AppCount {
+        public String appName;
+        public int eventCount;
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof AppCount)) return false;
+            AppCount other = (AppCount) o;
+            return eventCount == other.eventCount && java.util.Objects.equals(appName, other.appName);
+        }
+        
+        @Override
+        public int hashCode() {
+            return java.util.Objects.hash(appName, eventCount);
+        }
+    }
 }
\ No newline at end of file
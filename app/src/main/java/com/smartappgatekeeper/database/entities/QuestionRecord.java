@@ -0,0 +1,51 @@
+package com.smartappgatekeeper.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import com.smartappgatekeeper.model.Question;
+
+/**
+ * Local copy of a row of the Supabase questions table
+ * FR-006: System shall generate questions from selected topics
+ *
+ * Filled by the pull sync; updatedAt is kept exactly as the server sent it
+ * so it can be sent back as the sync high-water mark. Inactive rows are
+ * kept, so a deactivation on the server reaches the device like any update.
+ * Lookups by topic and difficulty go through QuestionBankService's in-memory
+ * index, so the table carries no secondary indices.
+ */
+@Entity(tableName = "questions")
+public class QuestionRecord {
+    @PrimaryKey
+    @NonNull
+    public String id = "";
+    
+    public String questionText;
+    public String optionA;
+    public String optionB;
+    public String optionC;
+    public String optionD;
+    public String correctAnswer;
+    public String explanation;
+    public String topic;
+    public String difficulty;
+    public boolean isActive = true;
+    public String updatedAt;
+    
+    public Question toQuestion() {
+        Question question = new Question();
+        question.setQuestionText(questionText);
+        question.setOptionA(optionA);
+        question.setOptionB(optionB);
+        question.setOptionC(optionC);
+        question.setOptionD(optionD);
+        question.setCorrectAnswer(correctAnswer);
+        question.setExplanation(explanation);
+        question.setTopic(topic);
+        question.setDifficulty(difficulty);
+        question.setActive(isActive);
+        return question;
+    }
+}
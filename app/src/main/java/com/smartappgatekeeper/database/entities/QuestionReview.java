@@ -0,0 +1,25 @@
+package com.smartappgatekeeper.database.entities;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Spaced-repetition state of one answered question, one row per question
+ * FR-006: System shall generate questions from selected topics
+ *
+ * Written once per answer by ReviewScheduler; read in full only when the
+ * scheduler starts. questionKey is QuestionBankService.keyOf the question.
+ */
+@Entity(tableName = "question_reviews")
+public class QuestionReview {
+    @PrimaryKey
+    public long questionKey;
+    
+    public String topic;
+    public String difficulty;
+    public long dueAt;
+    public int intervalDays;
+    public float easeFactor;
+    public int repetitions;
+    public long lastAnsweredAt;
+}
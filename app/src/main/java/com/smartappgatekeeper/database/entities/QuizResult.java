@@ -2,6 +2,7 @@ package com.smartappgatekeeper.database.entities;
 
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.TypeConverters;
 import java.util.Date;
@@ -10,7 +11,16 @@ import java.util.Date;
  * Entity representing quiz results and performance
  * FR-008: System shall track quiz performance and accuracy
  */
-@Entity(tableName = "quiz_results")
+@Entity(
+    tableName = "quiz_results",
+    indices = {
+        @Index({"userId", "completedAt"}),
+        @Index({"userId", "topic", "completedAt"}),
+        @Index({"userId", "difficulty", "completedAt"}),
+        @Index({"quizId"}),
+        @Index({"completedAt"})
+    }
+)
 @TypeConverters({com.smartappgatekeeper.database.converters.DateConverters.class})
 public class QuizResult {
     @PrimaryKey(autoGenerate = true)
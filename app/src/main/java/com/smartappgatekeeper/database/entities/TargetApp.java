@@ -74,6 +74,32 @@ public class TargetApp implements Parcelable {
         this.isEnabled = isEnabled;
     }
 
+    // Copy constructor used for immutable snapshots in the policy cache
+    @Ignore
+    public TargetApp(TargetApp other) {
+        this.id = other.id;
+        this.packageName = other.packageName;
+        this.appName = other.appName;
+        this.iconPath = other.iconPath;
+        this.isEnabled = other.isEnabled;
+        this.createdAt = other.createdAt;
+        this.lastUpdated = other.lastUpdated;
+        this.category = other.category;
+        this.selected = other.selected;
+        this.dailyLimitMinutes = other.dailyLimitMinutes;
+        this.perUnlockDurationMinutes = other.perUnlockDurationMinutes;
+        this.maxUsesPerDay = other.maxUsesPerDay;
+        this.currentUsesToday = other.currentUsesToday;
+        this.questionsPerUnlock = other.questionsPerUnlock;
+        this.timePerQuestionSeconds = other.timePerQuestionSeconds;
+        this.wrongAnswerDelayMinutes = other.wrongAnswerDelayMinutes;
+        this.difficultyLevel = other.difficultyLevel;
+        this.selectedTopics = other.selectedTopics;
+        this.emergencyBypassEnabled = other.emergencyBypassEnabled;
+        this.emergencyUsesPerDay = other.emergencyUsesPerDay;
+        this.emergencyUsesUsed = other.emergencyUsesUsed;
+    }
+
     // Getters and Setters
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
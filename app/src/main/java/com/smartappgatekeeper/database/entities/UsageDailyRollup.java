@@ -0,0 +1,93 @@
+package com.smartappgatekeeper.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Per-day totals of usage events, one row per (epochDay, packageName, eventType)
+ * FR-004: System shall log all interception events for analytics
+ *
+ * Maintained in the same transaction as usage_events inserts and rebuildable
+ * from raw events, so day/week/month figures read at most a few rows per day.
+ * Null package names and event types are stored as "".
+ */
+@Entity(
+    tableName = "usage_daily_rollup",
+    primaryKeys = {"epochDay", "packageName", "eventType"}
+)
+public class UsageDailyRollup {
+    public long epochDay;
+    @NonNull
+    public String packageName = "";
+    @NonNull
+    public String eventType = "";
+    
+    public int eventCount;
+    public long totalDurationSeconds;
+    public long totalCoinsEarned;
+    public long totalTimeSpentSeconds;
+    
+    public UsageDailyRollup() {
+    }
+    
+    @Ignore
+    public UsageDailyRollup(long epochDay, String packageName, String eventType) {
+        this.epochDay = epochDay;
+        this.packageName = packageName != null ? packageName : "";
+        this.eventType = eventType != null ? eventType : "";
+    }
+    
+    /**
+     * Add one event to this row's totals
+     */
+    public void add(UsageEvent event) {
+        eventCount++;
+        totalDurationSeconds += Math.max(0, event.durationSeconds);
+        totalCoinsEarned += event.coinsEarned;
+        totalTimeSpentSeconds += event.timeSpentSeconds;
+    }
+    
+    /**
+     * Fold a batch of events into one delta row per (epochDay, packageName, eventType),
+     * matching the GROUP BY used to rebuild the table from raw events
+     */
+    public static Collection<UsageDailyRollup> deltasOf(Iterable<UsageEvent> events) {
+        Map<String, UsageDailyRollup> deltas = new HashMap<>();
+        for (UsageEvent event : events) {
+            UsageDailyRollup key = new UsageDailyRollup(event.epochDay, event.packageName, event.eventType);
+            String id = key.epochDay + "|" + key.packageName + "|" + key.eventType;
+            UsageDailyRollup delta = deltas.get(id);
+            if (delta == null) {
+                delta = key;
+                deltas.put(id, delta);
+            }
+            delta.add(event);
+        }
+        return deltas.values();
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UsageDailyRollup)) return false;
+        UsageDailyRollup other = (UsageDailyRollup) o;
+        return epochDay == other.epochDay
+            && eventCount == other.eventCount
+            && totalDurationSeconds == other.totalDurationSeconds
+            && totalCoinsEarned == other.totalCoinsEarned
+            && totalTimeSpentSeconds == other.totalTimeSpentSeconds
+            && packageName.equals(other.packageName)
+            && eventType.equals(other.eventType);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(epochDay, packageName, eventType, eventCount);
+    }
+}
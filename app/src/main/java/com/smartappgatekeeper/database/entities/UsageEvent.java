@@ -1,15 +1,34 @@
 package com.smartappgatekeeper.database.entities;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Date;
+import java.util.Objects;
 
 /**
  * Entity representing app usage events and quiz attempts
  * FR-004: System shall log all interception events for analytics
  * FR-008: System shall track quiz performance and accuracy
  */
-@Entity(tableName = "usage_events")
+@Entity(
+    tableName = "usage_events",
+    indices = {
+        @Index({"packageName", "timestamp"}),
+        @Index({"packageName", "success", "timeSpentSeconds"}),
+        @Index({"packageName", "eventType", "timestamp", "durationSeconds"}),
+        @Index({"eventType", "timestamp"}),
+        @Index({"sessionId", "timestamp"}),
+        @Index({"success", "timestamp"}),
+        @Index({"timestamp"}),
+        @Index({"epochDay", "packageName"}),
+        @Index({"packageName", "success", "epochDay"})
+    }
+)
 public class UsageEvent {
     @PrimaryKey(autoGenerate = true)
     public int id;
@@ -19,6 +38,12 @@ public class UsageEvent {
     public String eventType; // "app_launch", "quiz_attempt", "quiz_success", "quiz_failure", "app_unlock", "app_lock"
     public Date timestamp;
     public long timestampLong; // Long timestamp for compatibility
+    
+    // Local calendar buckets of timestampLong, for integer day/hour queries
+    @ColumnInfo(defaultValue = "0")
+    public long epochDay;
+    @ColumnInfo(defaultValue = "0")
+    public int hourOfDay;
     public long durationSeconds;
     public boolean success;
     public String details; // JSON string with additional event data
@@ -40,8 +65,9 @@ public class UsageEvent {
     public int moduleId;
     
     public UsageEvent() {
-        this.timestamp = new Date();
         this.timestampLong = System.currentTimeMillis();
+        this.timestamp = new Date(timestampLong);
+        updateTimeBuckets();
         this.success = false;
         this.durationSeconds = 0;
         this.timeSpentSeconds = 0;
@@ -66,18 +92,33 @@ public class UsageEvent {
     public void setTimestamp(Date timestamp) { 
         this.timestamp = timestamp; 
         this.timestampLong = timestamp.getTime();
+        updateTimeBuckets();
     }
     
     public long getTimestampLong() { return timestampLong; }
     public void setTimestampLong(long timestampLong) { 
         this.timestampLong = timestampLong; 
         this.timestamp = new Date(timestampLong);
+        updateTimeBuckets();
     }
     
     // Overloaded setTimestamp for long compatibility
     public void setTimestamp(long timestampLong) {
         this.timestampLong = timestampLong;
         this.timestamp = new Date(timestampLong);
+        updateTimeBuckets();
+    }
+    
+    public long getEpochDay() { return epochDay; }
+    public int getHourOfDay() { return hourOfDay; }
+    
+    /**
+     * Recompute epochDay/hourOfDay from timestampLong in the device time zone
+     */
+    public void updateTimeBuckets() {
+        LocalDateTime local = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampLong), ZoneId.systemDefault());
+        this.epochDay = local.toLocalDate().toEpochDay();
+        this.hourOfDay = local.getHour();
     }
     
     public long getDurationSeconds() { return durationSeconds; }
@@ -118,4 +159,40 @@ public class UsageEvent {
     
     public int getModuleId() { return moduleId; }
     public void setModuleId(int moduleId) { this.moduleId = moduleId; }
+    
+    /**
+     * Equal when every column is equal, so shared query streams can skip unchanged lists
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UsageEvent)) return false;
+        UsageEvent other = (UsageEvent) o;
+        return id == other.id
+            && timestampLong == other.timestampLong
+            && epochDay == other.epochDay
+            && hourOfDay == other.hourOfDay
+            && durationSeconds == other.durationSeconds
+            && success == other.success
+            && questionId == other.questionId
+            && timeSpentSeconds == other.timeSpentSeconds
+            && coinsEarned == other.coinsEarned
+            && attemptNumber == other.attemptNumber
+            && moduleId == other.moduleId
+            && Objects.equals(timestamp, other.timestamp)
+            && Objects.equals(packageName, other.packageName)
+            && Objects.equals(appName, other.appName)
+            && Objects.equals(eventType, other.eventType)
+            && Objects.equals(details, other.details)
+            && Objects.equals(selectedAnswer, other.selectedAnswer)
+            && Objects.equals(correctAnswer, other.correctAnswer)
+            && Objects.equals(sessionId, other.sessionId)
+            && Objects.equals(platformId, other.platformId)
+            && Objects.equals(courseId, other.courseId);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, timestampLong, packageName, eventType);
+    }
 }
\ No newline at end of file
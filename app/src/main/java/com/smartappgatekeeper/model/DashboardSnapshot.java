@@ -0,0 +1,61 @@
+package com.smartappgatekeeper.model;
+
+import androidx.room.Ignore;
+
+/**
+ * Every dashboard figure in one object
+ * FR-016: System shall display daily and weekly usage statistics
+ * FR-017: System shall show learning progress and streaks
+ * FR-018: System shall display earned coins and achievements
+ *
+ * Produced by one aggregate query (DashboardDao) and persisted by the
+ * repository, so the last snapshot can be shown before any query has run.
+ */
+public class DashboardSnapshot {
+    public long epochDay; // local day the usage figures belong to
+    public long todayUnlockedSeconds;
+    public long weekUnlockedSeconds;
+    public int currentStreak;
+    public int questionsAnswered;
+    public int correctAnswers;
+    public int coinsEarned;
+    public int coursesCompleted;
+    
+    @Ignore
+    public long computedAtMillis;
+    
+    public double getAccuracy() {
+        return questionsAnswered > 0 ? (double) correctAnswers / questionsAnswered * 100 : 0;
+    }
+    
+    /**
+     * Equal when every displayed figure is equal; computedAtMillis is ignored
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DashboardSnapshot)) return false;
+        DashboardSnapshot other = (DashboardSnapshot) o;
+        return epochDay == other.epochDay
+            && todayUnlockedSeconds == other.todayUnlockedSeconds
+            && weekUnlockedSeconds == other.weekUnlockedSeconds
+            && currentStreak == other.currentStreak
+            && questionsAnswered == other.questionsAnswered
+            && correctAnswers == other.correctAnswers
+            && coinsEarned == other.coinsEarned
+            && coursesCompleted == other.coursesCompleted;
+    }
+    
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(epochDay);
+        result = 31 * result + Long.hashCode(todayUnlockedSeconds);
+        result = 31 * result + Long.hashCode(weekUnlockedSeconds);
+        result = 31 * result + currentStreak;
+        result = 31 * result + questionsAnswered;
+        result = 31 * result + correctAnswers;
+        result = 31 * result + coinsEarned;
+        result = 31 * result + coursesCompleted;
+        return result;
+    }
+}
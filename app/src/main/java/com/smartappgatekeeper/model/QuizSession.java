@@ -0,0 +1,48 @@
+package com.smartappgatekeeper.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pre-built quiz for an intercepted target app
+ * Built in the background so QuizActivity can show the first question immediately
+ */
+public class QuizSession {
+    private final String sessionId;
+    private final String packageName;
+    private final String difficulty;
+    private final List<Question> questions;
+    private final long createdAt;
+    
+    public QuizSession(String sessionId, String packageName, String difficulty, List<Question> questions) {
+        this.sessionId = sessionId;
+        this.packageName = packageName;
+        this.difficulty = difficulty;
+        this.questions = Collections.unmodifiableList(questions);
+        this.createdAt = System.currentTimeMillis();
+    }
+    
+    public String getSessionId() {
+        return sessionId;
+    }
+    
+    public String getPackageName() {
+        return packageName;
+    }
+    
+    public String getDifficulty() {
+        return difficulty;
+    }
+    
+    public List<Question> getQuestions() {
+        return questions;
+    }
+    
+    public long getCreatedAt() {
+        return createdAt;
+    }
+    
+    public boolean isEmpty() {
+        return questions.isEmpty();
+    }
+}
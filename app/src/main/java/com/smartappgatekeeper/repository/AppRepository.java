@@ -1,18 +1,33 @@
 package com.smartappgatekeeper.repository;
 
 import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Transformations;
 
 import com.smartappgatekeeper.database.AppDatabase;
+import com.smartappgatekeeper.database.DatabaseExecutors;
 import com.smartappgatekeeper.database.dao.*;
 import com.smartappgatekeeper.database.entities.*;
+import com.smartappgatekeeper.model.DashboardSnapshot;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Repository pattern implementation for data access
@@ -21,7 +36,12 @@ import java.util.concurrent.Executors;
 public class AppRepository {
     private static volatile AppRepository INSTANCE;
     private final AppDatabase database;
-    private final ExecutorService executor;
+    // Single writer plus a read pool with priority lanes; the database runs in WAL mode
+    private final DatabaseExecutors databaseExecutors = DatabaseExecutors.getInstance();
+    private final Executor writeExecutor = databaseExecutors.writer();
+    private final Executor readExecutor = databaseExecutors.reader(DatabaseExecutors.Lane.UI);
+    private final Executor interceptionExecutor = databaseExecutors.reader(DatabaseExecutors.Lane.INTERCEPTION);
+    private final Executor analyticsExecutor = databaseExecutors.reader(DatabaseExecutors.Lane.ANALYTICS);
     
     // DAOs
     private final UserProfileDao userProfileDao;
@@ -30,10 +50,47 @@ public class AppRepository {
     private final StreakDao streakDao;
     private final AppSettingsDao appSettingsDao;
     private final QuizResultDao quizResultDao;
+    private final UsageDailyRollupDao usageDailyRollupDao;
+    private final DashboardDao dashboardDao;
+    private final QuestionDao questionDao;
+    private final QuestionReviewDao questionReviewDao;
+    
+    // In-memory TargetApp rows for interception decisions (FR-002)
+    private final TargetAppPolicyCache targetAppCache = new TargetAppPolicyCache();
+    
+    // Shared, debounced LiveData streams for usage queries
+    private final SharedQueryStreams queryStreams;
+    private static final String[] USAGE_EVENT_TABLES = {"usage_events"};
+    private static final String[] ROLLUP_TABLES = {"usage_daily_rollup"};
+    private static final String[] DASHBOARD_TABLES = {"usage_daily_rollup", "streaks", "quiz_results"};
+    
+    // Last dashboard aggregate, shown before the first query completes (FR-016)
+    private final DashboardSnapshotStore dashboardSnapshotStore;
+    
+    // Retention and compaction of usage history
+    private final UsageRetentionJob retentionJob;
+    private volatile UsageRetentionJob.Report lastRetentionReport;
+    // Coordinates the job and sleeps between its chunks, off the database threads
+    private final ExecutorService maintenanceExecutor = Executors.newSingleThreadExecutor();
+    
+    // Write-behind batching for usage events (FR-004)
+    private final UsageEventJournal usageEventJournal;
+    
+    // Daily use counters; target_apps.currentUsesToday/emergencyUsesUsed are checkpoints of these
+    private static final String PREF_COUNTERS_EPOCH_DAY = "usage_counters_epoch_day";
+    private static final long COUNTER_CHECKPOINT_DELAY_MS = 5000;
+    private final DailyUsageCounters usageCounters = new DailyUsageCounters();
+    // Completes once the persisted counters are merged in; limits are checked after it
+    private final CompletableFuture<Void> usageCountersSeeded = new CompletableFuture<>();
+    private final SharedPreferences counterPreferences;
+    private final ScheduledExecutorService checkpointScheduler = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicBoolean checkpointScheduled = new AtomicBoolean(false);
     
     private AppRepository(Application application) {
         database = AppDatabase.getDatabase(application);
-        executor = Executors.newFixedThreadPool(4);
+        counterPreferences = application.getSharedPreferences("usage_counters", Context.MODE_PRIVATE);
+        dashboardSnapshotStore = new DashboardSnapshotStore(
+            application.getSharedPreferences("dashboard_snapshot", Context.MODE_PRIVATE));
         
         // Initialize DAOs
         userProfileDao = database.userProfileDao();
@@ -42,6 +99,25 @@ public class AppRepository {
         streakDao = database.streakDao();
         appSettingsDao = database.appSettingsDao();
         quizResultDao = database.quizResultDao();
+        usageDailyRollupDao = database.usageDailyRollupDao();
+        dashboardDao = database.dashboardDao();
+        questionDao = database.questionDao();
+        questionReviewDao = database.questionReviewDao();
+        // Journal batches are committed by the single writer
+        usageEventJournal = new UsageEventJournal(batch -> awaitWrite(() -> writeUsageEvents(batch)));
+        queryStreams = new SharedQueryStreams(database, readExecutor);
+        retentionJob = new UsageRetentionJob(database, writeExecutor, analyticsExecutor);
+        
+        // Warm the policy cache and usage counters before the first interception
+        interceptionExecutor.execute(() -> {
+            try {
+                List<TargetApp> targetApps = targetAppDao.getAllTargetAppsSync();
+                seedUsageCounters(targetApps);
+                targetAppCache.load(targetApps);
+            } finally {
+                usageCountersSeeded.complete(null);
+            }
+        });
     }
     
     public static AppRepository getInstance(Application application) {
@@ -61,15 +137,15 @@ public class AppRepository {
     }
     
     public CompletableFuture<UserProfile> getUserProfileAsync() {
-        return CompletableFuture.supplyAsync(() -> userProfileDao.getUserProfileSync(), executor);
+        return CompletableFuture.supplyAsync(() -> userProfileDao.getUserProfileSync(), readExecutor);
     }
     
     public void insertUserProfile(UserProfile userProfile) {
-        executor.execute(() -> userProfileDao.insertUserProfile(userProfile));
+        writeExecutor.execute(() -> userProfileDao.insertUserProfile(userProfile));
     }
     
     public void updateUserProfile(UserProfile userProfile) {
-        executor.execute(() -> userProfileDao.updateUserProfile(userProfile));
+        writeExecutor.execute(() -> userProfileDao.updateUserProfile(userProfile));
     }
     
     // Target App methods
@@ -86,25 +162,130 @@ public class AppRepository {
     }
     
     public CompletableFuture<TargetApp> getTargetAppByPackageAsync(String packageName) {
-        return CompletableFuture.supplyAsync(() -> targetAppDao.getTargetAppByPackageSync(packageName), executor);
+        return CompletableFuture.supplyAsync(() -> targetAppDao.getTargetAppByPackageSync(packageName), interceptionExecutor);
     }
     
-    public void insertTargetApp(TargetApp targetApp) {
-        executor.execute(() -> targetAppDao.insertTargetApp(targetApp));
+    /**
+     * Get the interception policy for a package.
+     * Completes immediately from the in-memory cache once it is warm; the returned
+     * TargetApp is a shared snapshot and must not be modified.
+     */
+    public CompletableFuture<TargetApp> getTargetAppPolicy(String packageName) {
+        if (targetAppCache.isLoaded()) {
+            return CompletableFuture.completedFuture(targetAppCache.get(packageName));
+        }
+        return getTargetAppByPackageAsync(packageName);
+    }
+    
+    /**
+     * Insert a target app. The caller's object is not modified and keeps its id;
+     * the generated id is only in the returned future and, unless a newer write
+     * or a delete for the package came first, in the cached row.
+     * @return the generated row id
+     */
+    public CompletableFuture<Long> insertTargetApp(TargetApp targetApp) {
+        // The cached copy is never mutated, so the writer can insert it as is
+        TargetApp row = targetAppCache.put(targetApp);
+        return CompletableFuture.supplyAsync(() -> {
+            long id = targetAppDao.insertTargetApp(row != null ? row : new TargetApp(targetApp));
+            targetAppCache.setIdIfCurrent(row, (int) id);
+            return id;
+        }, writeExecutor);
     }
     
     public void updateTargetApp(TargetApp targetApp) {
-        executor.execute(() -> targetAppDao.updateTargetApp(targetApp));
+        targetAppCache.put(targetApp);
+        writeExecutor.execute(() -> targetAppDao.updateTargetApp(targetApp));
+        // The row update carries stale counter columns; rewrite them at the next checkpoint
+        usageCounters.markDirty(targetApp.packageName);
+        scheduleCounterCheckpoint();
     }
     
     public void deleteTargetApp(TargetApp targetApp) {
-        executor.execute(() -> targetAppDao.deleteTargetApp(targetApp));
+        targetAppCache.remove(targetApp);
+        usageCounters.remove(targetApp.packageName);
+        writeExecutor.execute(() -> targetAppDao.deleteTargetApp(targetApp));
+    }
+    
+    // Daily usage counters (memory only; checkpointed to target_apps in batches)
+    
+    /**
+     * Today's use count including the persisted one.
+     * Completes immediately once warm-up has merged the persisted counters.
+     */
+    public CompletableFuture<Integer> getUsesTodayAsync(String packageName) {
+        return usageCountersSeeded.thenApply(ignored -> usageCounters.getUses(packageName));
+    }
+    
+    /**
+     * Count one granted use of a target app for today
+     * @return today's use count including this one
+     */
+    public int recordAppUse(String packageName) {
+        int uses = usageCounters.incrementUses(packageName);
+        scheduleCounterCheckpoint();
+        return uses;
+    }
+    
+    private void seedUsageCounters(List<TargetApp> targetApps) {
+        long today = usageCounters.currentEpochDay();
+        if (targetApps == null || counterPreferences.getLong(PREF_COUNTERS_EPOCH_DAY, -1) != today) {
+            return; // Persisted counts belong to an earlier day
+        }
+        for (TargetApp targetApp : targetApps) {
+            if (targetApp.packageName != null) {
+                usageCounters.seed(targetApp.packageName, today,
+                    targetApp.currentUsesToday, targetApp.emergencyUsesUsed);
+            }
+        }
+    }
+    
+    private void scheduleCounterCheckpoint() {
+        if (checkpointScheduled.compareAndSet(false, true)) {
+            checkpointScheduler.schedule(() -> writeExecutor.execute(this::checkpointUsageCounters),
+                COUNTER_CHECKPOINT_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Write every changed counter in one transaction
+     */
+    private void checkpointUsageCounters() {
+        checkpointScheduled.set(false);
+        if (!usageCounters.hasDirty()) {
+            return;
+        }
+        if (!usageCountersSeeded.isDone()) {
+            // Writing unseeded counters would overwrite the persisted counts
+            scheduleCounterCheckpoint();
+            return;
+        }
+        
+        long today = usageCounters.currentEpochDay();
+        boolean newDay = counterPreferences.getLong(PREF_COUNTERS_EPOCH_DAY, -1) != today;
+        Map<String, int[]> snapshot = usageCounters.drainDirty();
+        
+        database.runInTransaction(() -> {
+            if (newDay) {
+                // Rows not touched today still hold yesterday's counts
+                targetAppDao.clearUsageCounters();
+            }
+            for (Map.Entry<String, int[]> entry : snapshot.entrySet()) {
+                targetAppDao.updateUsageCounters(entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+            }
+        });
+        counterPreferences.edit().putLong(PREF_COUNTERS_EPOCH_DAY, today).apply();
     }
     
     
     // Usage Event methods
-    public LiveData<List<UsageEvent>> getAllUsageEvents() {
-        return usageEventDao.getAllUsageEvents();
+    
+    /**
+     * The newest events, newest first; the first keyset page
+     */
+    public LiveData<List<UsageEvent>> getRecentUsageEvents(int limit) {
+        return queryStreams.get("usage_events:recent:" + limit, USAGE_EVENT_TABLES,
+            () -> usageEventDao.getUsageEventsBeforeSync(Long.MAX_VALUE, Integer.MAX_VALUE, limit));
     }
     
     public LiveData<List<UsageEvent>> getUsageEventsByPackage(String packageName) {
@@ -115,12 +296,215 @@ public class AppRepository {
         return usageEventDao.getUsageEventsByDateRange(startDate, endDate);
     }
     
+    /**
+     * Page of events older than the (timestamp, id) cursor, newest first
+     */
+    public CompletableFuture<List<UsageEvent>> getUsageEventsBefore(long cursorTime, int cursorId, int limit) {
+        return CompletableFuture.supplyAsync(() -> usageEventDao.getUsageEventsBeforeSync(cursorTime, cursorId, limit), readExecutor);
+    }
+    
+    public LiveData<Integer> getUsageEventCount() {
+        return queryStreams.get("usage_events:count", USAGE_EVENT_TABLES, usageEventDao::getUsageEventCountSync);
+    }
+    
+    public CompletableFuture<Integer> getUsageEventCountAsync() {
+        return CompletableFuture.supplyAsync(usageEventDao::getUsageEventCountSync, readExecutor);
+    }
+    
+    /**
+     * Events between two local epoch days, inclusive
+     */
+    public LiveData<List<UsageEvent>> getUsageEventsByDays(long startDay, long endDay) {
+        return usageEventDao.getUsageEventsByDays(startDay, endDay);
+    }
+    
+    public LiveData<List<UsageEventDao.BucketCount>> getEventCountsByDay(long startDay, long endDay) {
+        return usageEventDao.getEventCountsByDay(startDay, endDay);
+    }
+    
+    public LiveData<List<UsageEventDao.BucketCount>> getEventCountsByHour(long startDay, long endDay) {
+        return usageEventDao.getEventCountsByHour(startDay, endDay);
+    }
+    
+    /**
+     * Queue a usage event; rows are committed in batches by the event journal
+     */
     public void insertUsageEvent(UsageEvent usageEvent) {
-        executor.execute(() -> usageEventDao.insertUsageEvent(usageEvent));
+        if (usageEvent != null) {
+            // Callers may have assigned timestampLong directly
+            usageEvent.updateTimeBuckets();
+        }
+        usageEventJournal.append(usageEvent);
     }
     
     public void insertUsageEvents(List<UsageEvent> usageEvents) {
-        executor.execute(() -> usageEventDao.insertUsageEvents(usageEvents));
+        writeExecutor.execute(() -> {
+            for (UsageEvent usageEvent : usageEvents) {
+                usageEvent.updateTimeBuckets();
+            }
+            writeUsageEvents(usageEvents);
+        });
+    }
+    
+    /**
+     * Run a write on the writer thread and wait for it; runs inline when already there
+     */
+    private void awaitWrite(Runnable write) {
+        if (databaseExecutors.isWriterThread()) {
+            write.run();
+            return;
+        }
+        try {
+            CompletableFuture.runAsync(write, writeExecutor).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for database write", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Database write failed", e.getCause());
+        }
+    }
+    
+    /**
+     * Insert events and fold them into usage_daily_rollup in one transaction
+     */
+    private void writeUsageEvents(List<UsageEvent> usageEvents) {
+        Collection<UsageDailyRollup> deltas = UsageDailyRollup.deltasOf(usageEvents);
+        database.runInTransaction(() -> {
+            usageEventDao.insertUsageEvents(usageEvents);
+            usageDailyRollupDao.applyDeltas(deltas);
+        });
+    }
+    
+    // Daily rollup (FR-004)
+    public LiveData<List<UsageDailyRollup>> getUsageRollupsByDays(long startDay, long endDay) {
+        return queryStreams.get("usage_daily_rollup:" + startDay + ":" + endDay, ROLLUP_TABLES,
+            () -> usageDailyRollupDao.getRollupsByDaysSync(startDay, endDay));
+    }
+    
+    /**
+     * Event counts per type between two local epoch days, inclusive
+     */
+    public CompletableFuture<Map<String, Integer>> getEventTypeCounts(long startDay, long endDay) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Integer> counts = new HashMap<>();
+            for (UsageDailyRollupDao.TypeCount typeCount : usageDailyRollupDao.getEventTypeCountsSync(startDay, endDay)) {
+                counts.put(typeCount.eventType, typeCount.eventCount);
+            }
+            return counts;
+        }, analyticsExecutor);
+    }
+    
+    public CompletableFuture<List<Long>> getActiveDays(String eventType, long startDay, long endDay) {
+        return CompletableFuture.supplyAsync(() -> usageDailyRollupDao.getActiveDaysSync(eventType, startDay, endDay), analyticsExecutor);
+    }
+    
+    /**
+     * Event counts per local hour of day (0-23) between two local epoch days, inclusive
+     */
+    public CompletableFuture<int[]> getHourlyUsageHistogram(long startDay, long endDay) {
+        return CompletableFuture.supplyAsync(() -> {
+            int[] hourlyUsage = new int[24];
+            for (UsageEventDao.BucketCount bucket : usageEventDao.getHourlyHistogramSync(startDay, endDay)) {
+                if (bucket.bucket >= 0 && bucket.bucket < 24) {
+                    hourlyUsage[(int) bucket.bucket] = bucket.eventCount;
+                }
+            }
+            return hourlyUsage;
+        }, analyticsExecutor);
+    }
+    
+    /**
+     * Most frequent apps between two local epoch days, inclusive
+     */
+    public CompletableFuture<List<UsageEventDao.AppCount>> getTopAppsAsync(long startDay, long endDay, int limit) {
+        return CompletableFuture.supplyAsync(() -> usageEventDao.getTopAppsSync(startDay, endDay, limit), analyticsExecutor);
+    }
+    
+    /**
+     * Recompute rollup rows for days >= fromDay from the raw events
+     */
+    public CompletableFuture<Void> rebuildUsageRollup(long fromDay) {
+        return CompletableFuture.runAsync(() -> usageDailyRollupDao.rebuildFrom(fromDay), writeExecutor);
+    }
+    
+    /**
+     * Delete raw history older than retainDays in bounded chunks and compact the file
+     * @param rollUpMissing roll up expiring days that have no rollup rows first
+     */
+    public CompletableFuture<UsageRetentionJob.Report> runUsageRetention(int retainDays, boolean rollUpMissing) {
+        return CompletableFuture.supplyAsync(() -> {
+            // Queued events must land before their days are rolled up or deleted
+            usageEventJournal.flushAndWait(1000);
+            UsageRetentionJob.Report report = retentionJob.run(retainDays, rollUpMissing);
+            lastRetentionReport = report;
+            return report;
+        }, maintenanceExecutor);
+    }
+    
+    public String getLastRetentionSummary() {
+        UsageRetentionJob.Report report = lastRetentionReport;
+        return report != null ? report.toString() : "Not run yet";
+    }
+    
+    // Question bank (FR-006)
+    
+    /**
+     * Store one page of pulled questions in a single transaction
+     */
+    public CompletableFuture<Void> upsertQuestions(List<QuestionRecord> questions) {
+        return CompletableFuture.runAsync(() -> questionDao.upsertQuestions(questions), writeExecutor);
+    }
+    
+    public CompletableFuture<List<QuestionRecord>> getActiveQuestions() {
+        return CompletableFuture.supplyAsync(questionDao::getActiveQuestionsSync, analyticsExecutor);
+    }
+    
+    /**
+     * Store the spaced-repetition state of one answered question
+     */
+    public void upsertQuestionReview(QuestionReview review) {
+        writeExecutor.execute(() -> questionReviewDao.upsertReview(review));
+    }
+    
+    public CompletableFuture<List<QuestionReview>> getQuestionReviews() {
+        return CompletableFuture.supplyAsync(questionReviewDao::getAllReviewsSync, analyticsExecutor);
+    }
+    
+    /**
+     * Commit queued usage events and usage counters without waiting
+     */
+    public void flushUsageEvents() {
+        usageEventJournal.flush();
+        writeExecutor.execute(this::checkpointUsageCounters);
+    }
+    
+    /**
+     * Commit queued usage events and usage counters and wait, for onDestroy/onTrimMemory
+     */
+    public void flushUsageEventsBlocking() {
+        usageEventJournal.flushAndWait(1000);
+        try {
+            CompletableFuture.runAsync(this::checkpointUsageCounters, writeExecutor).get(1000, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            Log.w("AppRepository", "Timed out checkpointing usage counters", e);
+        }
+    }
+    
+    public String getDatabaseExecutorSummary() {
+        return databaseExecutors.getSummary();
+    }
+    
+    public String getQueryStreamSummary() {
+        return queryStreams.getSummary();
+    }
+    
+    public String getUsageEventJournalSummary() {
+        return "Appended: " + usageEventJournal.getAppendedCount() +
+               ", Written: " + usageEventJournal.getRowsWritten() +
+               " in " + usageEventJournal.getBatchesWritten() + " batches" +
+               ", Wakeups: " + usageEventJournal.getFlushWakeups() +
+               ", Pending: " + usageEventJournal.getPendingCount() +
+               ", Dropped: " + usageEventJournal.getDroppedCount();
     }
     
     // Streak methods
@@ -133,15 +517,15 @@ public class AppRepository {
     }
     
     public CompletableFuture<Streak> getStreakByTypeAsync(String type) {
-        return CompletableFuture.supplyAsync(() -> streakDao.getStreakByTypeSync(type), executor);
+        return CompletableFuture.supplyAsync(() -> streakDao.getStreakByTypeSync(type), readExecutor);
     }
     
     public void insertStreak(Streak streak) {
-        executor.execute(() -> streakDao.insertStreak(streak));
+        writeExecutor.execute(() -> streakDao.insertStreak(streak));
     }
     
     public void updateStreak(Streak streak) {
-        executor.execute(() -> streakDao.updateStreak(streak));
+        writeExecutor.execute(() -> streakDao.updateStreak(streak));
     }
     
     // App Settings methods
@@ -150,15 +534,39 @@ public class AppRepository {
     }
     
     public CompletableFuture<AppSettings> getAppSettingsAsync() {
-        return CompletableFuture.supplyAsync(() -> appSettingsDao.getAppSettingsSync(), executor);
+        return CompletableFuture.supplyAsync(() -> appSettingsDao.getAppSettingsSync(), readExecutor);
     }
     
     public void insertAppSettings(AppSettings appSettings) {
-        executor.execute(() -> appSettingsDao.insertAppSettings(appSettings));
+        writeExecutor.execute(() -> appSettingsDao.insertAppSettings(appSettings));
     }
     
     public void updateAppSettings(AppSettings appSettings) {
-        executor.execute(() -> appSettingsDao.updateAppSettings(appSettings));
+        writeExecutor.execute(() -> appSettingsDao.updateAppSettings(appSettings));
+    }
+    
+    // Dashboard methods
+    /**
+     * Last computed dashboard snapshot, or null; may read SharedPreferences once
+     */
+    public DashboardSnapshot getCachedDashboardSnapshot() {
+        return dashboardSnapshotStore.get();
+    }
+    
+    /**
+     * Dashboard aggregate for today, recomputed when its tables change
+     */
+    public LiveData<DashboardSnapshot> getDashboardSnapshot(String userId) {
+        LocalDate today = LocalDate.now();
+        long todayDay = today.toEpochDay();
+        long weekStartDay = today.with(DayOfWeek.MONDAY).toEpochDay();
+        long weekEndDay = today.with(DayOfWeek.SUNDAY).toEpochDay();
+        return queryStreams.get("dashboard_snapshot:" + userId + ":" + todayDay, DASHBOARD_TABLES, () -> {
+            DashboardSnapshot snapshot = dashboardDao.getDashboardSnapshotSync(userId, todayDay, weekStartDay, weekEndDay);
+            snapshot.computedAtMillis = System.currentTimeMillis();
+            dashboardSnapshotStore.put(snapshot);
+            return snapshot;
+        });
     }
     
     // Analytics methods
@@ -183,15 +591,11 @@ public class AppRepository {
         return userProfileDao.getTotalCoins();
     }
     
-    public void deleteUsageEvent(UsageEvent event) {
-        executor.execute(() -> usageEventDao.delete(event));
-    }
-    
     // Quiz Result operations
     public CompletableFuture<Long> insertQuizResult(QuizResult quizResult) {
         return CompletableFuture.supplyAsync(() -> {
             return quizResultDao.insertQuizResult(quizResult);
-        }, executor);
+        }, writeExecutor);
     }
     
     public LiveData<List<QuizResult>> getAllQuizResults() {
@@ -223,12 +627,14 @@ public class AppRepository {
     }
     
     public void deleteQuizResult(QuizResult quizResult) {
-        executor.execute(() -> quizResultDao.deleteQuizResult(quizResult));
+        writeExecutor.execute(() -> quizResultDao.deleteQuizResult(quizResult));
     }
     
     // Cleanup
     public void close() {
-        executor.shutdown();
+        flushUsageEventsBlocking();
+        checkpointScheduler.shutdown();
+        maintenanceExecutor.shutdown();
         AppDatabase.closeDatabase();
     }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.smartappgatekeeper.repository;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory per-package daily usage counters
+ * FR-014: System shall support configurable time limits per app
+ *
+ * Each counter packs the local epoch day and the count into one AtomicLong, so
+ * reads and increments are lock-free. A counter from a previous day reads as 0
+ * and is reset by the first write after midnight; nothing runs at midnight.
+ * Changed packages are tracked so AppRepository can checkpoint them to Room in
+ * one batch.
+ */
+class DailyUsageCounters {
+
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+
+    private static final class Counter {
+        final AtomicLong uses = new AtomicLong();
+        final AtomicLong emergencyUses = new AtomicLong();
+    }
+
+    /**
+     * Local day boundaries, recomputed only when the clock leaves the window
+     */
+    private static final class DayWindow {
+        final long epochDay;
+        final long startMillis;
+        final long endMillis;
+
+        DayWindow(long epochDay, long startMillis, long endMillis) {
+            this.epochDay = epochDay;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private volatile DayWindow dayWindow = new DayWindow(Long.MIN_VALUE, 0, 0);
+
+    /**
+     * Merge a persisted row into a counter. The row predates this process, so
+     * its counts are added to any uses recorded before the seed landed.
+     */
+    void seed(String packageName, long epochDay, int uses, int emergencyUses) {
+        Counter counter = counter(packageName);
+        add(counter.uses, epochDay, uses);
+        add(counter.emergencyUses, epochDay, emergencyUses);
+    }
+
+    int getUses(String packageName) {
+        Counter counter = counters.get(packageName);
+        return counter != null ? read(counter.uses, currentEpochDay()) : 0;
+    }
+
+    int incrementUses(String packageName) {
+        int uses = add(counter(packageName).uses, currentEpochDay(), 1);
+        dirty.add(packageName);
+        return uses;
+    }
+
+    /**
+     * Force a package to be written by the next checkpoint
+     */
+    void markDirty(String packageName) {
+        if (counters.containsKey(packageName)) {
+            dirty.add(packageName);
+        }
+    }
+
+    void remove(String packageName) {
+        counters.remove(packageName);
+        dirty.remove(packageName);
+    }
+
+    boolean hasDirty() {
+        return !dirty.isEmpty();
+    }
+
+    /**
+     * Take today's values of every changed counter: package -> {uses, emergencyUses}
+     */
+    Map<String, int[]> drainDirty() {
+        long today = currentEpochDay();
+        Map<String, int[]> snapshot = new HashMap<>();
+        for (String packageName : dirty) {
+            dirty.remove(packageName);
+            Counter counter = counters.get(packageName);
+            if (counter != null) {
+                snapshot.put(packageName, new int[] {
+                    read(counter.uses, today), read(counter.emergencyUses, today)
+                });
+            }
+        }
+        return snapshot;
+    }
+
+    long currentEpochDay() {
+        long now = System.currentTimeMillis();
+        DayWindow window = dayWindow;
+        if (now >= window.startMillis && now < window.endMillis) {
+            return window.epochDay;
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate today = LocalDate.now(zone);
+        window = new DayWindow(today.toEpochDay(),
+            today.atStartOfDay(zone).toInstant().toEpochMilli(),
+            today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+        dayWindow = window;
+        return window.epochDay;
+    }
+
+    private Counter counter(String packageName) {
+        return counters.computeIfAbsent(packageName, key -> new Counter());
+    }
+
+    private static int read(AtomicLong value, long today) {
+        long packed = value.get();
+        return (packed >>> 32) == today ? (int) (packed & COUNT_MASK) : 0;
+    }
+
+    private static int add(AtomicLong value, long today, int delta) {
+        while (true) {
+            long packed = value.get();
+            int count = (packed >>> 32) == today ? (int) (packed & COUNT_MASK) : 0;
+            if (value.compareAndSet(packed, pack(today, count + delta))) {
+                return count + delta;
+            }
+        }
+    }
+
+    private static long pack(long epochDay, int count) {
+        return (epochDay << 32) | (count & COUNT_MASK);
+    }
+}
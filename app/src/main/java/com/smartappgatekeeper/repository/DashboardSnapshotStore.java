@@ -0,0 +1,89 @@
+package com.smartappgatekeeper.repository;
+
+import android.content.SharedPreferences;
+
+import com.smartappgatekeeper.model.DashboardSnapshot;
+
+/**
+ * Last DashboardSnapshot, held in memory and persisted to SharedPreferences
+ * FR-016: System shall display daily and weekly usage statistics
+ *
+ * Lets the dashboard render its last known figures on the first frame after a
+ * cold start. Only changed snapshots are written, asynchronously via apply().
+ */
+class DashboardSnapshotStore {
+
+    private static final String KEY_EPOCH_DAY = "epoch_day";
+    private static final String KEY_TODAY_UNLOCKED_SECONDS = "today_unlocked_seconds";
+    private static final String KEY_WEEK_UNLOCKED_SECONDS = "week_unlocked_seconds";
+    private static final String KEY_CURRENT_STREAK = "current_streak";
+    private static final String KEY_QUESTIONS_ANSWERED = "questions_answered";
+    private static final String KEY_CORRECT_ANSWERS = "correct_answers";
+    private static final String KEY_COINS_EARNED = "coins_earned";
+    private static final String KEY_COURSES_COMPLETED = "courses_completed";
+    private static final String KEY_COMPUTED_AT = "computed_at";
+
+    private final SharedPreferences preferences;
+    private volatile DashboardSnapshot snapshot;
+    private volatile boolean loaded = false;
+
+    DashboardSnapshotStore(SharedPreferences preferences) {
+        this.preferences = preferences;
+    }
+
+    /**
+     * Last snapshot, or null if none was ever computed
+     */
+    DashboardSnapshot get() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    if (snapshot == null) {
+                        snapshot = read();
+                    }
+                    loaded = true;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    void put(DashboardSnapshot newSnapshot) {
+        if (newSnapshot == null) {
+            return;
+        }
+        DashboardSnapshot previous = get();
+        snapshot = newSnapshot;
+        if (newSnapshot.equals(previous)) {
+            return;
+        }
+        preferences.edit()
+            .putLong(KEY_EPOCH_DAY, newSnapshot.epochDay)
+            .putLong(KEY_TODAY_UNLOCKED_SECONDS, newSnapshot.todayUnlockedSeconds)
+            .putLong(KEY_WEEK_UNLOCKED_SECONDS, newSnapshot.weekUnlockedSeconds)
+            .putInt(KEY_CURRENT_STREAK, newSnapshot.currentStreak)
+            .putInt(KEY_QUESTIONS_ANSWERED, newSnapshot.questionsAnswered)
+            .putInt(KEY_CORRECT_ANSWERS, newSnapshot.correctAnswers)
+            .putInt(KEY_COINS_EARNED, newSnapshot.coinsEarned)
+            .putInt(KEY_COURSES_COMPLETED, newSnapshot.coursesCompleted)
+            .putLong(KEY_COMPUTED_AT, newSnapshot.computedAtMillis)
+            .apply();
+    }
+
+    private DashboardSnapshot read() {
+        if (!preferences.contains(KEY_COMPUTED_AT)) {
+            return null;
+        }
+        DashboardSnapshot stored = new DashboardSnapshot();
+        stored.epochDay = preferences.getLong(KEY_EPOCH_DAY, 0);
+        stored.todayUnlockedSeconds = preferences.getLong(KEY_TODAY_UNLOCKED_SECONDS, 0);
+        stored.weekUnlockedSeconds = preferences.getLong(KEY_WEEK_UNLOCKED_SECONDS, 0);
+        stored.currentStreak = preferences.getInt(KEY_CURRENT_STREAK, 0);
+        stored.questionsAnswered = preferences.getInt(KEY_QUESTIONS_ANSWERED, 0);
+        stored.correctAnswers = preferences.getInt(KEY_CORRECT_ANSWERS, 0);
+        stored.coinsEarned = preferences.getInt(KEY_COINS_EARNED, 0);
+        stored.coursesCompleted = preferences.getInt(KEY_COURSES_COMPLETED, 0);
+        stored.computedAtMillis = preferences.getLong(KEY_COMPUTED_AT, 0);
+        return stored;
+    }
+}
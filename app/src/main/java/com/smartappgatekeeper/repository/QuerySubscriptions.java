@@ -0,0 +1,29 @@
+package com.smartappgatekeeper.repository;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks observeForever registrations made by a ViewModel or service so they
+ * can all be removed in onCleared()/onDestroy(), releasing the shared query
+ * streams they hold. Main thread only.
+ */
+public class QuerySubscriptions {
+
+    private final List<Runnable> removals = new ArrayList<>();
+
+    public <T> void observe(LiveData<T> liveData, Observer<T> observer) {
+        liveData.observeForever(observer);
+        removals.add(() -> liveData.removeObserver(observer));
+    }
+
+    public void clear() {
+        for (Runnable removal : removals) {
+            removal.run();
+        }
+        removals.clear();
+    }
+}
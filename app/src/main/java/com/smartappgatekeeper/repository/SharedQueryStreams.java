@@ -0,0 +1,184 @@
+package com.smartappgatekeeper.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.InvalidationTracker;
+import androidx.room.RoomDatabase;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared, ref-counted query streams over Room tables
+ * FR-004: System shall log all interception events for analytics
+ *
+ * Identical queries (same key) share one stream no matter how many observers
+ * subscribe. A stream listens for table invalidations only while it has
+ * active observers and leaves the map once it has no observers at all; a
+ * caller still holding it registers it again by observing it. Bursts of
+ * invalidations (e.g. a journal batch commit) are debounced into one query
+ * run, and values equal to the previous one are not re-emitted.
+ */
+public class SharedQueryStreams {
+    private static final String TAG = "SharedQueryStreams";
+
+    static final long DEBOUNCE_MS = 250;
+
+    private final RoomDatabase database;
+    private final Executor queryExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ConcurrentHashMap<String, SharedQuery<?>> streams = new ConcurrentHashMap<>();
+
+    // Diagnostics
+    private final AtomicInteger activeObservers = new AtomicInteger();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong emissions = new AtomicLong();
+
+    SharedQueryStreams(RoomDatabase database, Executor queryExecutor) {
+        this.database = database;
+        this.queryExecutor = queryExecutor;
+    }
+
+    /**
+     * Get the shared stream for a query, creating it on first use
+     * @param key identifies the query and its arguments
+     * @param tables tables whose changes re-run the query
+     */
+    @SuppressWarnings("unchecked")
+    <T> LiveData<T> get(String key, String[] tables, Callable<T> query) {
+        return (LiveData<T>) streams.computeIfAbsent(key, k -> new SharedQuery<>(k, tables, query));
+    }
+
+    public int getActiveStreamCount() {
+        return streams.size();
+    }
+
+    public int getActiveObserverCount() {
+        return activeObservers.get();
+    }
+
+    public String getSummary() {
+        long invalidationCount = invalidations.get();
+        long executionCount = executions.get();
+        return "Streams: " + streams.size() +
+               ", Observers: " + activeObservers.get() +
+               ", Invalidations: " + invalidationCount +
+               ", Query runs: " + executionCount +
+               (invalidationCount > 0
+                   ? String.format(java.util.Locale.US, " (%.2f per invalidation)", (double) executionCount / invalidationCount)
+                   : "") +
+               ", Emitted: " + emissions.get();
+    }
+
+    private final class SharedQuery<T> extends LiveData<T> {
+        private final String key;
+        private final Callable<T> query;
+        private final InvalidationTracker.Observer invalidationObserver;
+        private final Runnable runQuery = this::runQuery;
+        private final Set<Observer<? super T>> observers = new HashSet<>(); // main thread only
+        private boolean hasResult = false;
+
+        SharedQuery(String key, String[] tables, Callable<T> query) {
+            this.key = key;
+            this.query = query;
+            this.invalidationObserver = new InvalidationTracker.Observer(tables) {
+                @Override
+                public void onInvalidated(@NonNull Set<String> changedTables) {
+                    invalidations.incrementAndGet();
+                    // Collapse bursts into one run after the last change
+                    mainHandler.removeCallbacks(runQuery);
+                    mainHandler.postDelayed(runQuery, DEBOUNCE_MS);
+                }
+            };
+        }
+
+        @Override
+        public void observe(@NonNull LifecycleOwner owner, @NonNull Observer<? super T> observer) {
+            super.observe(owner, observer);
+            // LiveData ignores a destroyed owner and an observer it already has
+            if (owner.getLifecycle().getCurrentState() != Lifecycle.State.DESTROYED) {
+                addObserver(observer);
+            }
+        }
+
+        @Override
+        public void observeForever(@NonNull Observer<? super T> observer) {
+            super.observeForever(observer);
+            addObserver(observer);
+        }
+
+        @Override
+        public void removeObserver(@NonNull Observer<? super T> observer) {
+            super.removeObserver(observer);
+            if (observers.remove(observer)) {
+                activeObservers.decrementAndGet();
+            }
+            // Observers of a stopped owner are already inactive, so onInactive does not run again
+            releaseIfUnobserved();
+        }
+
+        @Override
+        protected void onActive() {
+            database.getInvalidationTracker().addObserver(invalidationObserver);
+            mainHandler.post(runQuery);
+        }
+
+        @Override
+        protected void onInactive() {
+            database.getInvalidationTracker().removeObserver(invalidationObserver);
+            mainHandler.removeCallbacks(runQuery);
+            releaseIfUnobserved();
+        }
+
+        private void addObserver(Observer<? super T> observer) {
+            if (observers.add(observer)) {
+                activeObservers.incrementAndGet();
+                // Released while the caller kept it; share it again unless get() built a new one
+                streams.putIfAbsent(key, this);
+            }
+        }
+
+        private void releaseIfUnobserved() {
+            if (!hasObservers()) {
+                // A later get() builds a fresh stream
+                streams.remove(key, this);
+            }
+        }
+
+        private void runQuery() {
+            queryExecutor.execute(() -> {
+                try {
+                    T value = query.call();
+                    executions.incrementAndGet();
+                    mainHandler.post(() -> publish(value));
+                } catch (Exception e) {
+                    Log.e(TAG, "Query failed: " + key, e);
+                }
+            });
+        }
+
+        private void publish(T value) {
+            // distinctUntilChanged
+            if (hasResult && Objects.equals(value, getValue())) {
+                return;
+            }
+            hasResult = true;
+            emissions.incrementAndGet();
+            setValue(value);
+        }
+    }
+}
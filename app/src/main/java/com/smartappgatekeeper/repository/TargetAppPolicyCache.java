@@ -0,0 +1,87 @@
+package com.smartappgatekeeper.repository;
+
+import com.smartappgatekeeper.database.entities.TargetApp;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resident cache of TargetApp rows keyed by package name
+ * FR-002: System shall display quiz modal within 200ms of app launch attempt
+ *
+ * Owned by AppRepository, which applies every target app write here first and
+ * persists it to Room afterwards. Entries are private copies that are replaced,
+ * never mutated, so readers on any thread always see a consistent row.
+ * Writes that race ahead of the initial load win over the loaded rows; a
+ * removal before the load leaves a tombstone so the row is not brought back.
+ * Readers are lock-free; writers and the load serialize on the cache.
+ * The daily counters in cached rows are not maintained here; see DailyUsageCounters.
+ */
+class TargetAppPolicyCache {
+
+    private final ConcurrentHashMap<String, TargetApp> byPackage = new ConcurrentHashMap<>();
+    private final Set<String> removedBeforeLoad = new HashSet<>(); // guarded by this
+    private volatile boolean loaded = false;
+
+    /**
+     * Merge rows read from the database under the writes made since the read
+     */
+    synchronized void load(List<TargetApp> targetApps) {
+        if (targetApps != null) {
+            for (TargetApp targetApp : targetApps) {
+                if (targetApp.packageName != null && !removedBeforeLoad.contains(targetApp.packageName)) {
+                    byPackage.putIfAbsent(targetApp.packageName, new TargetApp(targetApp));
+                }
+            }
+        }
+        removedBeforeLoad.clear();
+        loaded = true;
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Get a snapshot of the cached row. Callers must treat it as read-only.
+     */
+    TargetApp get(String packageName) {
+        return packageName != null ? byPackage.get(packageName) : null;
+    }
+
+    /**
+     * @return the cached copy, or null if the row has no package name
+     */
+    synchronized TargetApp put(TargetApp targetApp) {
+        if (targetApp != null && targetApp.packageName != null) {
+            TargetApp cached = new TargetApp(targetApp);
+            byPackage.put(targetApp.packageName, cached);
+            removedBeforeLoad.remove(targetApp.packageName);
+            return cached;
+        }
+        return null;
+    }
+
+    /**
+     * Give a put() row its generated id, only if that same copy is still cached;
+     * a newer write or a removal of the package since then wins
+     */
+    synchronized void setIdIfCurrent(TargetApp cached, int id) {
+        if (cached != null && byPackage.get(cached.packageName) == cached) {
+            TargetApp updated = new TargetApp(cached);
+            updated.id = id;
+            byPackage.put(cached.packageName, updated);
+        }
+    }
+
+    synchronized void remove(TargetApp targetApp) {
+        if (targetApp != null && targetApp.packageName != null) {
+            byPackage.remove(targetApp.packageName);
+            if (!loaded) {
+                removedBeforeLoad.add(targetApp.packageName);
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.smartappgatekeeper.repository;
+
+import android.util.Log;
+
+import com.smartappgatekeeper.database.entities.UsageEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Write-behind journal for UsageEvent rows
+ * FR-004: System shall log all interception events for analytics
+ *
+ * Producers on any thread append to a bounded multi-producer/single-consumer
+ * ring buffer. A single writer thread drains it and commits each batch in one
+ * transaction, either when the batch size is reached or when the oldest pending
+ * event has waited MAX_DELAY_MS. The writer only wakes up when there is work.
+ * Memory is bounded: an event that finds the ring still full after a short
+ * backoff is dropped and counted, and a batch whose transaction fails is kept
+ * for one retry at the next drain, up to CAPACITY rows, then dropped and counted.
+ */
+class UsageEventJournal {
+    private static final String TAG = "UsageEventJournal";
+
+    static final int CAPACITY = 1024; // must be a power of two
+    static final int BATCH_SIZE = 64;
+    static final long MAX_DELAY_MS = 2000;
+    private static final int OFFER_RETRIES = 64;
+
+    /**
+     * Persists one batch; implementations must write all rows in a single transaction
+     */
+    interface BatchWriter {
+        void write(List<UsageEvent> batch);
+    }
+
+    private final BatchWriter writer;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+
+    // Ring buffer (Vyukov bounded MPSC queue)
+    private final AtomicReferenceArray<UsageEvent> slots = new AtomicReferenceArray<>(CAPACITY);
+    private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // consumer thread only
+    private volatile long publishedHead;
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean flushQueued = new AtomicBoolean(false);
+
+    // Batches whose transaction failed, retried once; flusher thread only
+    private final ArrayDeque<List<UsageEvent>> failedBatches = new ArrayDeque<>();
+    private int failedRows;
+
+    // Diagnostics
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong batchesWritten = new AtomicLong();
+    private final AtomicLong flushWakeups = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    UsageEventJournal(BatchWriter writer) {
+        this.writer = writer;
+        for (int i = 0; i < CAPACITY; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Queue an event for persistence. Never blocks on the database.
+     * When the buffer is full the writer is woken and the producer retries briefly;
+     * if it is still full the event is dropped and counted.
+     */
+    void append(UsageEvent event) {
+        if (event == null) {
+            return;
+        }
+        appended.incrementAndGet();
+
+        for (int attempt = 0; attempt < OFFER_RETRIES; attempt++) {
+            if (offer(event)) {
+                long pending = tail.get() - headSnapshot();
+                if (pending >= BATCH_SIZE) {
+                    requestFlush(0);
+                } else {
+                    requestFlush(MAX_DELAY_MS);
+                }
+                return;
+            }
+            requestFlush(0);
+            Thread.yield();
+        }
+
+        // Backpressure exhausted; the writer is behind by a full ring
+        drop(1, "journal full");
+    }
+
+    /**
+     * Flush everything queued so far without waiting
+     */
+    void flush() {
+        flusher.execute(this::drainAll);
+    }
+
+    /**
+     * Flush everything queued so far and wait for it to be committed.
+     * Used from onDestroy/onTrimMemory where the process may go away.
+     */
+    void flushAndWait(long timeoutMillis) {
+        Future<?> done = flusher.submit(this::drainAll);
+        try {
+            done.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            Log.w(TAG, "Timed out flushing usage events", e);
+        }
+    }
+
+    long getAppendedCount() {
+        return appended.get();
+    }
+
+    long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    long getBatchesWritten() {
+        return batchesWritten.get();
+    }
+
+    long getFlushWakeups() {
+        return flushWakeups.get();
+    }
+
+    /**
+     * Events lost to a full ring or to a batch that failed twice
+     */
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    int getPendingCount() {
+        return (int) Math.max(0, tail.get() - headSnapshot());
+    }
+
+    private long headSnapshot() {
+        return publishedHead;
+    }
+
+    private boolean offer(UsageEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & (CAPACITY - 1));
+            long sequence = sequences.get(index);
+            long difference = sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, event);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false; // Full
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Consumer side; flusher thread only
+     */
+    private UsageEvent poll() {
+        int index = (int) (head & (CAPACITY - 1));
+        if (sequences.get(index) != head + 1) {
+            return null; // Empty or producer still publishing
+        }
+        UsageEvent event = slots.get(index);
+        slots.set(index, null);
+        sequences.set(index, head + CAPACITY);
+        head++;
+        publishedHead = head;
+        return event;
+    }
+
+    private void requestFlush(long delayMillis) {
+        if (delayMillis == 0) {
+            if (flushQueued.compareAndSet(false, true)) {
+                flusher.execute(this::drainAll);
+            }
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            flusher.schedule(this::drainAll, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void drainAll() {
+        flushQueued.set(false);
+        flushScheduled.set(false);
+        flushWakeups.incrementAndGet();
+        retryFailedBatches();
+
+        List<UsageEvent> batch = new ArrayList<>(BATCH_SIZE);
+        UsageEvent event;
+        while ((event = poll()) != null) {
+            batch.add(event);
+            if (batch.size() == BATCH_SIZE) {
+                writeBatch(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+
+        // Events published after the drain started get their own timer
+        if (getPendingCount() > 0) {
+            requestFlush(MAX_DELAY_MS);
+        }
+    }
+
+    private void writeBatch(List<UsageEvent> batch) {
+        if (tryWrite(batch)) {
+            return;
+        }
+        if (failedRows + batch.size() <= CAPACITY) {
+            failedBatches.add(batch);
+            failedRows += batch.size();
+            // Retry at the next drain, even if no new event arrives
+            requestFlush(MAX_DELAY_MS);
+        } else {
+            drop(batch.size(), "too many failed writes");
+        }
+    }
+
+    private void retryFailedBatches() {
+        List<UsageEvent> batch;
+        while ((batch = failedBatches.poll()) != null) {
+            failedRows -= batch.size();
+            if (!tryWrite(batch)) {
+                drop(batch.size(), "write failed twice");
+            }
+        }
+    }
+
+    private boolean tryWrite(List<UsageEvent> batch) {
+        try {
+            writer.write(batch);
+            rowsWritten.addAndGet(batch.size());
+            batchesWritten.incrementAndGet();
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to write " + batch.size() + " usage events", e);
+            return false;
+        }
+    }
+
+    private void drop(int count, String reason) {
+        long total = dropped.addAndGet(count);
+        // Single events are logged at powers of two so a stuck writer does not flood the log
+        if (Long.bitCount(total) == 1 || count > 1) {
+            Log.w(TAG, "Dropped " + count + " usage events (" + reason + "), " + total + " in total");
+        }
+    }
+}
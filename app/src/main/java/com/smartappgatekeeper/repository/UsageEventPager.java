@@ -0,0 +1,156 @@
+package com.smartappgatekeeper.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.smartappgatekeeper.database.entities.UsageEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset-paginated view of usage events, newest first
+ * FR-020: System shall show recent activity history
+ *
+ * Pages are read with a (timestamp, id) cursor instead of OFFSET, so each
+ * page costs one index range scan no matter how deep it is, and only pages
+ * reached by get() are ever loaded. With placeholders enabled size() reports
+ * the known total (capped at maxSize) and unloaded positions read as null.
+ * A page is requested when get() comes within prefetchDistance of the end of
+ * the loaded items. Main thread only.
+ */
+public class UsageEventPager {
+    private static final String TAG = "UsageEventPager";
+
+    /**
+     * Adapter-style change notifications
+     */
+    public interface Listener {
+        void onRefreshed();
+        void onItemRangeChanged(int positionStart, int itemCount);
+        void onItemRangeInserted(int positionStart, int itemCount);
+        void onItemRangeRemoved(int positionStart, int itemCount);
+    }
+
+    private final AppRepository repository;
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final boolean enablePlaceholders;
+    private final int maxSize;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final List<UsageEvent> items = new ArrayList<>();
+    private long cursorTime = Long.MAX_VALUE;
+    private int cursorId = Integer.MAX_VALUE;
+    private int totalCount = 0;
+    private boolean loading = false;
+    private boolean endReached = false;
+    private int generation = 0; // bumped by refresh() to discard in-flight pages
+    private Listener listener;
+
+    /**
+     * @param maxSize most events ever exposed, e.g. the few rows a dashboard card shows
+     */
+    public UsageEventPager(AppRepository repository, int pageSize, int prefetchDistance,
+                           boolean enablePlaceholders, int maxSize) {
+        this.repository = repository;
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.enablePlaceholders = enablePlaceholders;
+        this.maxSize = maxSize;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Drop loaded pages and start again from the newest event
+     * @param totalCount current number of events, used for placeholders
+     */
+    public void refresh(int totalCount) {
+        generation++;
+        items.clear();
+        cursorTime = Long.MAX_VALUE;
+        cursorId = Integer.MAX_VALUE;
+        this.totalCount = totalCount;
+        loading = false;
+        endReached = totalCount == 0;
+        if (listener != null) {
+            listener.onRefreshed();
+        }
+        loadNextPage();
+    }
+
+    public int size() {
+        int size = items.size();
+        if (enablePlaceholders && !endReached) {
+            size = Math.max(size, totalCount);
+        }
+        return Math.min(size, maxSize);
+    }
+
+    /**
+     * Item at a position, or null for a placeholder; may trigger a page load
+     */
+    public UsageEvent get(int position) {
+        if (position >= items.size() - prefetchDistance) {
+            loadNextPage();
+        }
+        return position < items.size() ? items.get(position) : null;
+    }
+
+    public int getLoadedCount() {
+        return items.size();
+    }
+
+    private void loadNextPage() {
+        if (loading || endReached || items.size() >= maxSize) {
+            return;
+        }
+        loading = true;
+        int requestGeneration = generation;
+        int limit = Math.min(pageSize, maxSize - items.size());
+        repository.getUsageEventsBefore(cursorTime, cursorId, limit)
+            .whenComplete((page, error) -> mainHandler.post(() -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                loading = false;
+                if (error != null) {
+                    Log.e(TAG, "Error loading activity page", error);
+                    return;
+                }
+                onPageLoaded(page, limit);
+            }));
+    }
+
+    private void onPageLoaded(List<UsageEvent> page, int limit) {
+        int oldSize = size();
+        int start = items.size();
+        items.addAll(page);
+        if (!page.isEmpty()) {
+            UsageEvent last = page.get(page.size() - 1);
+            cursorTime = last.timestamp != null ? last.timestamp.getTime() : Long.MIN_VALUE;
+            cursorId = last.id;
+        }
+        if (page.size() < limit || items.size() >= maxSize) {
+            endReached = true;
+        }
+        int newSize = size();
+
+        if (listener != null) {
+            // Loaded rows first replace placeholders, then extend the list
+            int replaced = Math.min(oldSize, items.size()) - start;
+            if (replaced > 0) {
+                listener.onItemRangeChanged(start, replaced);
+            }
+            if (newSize > oldSize) {
+                listener.onItemRangeInserted(oldSize, newSize - oldSize);
+            } else if (newSize < oldSize) {
+                listener.onItemRangeRemoved(newSize, oldSize - newSize);
+            }
+        }
+    }
+}
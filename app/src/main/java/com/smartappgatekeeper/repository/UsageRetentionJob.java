@@ -0,0 +1,192 @@
+package com.smartappgatekeeper.repository;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.smartappgatekeeper.database.AppDatabase;
+import com.smartappgatekeeper.database.dao.UsageDailyRollupDao;
+import com.smartappgatekeeper.database.dao.UsageEventDao;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Retention and compaction of usage history
+ * FR-004: System shall log all interception events for analytics
+ *
+ * Raw usage events older than the retention window are removed with
+ * bounded range deletes, each chunk its own short transaction,
+ * with a pause in between so interactive writes are not held up. Chunks go
+ * oldest day first, so an interrupted run leaves at most one day partly
+ * deleted. Daily rollups are kept and are already exact, since the insert
+ * transaction maintains them; optionally, days that never got a rollup row
+ * are rolled up before their raw events go. Rollup rows are never rebuilt
+ * here, as a partly deleted day would lose counts. Freed pages are then
+ * returned to the file system with incremental vacuum. Quiz results are
+ * not touched: course progress and completion counts read them in full.
+ *
+ * Every write step (each chunk, the rollup step, the vacuum) is its own task
+ * on the single writer, so journal flushes interleave with the job; the size
+ * reads use the read pool. run() only coordinates: call it from a thread that
+ * may block, never from a database executor.
+ */
+public class UsageRetentionJob {
+    private static final String TAG = "UsageRetentionJob";
+
+    static final int CHUNK_SIZE = 500;
+    private static final long CHUNK_PAUSE_MS = 20;
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+    private static final int MAX_VACUUM_PASSES = 8;
+
+    /**
+     * What one run removed and reclaimed
+     */
+    public static final class Report {
+        public final int eventsDeleted;
+        public final int chunks;
+        public final long daysRolledUp;
+        public final long bytesReclaimed;
+        public final long durationMillis;
+
+        Report(int eventsDeleted, int chunks, long daysRolledUp, long bytesReclaimed, long durationMillis) {
+            this.eventsDeleted = eventsDeleted;
+            this.chunks = chunks;
+            this.daysRolledUp = daysRolledUp;
+            this.bytesReclaimed = bytesReclaimed;
+            this.durationMillis = durationMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "Events: " + eventsDeleted +
+                   " in " + chunks + " chunks" +
+                   ", Days rolled up: " + daysRolledUp +
+                   ", Reclaimed: " + (bytesReclaimed / 1024) + " KB" +
+                   ", Took: " + durationMillis + "ms";
+        }
+    }
+
+    private final AppDatabase database;
+    private final Executor writer;
+    private final Executor reader;
+    private final UsageEventDao usageEventDao;
+    private final UsageDailyRollupDao usageDailyRollupDao;
+
+    UsageRetentionJob(AppDatabase database, Executor writer, Executor reader) {
+        this.database = database;
+        this.writer = writer;
+        this.reader = reader;
+        this.usageEventDao = database.usageEventDao();
+        this.usageDailyRollupDao = database.usageDailyRollupDao();
+    }
+
+    /**
+     * @param retainDays local days of raw history to keep, today included
+     * @param rollUpMissing roll up expiring days that have no rollup rows before deleting them
+     */
+    Report run(int retainDays, boolean rollUpMissing) {
+        long start = System.currentTimeMillis();
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate cutoff = LocalDate.now(zone).minusDays(retainDays - 1);
+        long cutoffDay = cutoff.toEpochDay();
+
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        long pageSize = await(reader, () -> pragma(db, "page_size"));
+        long pagesBefore = await(reader, () -> pragma(db, "page_count"));
+
+        int daysRolledUp = 0;
+        if (rollUpMissing) {
+            daysRolledUp = await(writer, () -> usageDailyRollupDao.rollUpMissingDaysBefore(cutoffDay));
+        }
+
+        int chunks = 0;
+        int eventsDeleted = 0;
+        int deleted;
+        do {
+            deleted = await(writer, () -> usageEventDao.deleteEventsBeforeDay(cutoffDay, CHUNK_SIZE));
+            eventsDeleted += deleted;
+            chunks++;
+            pause();
+        } while (deleted == CHUNK_SIZE);
+
+        await(writer, () -> {
+            vacuum(db);
+            return null;
+        });
+        long pagesAfter = await(reader, () -> pragma(db, "page_count"));
+
+        Report report = new Report(eventsDeleted, chunks, daysRolledUp,
+            Math.max(0, pagesBefore - pagesAfter) * pageSize, System.currentTimeMillis() - start);
+        Log.i(TAG, "Retention run: " + report);
+        return report;
+    }
+
+    /**
+     * Release free pages. The first run on a database created without
+     * incremental auto_vacuum converts it with one full VACUUM.
+     */
+    private void vacuum(SupportSQLiteDatabase db) {
+        try {
+            if (pragma(db, "auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+                drain(db.query("PRAGMA auto_vacuum = " + AUTO_VACUUM_INCREMENTAL));
+                db.execSQL("VACUUM");
+            } else {
+                // Each step of incremental_vacuum frees one page; repeat while it makes progress
+                long free = pragma(db, "freelist_count");
+                for (int pass = 0; free > 0 && pass < MAX_VACUUM_PASSES; pass++) {
+                    drain(db.query("PRAGMA incremental_vacuum(" + free + ")"));
+                    long remaining = pragma(db, "freelist_count");
+                    if (remaining >= free) {
+                        break;
+                    }
+                    free = remaining;
+                }
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Vacuum skipped", e);
+        }
+    }
+
+    /**
+     * Run one step on an executor and wait for it
+     */
+    private static <T> T await(Executor executor, Supplier<T> step) {
+        try {
+            return CompletableFuture.supplyAsync(step, executor).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during retention", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Retention step failed", e.getCause());
+        }
+    }
+
+    private static long pragma(SupportSQLiteDatabase db, String name) {
+        try (Cursor cursor = db.query("PRAGMA " + name)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    private static void drain(Cursor cursor) {
+        try {
+            // Filling the window steps the statement to completion
+            cursor.getCount();
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(CHUNK_PAUSE_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
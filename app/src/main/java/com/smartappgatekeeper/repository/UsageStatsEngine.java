@@ -0,0 +1,229 @@
+package com.smartappgatekeeper.repository;
+
+import com.smartappgatekeeper.database.entities.UsageDailyRollup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Today/week/month usage statistics computed in one pass over daily rollups
+ * FR-004: System shall log all interception events for analytics
+ *
+ * Rows for the whole covered range (see getStartDay/getEndDay) are folded
+ * into per-day primitive arrays and per-package counts in a single pass.
+ * Window totals are then summed from the day arrays and the top packages are
+ * picked with a bounded heap, so adding a window or a day costs nothing per
+ * row. Used by ReportsViewModel.
+ */
+public final class UsageStatsEngine {
+
+    public static final int WINDOW_TODAY = 0;
+    public static final int WINDOW_WEEK = 1;
+    public static final int WINDOW_MONTH = 2;
+    private static final int WINDOW_COUNT = 3;
+
+    public static final int PROGRESS_DAYS = 7;
+    public static final int MINUTES_SAVED_PER_QUIZ = 2;
+
+    private static final String EVENT_QUIZ_COMPLETED = "quiz_completed";
+    private static final String EVENT_SESSION_COMPLETED = "session_completed";
+
+    private UsageStatsEngine() {
+    }
+
+    /**
+     * Totals of one window
+     */
+    public static final class WindowStats {
+        public final int totalEvents;
+        public final int quizzesCompleted;
+        public final int sessionsCompleted;
+        public final int minutesSaved;
+
+        WindowStats(int totalEvents, int quizzesCompleted, int sessionsCompleted) {
+            this.totalEvents = totalEvents;
+            this.quizzesCompleted = quizzesCompleted;
+            this.sessionsCompleted = sessionsCompleted;
+            this.minutesSaved = quizzesCompleted * MINUTES_SAVED_PER_QUIZ;
+        }
+    }
+
+    /**
+     * One day of the trailing week, oldest first
+     */
+    public static final class DayStats {
+        public final long epochDay;
+        public final int totalEvents;
+        public final int quizzesCompleted;
+        public final int minutesSaved;
+        public final int streak; // consecutive quiz days ending on this day
+
+        DayStats(long epochDay, int totalEvents, int quizzesCompleted, int streak) {
+            this.epochDay = epochDay;
+            this.totalEvents = totalEvents;
+            this.quizzesCompleted = quizzesCompleted;
+            this.minutesSaved = quizzesCompleted * MINUTES_SAVED_PER_QUIZ;
+            this.streak = streak;
+        }
+    }
+
+    public static final class PackageCount {
+        public final String packageName;
+        public final int eventCount;
+
+        PackageCount(String packageName, int eventCount) {
+            this.packageName = packageName;
+            this.eventCount = eventCount;
+        }
+    }
+
+    public static final class Result {
+        private final WindowStats[] windows;
+        public final List<DayStats> weeklyProgress;
+        public final List<PackageCount> topPackages; // this month, most events first
+
+        Result(WindowStats[] windows, List<DayStats> weeklyProgress, List<PackageCount> topPackages) {
+            this.windows = windows;
+            this.weeklyProgress = weeklyProgress;
+            this.topPackages = topPackages;
+        }
+
+        /**
+         * @param window WINDOW_TODAY, WINDOW_WEEK or WINDOW_MONTH
+         */
+        public WindowStats getWindow(int window) {
+            return windows[window];
+        }
+    }
+
+    /**
+     * First epoch day whose rollups compute() needs
+     */
+    public static long getStartDay(LocalDate today) {
+        long start = today.minusDays(PROGRESS_DAYS - 1).toEpochDay();
+        start = Math.min(start, today.with(DayOfWeek.MONDAY).toEpochDay());
+        return Math.min(start, today.withDayOfMonth(1).toEpochDay());
+    }
+
+    /**
+     * Last epoch day whose rollups compute() needs
+     */
+    public static long getEndDay(LocalDate today) {
+        long end = today.with(DayOfWeek.SUNDAY).toEpochDay();
+        return Math.max(end, today.withDayOfMonth(today.lengthOfMonth()).toEpochDay());
+    }
+
+    /**
+     * @param rollups rows in any order; rows outside [getStartDay, getEndDay] are ignored
+     * @param topK number of packages to keep in topPackages
+     */
+    public static Result compute(List<UsageDailyRollup> rollups, LocalDate today, int topK) {
+        long startDay = getStartDay(today);
+        long endDay = getEndDay(today);
+        int span = (int) (endDay - startDay + 1);
+
+        long[][] windowRanges = new long[WINDOW_COUNT][];
+        windowRanges[WINDOW_TODAY] = new long[] {today.toEpochDay(), today.toEpochDay()};
+        windowRanges[WINDOW_WEEK] = new long[] {
+            today.with(DayOfWeek.MONDAY).toEpochDay(), today.with(DayOfWeek.SUNDAY).toEpochDay()};
+        windowRanges[WINDOW_MONTH] = new long[] {
+            today.withDayOfMonth(1).toEpochDay(), today.withDayOfMonth(today.lengthOfMonth()).toEpochDay()};
+        long monthStart = windowRanges[WINDOW_MONTH][0];
+        long monthEnd = windowRanges[WINDOW_MONTH][1];
+
+        int[] dayEvents = new int[span];
+        int[] dayQuizzes = new int[span];
+        int[] daySessions = new int[span];
+        Map<String, int[]> packageCounts = new HashMap<>();
+
+        // The single pass over the rows
+        if (rollups != null) {
+            for (UsageDailyRollup rollup : rollups) {
+                long day = rollup.epochDay;
+                if (day < startDay || day > endDay) {
+                    continue;
+                }
+                int index = (int) (day - startDay);
+                dayEvents[index] += rollup.eventCount;
+                if (EVENT_QUIZ_COMPLETED.equals(rollup.eventType)) {
+                    dayQuizzes[index] += rollup.eventCount;
+                } else if (EVENT_SESSION_COMPLETED.equals(rollup.eventType)) {
+                    daySessions[index] += rollup.eventCount;
+                }
+                if (day >= monthStart && day <= monthEnd && !rollup.packageName.isEmpty()) {
+                    int[] count = packageCounts.get(rollup.packageName);
+                    if (count == null) {
+                        packageCounts.put(rollup.packageName, new int[] {rollup.eventCount});
+                    } else {
+                        count[0] += rollup.eventCount;
+                    }
+                }
+            }
+        }
+
+        WindowStats[] windows = new WindowStats[WINDOW_COUNT];
+        for (int w = 0; w < WINDOW_COUNT; w++) {
+            int from = (int) (windowRanges[w][0] - startDay);
+            int to = (int) (windowRanges[w][1] - startDay);
+            int events = 0;
+            int quizzes = 0;
+            int sessions = 0;
+            for (int i = from; i <= to; i++) {
+                events += dayEvents[i];
+                quizzes += dayQuizzes[i];
+                sessions += daySessions[i];
+            }
+            windows[w] = new WindowStats(events, quizzes, sessions);
+        }
+
+        // Streaks run from the start of the covered range
+        int todayIndex = (int) (today.toEpochDay() - startDay);
+        int[] streaks = new int[todayIndex + 1];
+        for (int i = 0; i <= todayIndex; i++) {
+            streaks[i] = dayQuizzes[i] > 0 ? (i > 0 ? streaks[i - 1] : 0) + 1 : 0;
+        }
+        List<DayStats> progress = new ArrayList<>(PROGRESS_DAYS);
+        for (int i = todayIndex - PROGRESS_DAYS + 1; i <= todayIndex; i++) {
+            progress.add(new DayStats(startDay + i, dayEvents[i], dayQuizzes[i], streaks[i]));
+        }
+
+        return new Result(windows, progress, selectTop(packageCounts, topK));
+    }
+
+    /**
+     * Top K entries by count, ties broken by package name
+     */
+    private static List<PackageCount> selectTop(Map<String, int[]> counts, int k) {
+        if (k <= 0 || counts.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // Min-heap holding the best K seen so far
+        PriorityQueue<PackageCount> heap = new PriorityQueue<>(k, UsageStatsEngine::compareAscending);
+        for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+            PackageCount candidate = new PackageCount(entry.getKey(), entry.getValue()[0]);
+            if (heap.size() < k) {
+                heap.add(candidate);
+            } else if (compareAscending(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+        List<PackageCount> top = new ArrayList<>(heap);
+        top.sort((a, b) -> compareAscending(b, a));
+        return top;
+    }
+
+    private static int compareAscending(PackageCount a, PackageCount b) {
+        if (a.eventCount != b.eventCount) {
+            return Integer.compare(a.eventCount, b.eventCount);
+        }
+        // Lower name ranks higher on ties
+        return b.packageName.compareTo(a.packageName);
+    }
+}
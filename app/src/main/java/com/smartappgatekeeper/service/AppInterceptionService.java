@@ -9,9 +9,12 @@ import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.accessibility.AccessibilityEvent;
 import androidx.core.app.NotificationCompat;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
 import android.view.accessibility.AccessibilityNodeInfo;
 
 import com.smartappgatekeeper.repository.AppRepository;
@@ -19,6 +22,8 @@ import com.smartappgatekeeper.database.entities.TargetApp;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Accessibility Service for intercepting app launches
@@ -30,12 +35,29 @@ public class AppInterceptionService extends AccessibilityService {
     private static final String TAG = "AppInterceptionService";
     
     private AppRepository repository;
-    private List<TargetApp> enabledTargetApps;
+    private ExecutorService indexExecutor;
+    private InterceptionStateMachine stateMachine;
+    private InterceptionLatencyTracer latencyTracer;
+    private ReadyQuizPool quizPool;
+    
+    // Rebuilt off-thread and published by a single reference swap
+    private volatile TargetAppIndex targetAppIndex = TargetAppIndex.EMPTY;
+    
+    // Removed in onDestroy; the LiveData outlives the service
+    private LiveData<List<TargetApp>> enabledTargetApps;
+    private Observer<List<TargetApp>> enabledTargetAppsObserver;
     
     @Override
     public void onCreate() {
         super.onCreate();
         repository = AppRepository.getInstance(getApplication());
+        indexExecutor = Executors.newSingleThreadExecutor();
+        stateMachine = InterceptionStateMachine.getInstance();
+        latencyTracer = InterceptionLatencyTracer.getInstance();
+        quizPool = ReadyQuizPool.getInstance(this);
+        // Map the question bank before the pool builds sessions from it
+        QuestionBankService.getInstance(this);
+        quizPool.setReviewScheduler(ReviewScheduler.getInstance(getApplication()));
         loadEnabledTargetApps();
         Log.d(TAG, "AppInterceptionService created");
     }
@@ -58,12 +80,20 @@ public class AppInterceptionService extends AccessibilityService {
     @Override
     public void onAccessibilityEvent(AccessibilityEvent event) {
         if (event.getEventType() == AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED) {
-            String packageName = event.getPackageName() != null ? 
-                event.getPackageName().toString() : null;
+            long receivedAtNanos = SystemClock.elapsedRealtimeNanos();
+            CharSequence eventPackage = event.getPackageName();
             
-            if (packageName != null && isTargetApp(packageName)) {
+            if (eventPackage != null && isTargetApp(eventPackage)) {
+                String packageName = eventPackage.toString();
+                
+                // Drop burst duplicates and unlocked packages before any DB or Intent work
+                if (!stateMachine.tryBeginInterception(packageName)) {
+                    return;
+                }
+                
+                long interceptionId = latencyTracer.begin(receivedAtNanos);
                 Log.d(TAG, "Intercepted app launch: " + packageName);
-                handleAppInterception(packageName);
+                handleAppInterception(packageName, interceptionId);
             }
         }
     }
@@ -109,9 +139,23 @@ public class AppInterceptionService extends AccessibilityService {
         Log.d(TAG, "AppInterceptionService interrupted");
     }
     
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        repository.flushUsageEvents();
+    }
+    
     @Override
     public void onDestroy() {
         super.onDestroy();
+        if (enabledTargetApps != null) {
+            enabledTargetApps.removeObserver(enabledTargetAppsObserver);
+            enabledTargetApps = null;
+        }
+        if (indexExecutor != null) {
+            indexExecutor.shutdownNow();
+        }
+        repository.flushUsageEventsBlocking();
         Log.d(TAG, "AppInterceptionService destroyed");
     }
     
@@ -119,39 +163,46 @@ public class AppInterceptionService extends AccessibilityService {
      * Load enabled target apps from database
      */
     private void loadEnabledTargetApps() {
-        repository.getEnabledTargetApps().observeForever(targetApps -> {
-            enabledTargetApps = targetApps;
-            Log.d(TAG, "Loaded " + (targetApps != null ? targetApps.size() : 0) + " enabled target apps");
-        });
+        enabledTargetAppsObserver = targetApps -> {
+            if (indexExecutor.isShutdown()) {
+                return;
+            }
+            // Single-threaded executor keeps snapshots in emission order
+            indexExecutor.execute(() -> {
+                targetAppIndex = TargetAppIndex.build(targetApps);
+                Log.d(TAG, "Loaded " + targetAppIndex.size() + " enabled target apps");
+            });
+            quizPool.prepare(targetApps);
+        };
+        enabledTargetApps = repository.getEnabledTargetApps();
+        enabledTargetApps.observeForever(enabledTargetAppsObserver);
     }
     
     /**
      * Check if the given package name is a target app
      */
-    private boolean isTargetApp(String packageName) {
-        if (enabledTargetApps == null) {
-            return false;
-        }
-        
-        for (TargetApp targetApp : enabledTargetApps) {
-            if (targetApp.packageName.equals(packageName) && targetApp.isEnabled) {
-                return true;
-            }
-        }
-        return false;
+    private boolean isTargetApp(CharSequence packageName) {
+        return targetAppIndex.contains(packageName);
     }
     
     /**
      * Handle app interception by launching quiz
      */
-    private void handleAppInterception(String packageName) {
-        CompletableFuture<TargetApp> targetAppFuture = repository.getTargetAppByPackageAsync(packageName);
+    private void handleAppInterception(String packageName, long interceptionId) {
+        // Resolved from the repository's policy cache without a database round trip
+        CompletableFuture<TargetApp> targetAppFuture = repository.getTargetAppPolicy(packageName);
         
-        targetAppFuture.thenAccept(targetApp -> {
+        // Waits for the persisted counters only until warm-up has merged them
+        CompletableFuture<Integer> usesTodayFuture = repository.getUsesTodayAsync(packageName);
+        
+        targetAppFuture.thenAcceptBoth(usesTodayFuture, (targetApp, usesToday) -> {
+            latencyTracer.mark(interceptionId, InterceptionLatencyTracer.Stage.POLICY_DECIDED);
+            
             if (targetApp != null && targetApp.isEnabled) {
                 // Check if app has reached daily limit
-                if (targetApp.currentUsesToday >= targetApp.maxUsesPerDay) {
+                if (usesToday >= targetApp.maxUsesPerDay) {
                     Log.d(TAG, "App " + packageName + " has reached daily limit");
+                    stateMachine.onInterceptionRejected(packageName);
                     // Show daily limit reached notification
                     showDailyLimitReachedNotification(packageName);
                     return;
@@ -161,15 +212,24 @@ public class AppInterceptionService extends AccessibilityService {
                 Intent quizIntent = new Intent(this, com.smartappgatekeeper.ui.activities.QuizActivity.class);
                 quizIntent.putExtra("target_app", targetApp);
                 quizIntent.putExtra("package_name", packageName);
+                quizIntent.putExtra("unlock_mode", true);
+                quizIntent.putExtra("target_package", packageName);
+                quizIntent.putExtra("target_app_name", targetApp.appName);
+                quizIntent.putExtra(InterceptionLatencyTracer.EXTRA_INTERCEPTION_ID, interceptionId);
+                quizIntent.putExtra(ReadyQuizPool.EXTRA_QUIZ_SESSION_ID, quizPool.takeSessionId(packageName));
                 quizIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
                 
                 startActivity(quizIntent);
+                latencyTracer.mark(interceptionId, InterceptionLatencyTracer.Stage.ACTIVITY_STARTED);
                 
                 // Log the interception event
                 logInterceptionEvent(packageName, targetApp.appName);
+            } else {
+                stateMachine.onInterceptionRejected(packageName);
             }
         }).exceptionally(throwable -> {
             Log.e(TAG, "Error handling app interception for " + packageName, throwable);
+            stateMachine.onInterceptionRejected(packageName);
             return null;
         });
     }
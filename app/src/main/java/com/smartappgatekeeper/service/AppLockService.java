@@ -6,16 +6,9 @@ import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.app.Service;
 import android.content.Intent;
-import android.graphics.PixelFormat;
 import android.os.Build;
 import android.os.IBinder;
 import android.util.Log;
-import android.view.Gravity;
-import android.view.LayoutInflater;
-import android.view.View;
-import android.view.WindowManager;
-import android.widget.Button;
-import android.widget.TextView;
 
 import androidx.core.app.NotificationCompat;
 
@@ -27,35 +20,47 @@ import com.smartappgatekeeper.ui.activities.QuizActivity;
  * This service creates a system overlay that blocks access to target apps
  * Users must complete a quiz to unlock the app
  */
-public class AppLockService extends Service {
+public class AppLockService extends Service implements LockOverlayManager.Listener {
     private static final String TAG = "AppLockService";
     private static final String CHANNEL_ID = "AppLockServiceChannel";
     private static final int NOTIFICATION_ID = 2;
     
-    private WindowManager windowManager;
-    private View lockOverlay;
+    public static final String ACTION_UNLOCK = "UNLOCK_APP";
+    
+    // Batch of apps whose unlock timers expired together (from TimerService)
+    public static final String EXTRA_TARGET_PACKAGES = "target_packages";
+    public static final String EXTRA_TARGET_APP_NAMES = "target_app_names";
+    
+    private LockOverlayManager overlayManager;
     private String targetPackage;
     private String targetAppName;
-    private boolean isLocked = false;
     
     @Override
     public void onCreate() {
         super.onCreate();
         createNotificationChannel();
-        windowManager = (WindowManager) getSystemService(WINDOW_SERVICE);
+        overlayManager = LockOverlayManager.getInstance(this);
+        overlayManager.prepare();
         Log.d(TAG, "AppLockService created");
     }
     
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         if (intent != null) {
-            targetPackage = intent.getStringExtra("target_package");
-            targetAppName = intent.getStringExtra("target_app_name");
+            String packageName = intent.getStringExtra("target_package");
+            
+            String[] packageNames = intent.getStringArrayExtra(EXTRA_TARGET_PACKAGES);
             
-            if (targetPackage != null) {
+            if (ACTION_UNLOCK.equals(intent.getAction())) {
+                unlockApp(packageName);
+            } else if (packageNames != null && packageNames.length > 0) {
+                lockApps(packageNames, intent.getStringArrayExtra(EXTRA_TARGET_APP_NAMES));
+            } else if (packageName != null) {
+                targetPackage = packageName;
+                targetAppName = intent.getStringExtra("target_app_name");
                 startForeground(NOTIFICATION_ID, createNotification());
-                showLockOverlay();
-                isLocked = true;
+                overlayManager.show(targetPackage, targetAppName, this);
+                InterceptionStateMachine.getInstance().onLocked(targetPackage);
                 Log.d(TAG, "App locked: " + targetAppName);
             }
         }
@@ -66,7 +71,7 @@ public class AppLockService extends Service {
     @Override
     public void onDestroy() {
         super.onDestroy();
-        removeLockOverlay();
+        overlayManager.hideAll();
         Log.d(TAG, "AppLockService destroyed");
     }
     
@@ -75,84 +80,20 @@ public class AppLockService extends Service {
         return null;
     }
     
-    /**
-     * Show the lock overlay that blocks access to the target app
-     */
-    private void showLockOverlay() {
-        if (lockOverlay != null) {
-            return; // Already showing
-        }
-        
-        try {
-            // Create the lock overlay view
-            lockOverlay = createLockOverlayView();
-            
-            // Set up window parameters for system overlay
-            WindowManager.LayoutParams params = new WindowManager.LayoutParams(
-                WindowManager.LayoutParams.MATCH_PARENT,
-                WindowManager.LayoutParams.MATCH_PARENT,
-                Build.VERSION.SDK_INT >= Build.VERSION_CODES.O 
-                    ? WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY
-                    : WindowManager.LayoutParams.TYPE_PHONE,
-                WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
-                    | WindowManager.LayoutParams.FLAG_NOT_TOUCH_MODAL
-                    | WindowManager.LayoutParams.FLAG_WATCH_OUTSIDE_TOUCH,
-                PixelFormat.TRANSLUCENT
-            );
-            
-            params.gravity = Gravity.TOP | Gravity.LEFT;
-            
-            // Add the overlay to the window manager
-            windowManager.addView(lockOverlay, params);
-            
-            Log.d(TAG, "Lock overlay displayed for: " + targetAppName);
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error showing lock overlay", e);
-        }
+    @Override
+    public void onTakeQuiz(String packageName, String appName) {
+        startQuizToUnlock(packageName, appName);
     }
     
-    /**
-     * Create the lock overlay view with quiz unlock interface
-     */
-    private View createLockOverlayView() {
-        // Inflate the lock screen layout
-        LayoutInflater inflater = (LayoutInflater) getSystemService(LAYOUT_INFLATER_SERVICE);
-        View overlayView = inflater.inflate(R.layout.layout_app_lock_screen, null);
-        
-        // Set up the UI elements
-        TextView titleText = overlayView.findViewById(R.id.text_lock_title);
-        TextView messageText = overlayView.findViewById(R.id.text_lock_message);
-        Button quizButton = overlayView.findViewById(R.id.button_take_quiz);
-        Button settingsButton = overlayView.findViewById(R.id.button_settings);
-        
-        if (titleText != null) {
-            titleText.setText("🔒 App Locked");
-        }
-        
-        if (messageText != null) {
-            messageText.setText("Time's up! " + targetAppName + " is now locked.\n\nComplete a quiz to unlock the app and continue using it.");
-        }
-        
-        if (quizButton != null) {
-            quizButton.setOnClickListener(v -> {
-                startQuizToUnlock();
-            });
-        }
-        
-        if (settingsButton != null) {
-            settingsButton.setOnClickListener(v -> {
-                openSettings();
-            });
-        }
-        
-        return overlayView;
+    @Override
+    public void onOpenSettings() {
+        openSettings();
     }
     
     /**
      * Start quiz activity to unlock the app
      */
-    private void startQuizToUnlock() {
+    private void startQuizToUnlock(String targetPackage, String targetAppName) {
         try {
             Intent quizIntent = new Intent(this, QuizActivity.class);
             quizIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
@@ -186,29 +127,36 @@ public class AppLockService extends Service {
     }
     
     /**
-     * Remove the lock overlay
+     * Lock a batch of apps with a single foreground update
      */
-    private void removeLockOverlay() {
-        if (lockOverlay != null && windowManager != null) {
-            try {
-                windowManager.removeView(lockOverlay);
-                lockOverlay = null;
-                isLocked = false;
-                Log.d(TAG, "Lock overlay removed");
-            } catch (Exception e) {
-                Log.e(TAG, "Error removing lock overlay", e);
-            }
+    private void lockApps(String[] packageNames, String[] appNames) {
+        InterceptionStateMachine stateMachine = InterceptionStateMachine.getInstance();
+        for (int i = 0; i < packageNames.length; i++) {
+            targetPackage = packageNames[i];
+            targetAppName = appNames != null && i < appNames.length ? appNames[i] : null;
+            overlayManager.show(targetPackage, targetAppName, this);
+            stateMachine.onLocked(targetPackage);
         }
+        startForeground(NOTIFICATION_ID, createNotification());
+        Log.d(TAG, "Apps locked: " + packageNames.length);
     }
     
     /**
-     * Unlock the app (called when quiz is completed successfully)
+     * Unlock one app (called when quiz is completed successfully).
+     * The service stops once no app is locked.
      */
-    public void unlockApp() {
-        removeLockOverlay();
-        stopForeground(true);
-        stopSelf();
-        Log.d(TAG, "App unlocked: " + targetAppName);
+    public void unlockApp(String packageName) {
+        if (packageName != null) {
+            overlayManager.hide(packageName);
+        } else {
+            overlayManager.hideAll();
+        }
+        Log.d(TAG, "App unlocked: " + packageName);
+        
+        if (overlayManager.getLockedCount() == 0) {
+            stopForeground(true);
+            stopSelf();
+        }
     }
     
     /**
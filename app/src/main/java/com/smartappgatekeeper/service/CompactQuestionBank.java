@@ -0,0 +1,358 @@
+package com.smartappgatekeeper.service;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+import com.smartappgatekeeper.model.Question;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Compact on-disk question bank, read through a memory-mapped buffer
+ * FR-006: System shall generate questions from selected topics
+ *
+ * Layout (big-endian):
+ *   header     magic, version, question/topic/difficulty counts and section offsets
+ *   names      string refs of the topic names, then the difficulty names
+ *   directory  (start, count) into the index section for each topic, each
+ *              difficulty, then each topic x difficulty cell
+ *   records    fixed-width: 7 string refs (text, options A-D, answer,
+ *              explanation), topic id (u16), difficulty id (u8), flags (u8)
+ *   index      question positions, ascending within each list
+ *   keys       every question's QuestionBankService.keyOf key (i64), ascending,
+ *              then the matching question positions (i32)
+ *   strings    length-prefixed UTF-8; a ref is an offset into this section, -1 for null
+ *
+ * Opening reads only the header, names and directory, so it costs the same
+ * for any bank size. Index and key lists are views of the mapping and a
+ * Question is decoded from its record only when get() is called, e.g. after
+ * sampling or once a key lookup has found it.
+ */
+final class CompactQuestionBank {
+
+    static final String FILE_NAME = "question_bank.qbank";
+
+    private static final int MAGIC = 0x51424E4B; // "QBNK"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 36;
+    private static final int RECORD_SIZE = 32;
+    private static final int STRING_REFS = 7;
+    private static final int FLAG_ACTIVE = 1;
+    private static final int NULL_REF = -1;
+
+    private CompactQuestionBank() {
+    }
+
+    /**
+     * Map a downloaded bank file
+     */
+    static QuestionIndex open(File file) throws IOException {
+        try (FileInputStream input = new FileInputStream(file);
+             FileChannel channel = input.getChannel()) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Map a bank shipped as an asset; the asset must be stored uncompressed
+     */
+    static QuestionIndex open(AssetManager assets, String name) throws IOException {
+        try (AssetFileDescriptor descriptor = assets.openFd(name);
+             FileInputStream input = descriptor.createInputStream();
+             FileChannel channel = input.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                descriptor.getStartOffset(), descriptor.getLength());
+            return read(buffer);
+        }
+    }
+
+    static QuestionIndex read(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a question bank");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported question bank version " + buffer.getInt(4));
+        }
+        int questionCount = buffer.getInt(8);
+        int topicCount = buffer.getInt(12);
+        int difficultyCount = buffer.getInt(16);
+        int recordsOffset = buffer.getInt(20);
+        int indexOffset = buffer.getInt(24);
+        int keysOffset = buffer.getInt(28);
+        int stringsOffset = buffer.getInt(32);
+        if (questionCount < 0 || topicCount < 0 || difficultyCount < 0
+                || recordsOffset + (long) questionCount * RECORD_SIZE > indexOffset
+                || indexOffset > keysOffset
+                || keysOffset + (long) questionCount * (8 + 4) > stringsOffset
+                || stringsOffset > buffer.capacity()) {
+            throw new IOException("Corrupt question bank header");
+        }
+
+        Records records = new Records(buffer, recordsOffset, questionCount, stringsOffset);
+        int position = HEADER_SIZE;
+        List<String> topics = new ArrayList<>(topicCount);
+        for (int t = 0; t < topicCount; t++, position += 4) {
+            topics.add(records.string(buffer.getInt(position)));
+        }
+        List<String> difficulties = new ArrayList<>(difficultyCount);
+        for (int d = 0; d < difficultyCount; d++, position += 4) {
+            difficulties.add(records.string(buffer.getInt(position)));
+        }
+        records.setNames(topics, difficulties);
+
+        IntBuffer[] byTopic = new IntBuffer[topicCount];
+        for (int t = 0; t < topicCount; t++, position += 8) {
+            byTopic[t] = indexList(buffer, indexOffset, keysOffset, position);
+        }
+        IntBuffer[] byDifficulty = new IntBuffer[difficultyCount];
+        for (int d = 0; d < difficultyCount; d++, position += 8) {
+            byDifficulty[d] = indexList(buffer, indexOffset, keysOffset, position);
+        }
+        IntBuffer[][] grid = new IntBuffer[topicCount][difficultyCount];
+        for (int t = 0; t < topicCount; t++) {
+            for (int d = 0; d < difficultyCount; d++, position += 8) {
+                grid[t][d] = indexList(buffer, indexOffset, keysOffset, position);
+            }
+        }
+
+        int positionsOffset = keysOffset + questionCount * 8;
+        LongBuffer keys = view(buffer, keysOffset, positionsOffset).asLongBuffer();
+        IntBuffer keyPositions = view(buffer, positionsOffset, positionsOffset + questionCount * 4).asIntBuffer();
+        return new QuestionIndex(records, topics, difficulties, byTopic, byDifficulty, grid, keys, keyPositions);
+    }
+
+    private static IntBuffer indexList(ByteBuffer buffer, int indexOffset, int indexEnd, int entry)
+            throws IOException {
+        long start = indexOffset + (long) buffer.getInt(entry) * 4;
+        long end = start + (long) buffer.getInt(entry + 4) * 4;
+        if (start < indexOffset || end < start || end > indexEnd) {
+            throw new IOException("Corrupt question bank index");
+        }
+        return view(buffer, (int) start, (int) end).asIntBuffer();
+    }
+
+    private static ByteBuffer view(ByteBuffer buffer, int start, int end) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(end).position(start);
+        return view.slice();
+    }
+
+    /**
+     * Questions decoded from their records on demand
+     */
+    private static final class Records extends AbstractList<Question> implements RandomAccess {
+        private final ByteBuffer buffer;
+        private final int recordsOffset;
+        private final int size;
+        private final int stringsOffset;
+        private List<String> topics;
+        private List<String> difficulties;
+
+        Records(ByteBuffer buffer, int recordsOffset, int size, int stringsOffset) {
+            this.buffer = buffer;
+            this.recordsOffset = recordsOffset;
+            this.size = size;
+            this.stringsOffset = stringsOffset;
+        }
+
+        void setNames(List<String> topics, List<String> difficulties) {
+            this.topics = topics;
+            this.difficulties = difficulties;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Question get(int position) {
+            if (position < 0 || position >= size) {
+                throw new IndexOutOfBoundsException("Question " + position + " of " + size);
+            }
+            int record = recordsOffset + position * RECORD_SIZE;
+            Question question = new Question();
+            question.setQuestionText(string(buffer.getInt(record)));
+            question.setOptionA(string(buffer.getInt(record + 4)));
+            question.setOptionB(string(buffer.getInt(record + 8)));
+            question.setOptionC(string(buffer.getInt(record + 12)));
+            question.setOptionD(string(buffer.getInt(record + 16)));
+            question.setCorrectAnswer(string(buffer.getInt(record + 20)));
+            question.setExplanation(string(buffer.getInt(record + 24)));
+            int fields = record + STRING_REFS * 4;
+            question.setTopic(topics.get(buffer.getShort(fields) & 0xFFFF));
+            question.setDifficulty(difficulties.get(buffer.get(fields + 2) & 0xFF));
+            question.setActive((buffer.get(fields + 3) & FLAG_ACTIVE) != 0);
+            return question;
+        }
+
+        String string(int ref) {
+            if (ref == NULL_REF) {
+                return null;
+            }
+            int offset = stringsOffset + ref;
+            byte[] bytes = new byte[buffer.getInt(offset)];
+            // Relative reads on a duplicate keep the shared buffer thread-safe
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset + 4);
+            view.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Write questions in this format, e.g. to build the asset or cache a synced bank
+     */
+    static void write(List<Question> questions, OutputStream output) throws IOException {
+        QuestionIndex index = QuestionIndex.build(questions);
+        List<String> topics = index.getTopics();
+        List<String> difficulties = index.getDifficulties();
+        if (topics.size() > 0xFFFF || difficulties.size() > 0xFF) {
+            throw new IOException("Too many topics or difficulties for the question bank format");
+        }
+
+        StringTable strings = new StringTable();
+        int[] topicRefs = new int[topics.size()];
+        int[] difficultyRefs = new int[difficulties.size()];
+        for (int t = 0; t < topicRefs.length; t++) {
+            topicRefs[t] = strings.ref(topics.get(t));
+        }
+        for (int d = 0; d < difficultyRefs.length; d++) {
+            difficultyRefs[d] = strings.ref(difficulties.get(d));
+        }
+
+        // Index lists in directory order: topics, difficulties, then cells
+        List<IntBuffer> lists = new ArrayList<>();
+        for (String topic : topics) {
+            lists.add(index.topicPositions(topic));
+        }
+        for (String difficulty : difficulties) {
+            lists.add(index.difficultyPositions(difficulty));
+        }
+        for (String topic : topics) {
+            for (String difficulty : difficulties) {
+                lists.add(index.cellPositions(topic, difficulty));
+            }
+        }
+
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(questions.size() * RECORD_SIZE);
+        DataOutputStream records = new DataOutputStream(recordBytes);
+        Map<String, Integer> topicIds = idsOf(topics);
+        Map<String, Integer> difficultyIds = idsOf(difficulties);
+        for (Question question : questions) {
+            records.writeInt(strings.ref(question.getQuestionText()));
+            records.writeInt(strings.ref(question.getOptionA()));
+            records.writeInt(strings.ref(question.getOptionB()));
+            records.writeInt(strings.ref(question.getOptionC()));
+            records.writeInt(strings.ref(question.getOptionD()));
+            records.writeInt(strings.ref(question.getCorrectAnswer()));
+            records.writeInt(strings.ref(question.getExplanation()));
+            records.writeShort(topicIds.get(question.getTopic()));
+            records.writeByte(difficultyIds.get(question.getDifficulty()));
+            records.writeByte(question.isActive() ? FLAG_ACTIVE : 0);
+        }
+
+        int namesSize = (topics.size() + difficulties.size()) * 4;
+        int directorySize = lists.size() * 8;
+        int recordsOffset = HEADER_SIZE + namesSize + directorySize;
+        int indexOffset = recordsOffset + recordBytes.size();
+        int indexSize = 0;
+        for (IntBuffer list : lists) {
+            indexSize += list.limit() * 4;
+        }
+        int keysOffset = indexOffset + indexSize;
+        int stringsOffset = keysOffset + questions.size() * (8 + 4);
+
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(questions.size());
+        out.writeInt(topics.size());
+        out.writeInt(difficulties.size());
+        out.writeInt(recordsOffset);
+        out.writeInt(indexOffset);
+        out.writeInt(keysOffset);
+        out.writeInt(stringsOffset);
+        for (int ref : topicRefs) {
+            out.writeInt(ref);
+        }
+        for (int ref : difficultyRefs) {
+            out.writeInt(ref);
+        }
+        int start = 0;
+        for (IntBuffer list : lists) {
+            out.writeInt(start);
+            out.writeInt(list.limit());
+            start += list.limit();
+        }
+        recordBytes.writeTo(out);
+        for (IntBuffer list : lists) {
+            for (int i = 0; i < list.limit(); i++) {
+                out.writeInt(list.get(i));
+            }
+        }
+        LongBuffer keys = index.sortedKeys();
+        IntBuffer keyPositions = index.keyPositions();
+        for (int i = 0; i < keys.limit(); i++) {
+            out.writeLong(keys.get(i));
+        }
+        for (int i = 0; i < keyPositions.limit(); i++) {
+            out.writeInt(keyPositions.get(i));
+        }
+        strings.writeTo(out);
+        out.flush();
+    }
+
+    private static Map<String, Integer> idsOf(List<String> names) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            ids.put(names.get(i), i);
+        }
+        return ids;
+    }
+
+    /**
+     * Deduplicated, length-prefixed UTF-8 strings
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream data = new DataOutputStream(bytes);
+
+        int ref(String value) throws IOException {
+            if (value == null) {
+                return NULL_REF;
+            }
+            Integer ref = refs.get(value);
+            if (ref == null) {
+                ref = bytes.size();
+                byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                data.writeInt(encoded.length);
+                data.write(encoded);
+                refs.put(value, ref);
+            }
+            return ref;
+        }
+
+        void writeTo(OutputStream output) throws IOException {
+            bytes.writeTo(output);
+        }
+    }
+}
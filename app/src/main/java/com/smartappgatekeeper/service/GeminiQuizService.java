@@ -273,7 +273,7 @@ public class GeminiQuizService {
      * Get fallback questions if AI generation fails
      */
     private List<Question> getFallbackQuestions(String courseTopic, int count) {
-        QuestionBankService questionBank = QuestionBankService.getInstance();
+        QuestionBankService questionBank = QuestionBankService.getInstance(context);
         return questionBank.getQuestionsByTopic(courseTopic).subList(0, Math.min(count, 5));
     }
     
@@ -0,0 +1,227 @@
+package com.smartappgatekeeper.service;
+
+import android.os.SystemClock;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * End-to-end latency tracing for app interceptions
+ * FR-002: System shall display quiz modal within 200ms of app launch attempt
+ *
+ * Every admitted interception gets an ID that travels to QuizActivity in the
+ * Intent ("interception_id"). Each stage records the time elapsed since the
+ * accessibility event was received into a fixed-bucket histogram. All state is
+ * held in atomic arrays, so recording never blocks the accessibility or UI thread.
+ */
+public class InterceptionLatencyTracer {
+    private static volatile InterceptionLatencyTracer INSTANCE;
+
+    public static final String EXTRA_INTERCEPTION_ID = "interception_id";
+    public static final long NO_INTERCEPTION = 0;
+    public static final long SLO_MILLIS = 200;
+
+    public enum Stage {
+        EVENT_RECEIVED,
+        POLICY_DECIDED,
+        ACTIVITY_STARTED,
+        QUIZ_CREATED,
+        FIRST_QUESTION_RENDERED
+    }
+
+    // Upper bounds (inclusive, ms); the last bucket catches everything above
+    private static final long[] BUCKET_BOUNDS_MS = {
+        1, 2, 5, 10, 20, 30, 50, 75, 100, 150, 200, 300, 500, 1000, 2000, Long.MAX_VALUE
+    };
+    private static final int BUCKET_COUNT = BUCKET_BOUNDS_MS.length;
+    private static final int STAGE_COUNT = Stage.values().length;
+
+    // In-flight interceptions; old entries are overwritten once the ring wraps
+    private static final int RING_SIZE = 64;
+
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLongArray ringIds = new AtomicLongArray(RING_SIZE);
+    private final AtomicLongArray ringStartNanos = new AtomicLongArray(RING_SIZE);
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(STAGE_COUNT * BUCKET_COUNT);
+    private final AtomicLongArray stageMaxMillis = new AtomicLongArray(STAGE_COUNT);
+    private final AtomicLong sloViolations = new AtomicLong();
+
+    public static InterceptionLatencyTracer getInstance() {
+        if (INSTANCE == null) {
+            synchronized (InterceptionLatencyTracer.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new InterceptionLatencyTracer();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Start a trace for an interception whose event arrived at receivedAtNanos
+     * (SystemClock.elapsedRealtimeNanos()).
+     * @return interception ID to pass along with the Intent
+     */
+    public long begin(long receivedAtNanos) {
+        long id = nextId.getAndIncrement();
+        int slot = (int) (id & (RING_SIZE - 1));
+        ringIds.set(slot, NO_INTERCEPTION);
+        ringStartNanos.set(slot, receivedAtNanos);
+        ringIds.set(slot, id);
+        record(Stage.EVENT_RECEIVED, (SystemClock.elapsedRealtimeNanos() - receivedAtNanos) / 1_000_000L);
+        return id;
+    }
+
+    /**
+     * Record that an interception reached the given stage
+     */
+    public void mark(long interceptionId, Stage stage) {
+        if (interceptionId == NO_INTERCEPTION) {
+            return;
+        }
+        int slot = (int) (interceptionId & (RING_SIZE - 1));
+        if (ringIds.get(slot) != interceptionId) {
+            return; // Evicted by newer interceptions
+        }
+        long startNanos = ringStartNanos.get(slot);
+        if (ringIds.get(slot) != interceptionId) {
+            return; // Slot was reused while reading
+        }
+
+        long elapsedMillis = (SystemClock.elapsedRealtimeNanos() - startNanos) / 1_000_000L;
+        record(stage, elapsedMillis);
+
+        if (stage == Stage.FIRST_QUESTION_RENDERED) {
+            if (elapsedMillis > SLO_MILLIS) {
+                sloViolations.incrementAndGet();
+            }
+            ringIds.compareAndSet(slot, interceptionId, NO_INTERCEPTION);
+        }
+    }
+
+    public long getCount(Stage stage) {
+        long total = 0;
+        int base = stage.ordinal() * BUCKET_COUNT;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += bucketCounts.get(base + i);
+        }
+        return total;
+    }
+
+    /**
+     * Percentile estimate for a stage, reported as the upper bound of the matching bucket
+     * @param percentile value between 0 and 100
+     * @return latency in milliseconds, -1 if nothing was recorded
+     */
+    public long getPercentileMillis(Stage stage, double percentile) {
+        int base = stage.ordinal() * BUCKET_COUNT;
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = bucketCounts.get(base + i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return -1;
+        }
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= rank) {
+                return i == BUCKET_COUNT - 1 ? stageMaxMillis.get(stage.ordinal()) : BUCKET_BOUNDS_MS[i];
+            }
+        }
+        return stageMaxMillis.get(stage.ordinal());
+    }
+
+    public long getSloViolations() {
+        return sloViolations.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < bucketCounts.length(); i++) {
+            bucketCounts.set(i, 0);
+        }
+        for (int i = 0; i < STAGE_COUNT; i++) {
+            stageMaxMillis.set(i, 0);
+        }
+        sloViolations.set(0);
+    }
+
+    /**
+     * Human readable p50/p95/p99 table for the debug screen
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            long count = getCount(stage);
+            summary.append(String.format(Locale.US, "• %s (n=%d): ", stage.name(), count));
+            if (count == 0) {
+                summary.append("no data\n");
+            } else {
+                summary.append(String.format(Locale.US, "p50 %dms, p95 %dms, p99 %dms\n",
+                    getPercentileMillis(stage, 50),
+                    getPercentileMillis(stage, 95),
+                    getPercentileMillis(stage, 99)));
+            }
+        }
+        summary.append("Over ").append(SLO_MILLIS).append("ms: ").append(sloViolations.get());
+        return summary.toString();
+    }
+
+    /**
+     * Export all histograms as JSON
+     */
+    public JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("slo_millis", SLO_MILLIS);
+        json.put("slo_violations", sloViolations.get());
+
+        JSONArray bounds = new JSONArray();
+        for (int i = 0; i < BUCKET_COUNT - 1; i++) {
+            bounds.put(BUCKET_BOUNDS_MS[i]);
+        }
+        json.put("bucket_upper_bounds_ms", bounds);
+
+        JSONObject stages = new JSONObject();
+        for (Stage stage : Stage.values()) {
+            JSONObject stageJson = new JSONObject();
+            stageJson.put("count", getCount(stage));
+            stageJson.put("p50_ms", getPercentileMillis(stage, 50));
+            stageJson.put("p95_ms", getPercentileMillis(stage, 95));
+            stageJson.put("p99_ms", getPercentileMillis(stage, 99));
+            stageJson.put("max_ms", stageMaxMillis.get(stage.ordinal()));
+
+            JSONArray buckets = new JSONArray();
+            int base = stage.ordinal() * BUCKET_COUNT;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets.put(bucketCounts.get(base + i));
+            }
+            stageJson.put("buckets", buckets);
+            stages.put(stage.name().toLowerCase(Locale.US), stageJson);
+        }
+        json.put("stages", stages);
+        return json;
+    }
+
+    private void record(Stage stage, long elapsedMillis) {
+        int bucket = 0;
+        while (elapsedMillis > BUCKET_BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        bucketCounts.incrementAndGet(stage.ordinal() * BUCKET_COUNT + bucket);
+
+        int stageIndex = stage.ordinal();
+        long currentMax;
+        do {
+            currentMax = stageMaxMillis.get(stageIndex);
+        } while (elapsedMillis > currentMax && !stageMaxMillis.compareAndSet(stageIndex, currentMax, elapsedMillis));
+    }
+}
@@ -0,0 +1,190 @@
+package com.smartappgatekeeper.service;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.smartappgatekeeper.utils.Constants;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-package interception state machine
+ * FR-002: System shall display quiz modal within 200ms of app launch attempt
+ * FR-003: System shall prevent app access until quiz is completed successfully
+ *
+ * IDLE -> QUIZ_PENDING -> UNLOCKED (until deadline) -> LOCKED -> QUIZ_PENDING ...
+ *
+ * A single app launch fires a burst of window events. Only the first one in the
+ * coalescing window is admitted; the rest, and every event for a package that is
+ * still unlocked, are dropped before any database or Intent work is done.
+ */
+public class InterceptionStateMachine {
+    private static final String TAG = "InterceptionState";
+    private static volatile InterceptionStateMachine INSTANCE;
+
+    public enum State {
+        IDLE,
+        QUIZ_PENDING,
+        UNLOCKED,
+        LOCKED
+    }
+
+    private static final class PackageState {
+        State state = State.IDLE;
+        long lastAdmittedAt;
+        long unlockedUntil;
+    }
+
+    private final ConcurrentHashMap<String, PackageState> states = new ConcurrentHashMap<>();
+    private volatile long coalesceWindowMillis = Constants.INTERCEPTION_COALESCE_WINDOW_MS;
+
+    // Diagnostics
+    private final AtomicLong admittedEvents = new AtomicLong();
+    private final AtomicLong coalescedEvents = new AtomicLong();
+    private final AtomicLong suppressedPendingEvents = new AtomicLong();
+    private final AtomicLong suppressedUnlockedEvents = new AtomicLong();
+
+    public static InterceptionStateMachine getInstance() {
+        if (INSTANCE == null) {
+            synchronized (InterceptionStateMachine.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new InterceptionStateMachine();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Decide whether a window event for a target app should be handled.
+     * @return true if the caller should run the interception, false if the event was absorbed
+     */
+    public boolean tryBeginInterception(String packageName) {
+        long now = SystemClock.elapsedRealtime();
+        boolean[] admitted = new boolean[1];
+
+        states.compute(packageName, (key, current) -> {
+            PackageState packageState = current != null ? current : new PackageState();
+
+            switch (packageState.state) {
+                case UNLOCKED:
+                    if (now < packageState.unlockedUntil) {
+                        suppressedUnlockedEvents.incrementAndGet();
+                        return packageState;
+                    }
+                    break;
+                case QUIZ_PENDING:
+                    if (now - packageState.lastAdmittedAt < coalesceWindowMillis) {
+                        suppressedPendingEvents.incrementAndGet();
+                        return packageState;
+                    }
+                    break;
+                default:
+                    if (packageState.lastAdmittedAt != 0
+                            && now - packageState.lastAdmittedAt < coalesceWindowMillis) {
+                        coalescedEvents.incrementAndGet();
+                        return packageState;
+                    }
+                    break;
+            }
+
+            packageState.state = State.QUIZ_PENDING;
+            packageState.lastAdmittedAt = now;
+            packageState.unlockedUntil = 0;
+            admittedEvents.incrementAndGet();
+            admitted[0] = true;
+            return packageState;
+        });
+
+        return admitted[0];
+    }
+
+    /**
+     * The policy check declined to show a quiz (disabled app, daily limit reached)
+     */
+    public void onInterceptionRejected(String packageName) {
+        transition(packageName, State.IDLE, 0, false);
+    }
+
+    /**
+     * The quiz was left without being passed. Returning to the target app must
+     * show the quiz again, so the coalescing window is cleared as well.
+     */
+    public void onQuizAbandoned(String packageName) {
+        transition(packageName, State.IDLE, 0, true);
+    }
+
+    /**
+     * The quiz was passed; events are dropped until the unlock window ends
+     */
+    public void onQuizPassed(String packageName, long unlockDurationMillis) {
+        transition(packageName, State.UNLOCKED, SystemClock.elapsedRealtime() + unlockDurationMillis, false);
+    }
+
+    /**
+     * The unlock timer expired and the lock overlay is shown
+     */
+    public void onLocked(String packageName) {
+        transition(packageName, State.LOCKED, 0, true);
+    }
+
+    public State getState(String packageName) {
+        PackageState packageState = packageName != null ? states.get(packageName) : null;
+        return packageState != null ? packageState.state : State.IDLE;
+    }
+
+    public void setCoalesceWindowMillis(long coalesceWindowMillis) {
+        this.coalesceWindowMillis = Math.max(0, coalesceWindowMillis);
+    }
+
+    public long getCoalesceWindowMillis() {
+        return coalesceWindowMillis;
+    }
+
+    public long getAdmittedEvents() {
+        return admittedEvents.get();
+    }
+
+    public long getCoalescedEvents() {
+        return coalescedEvents.get();
+    }
+
+    public long getSuppressedPendingEvents() {
+        return suppressedPendingEvents.get();
+    }
+
+    public long getSuppressedUnlockedEvents() {
+        return suppressedUnlockedEvents.get();
+    }
+
+    /**
+     * Total events absorbed without touching the database or starting an activity
+     */
+    public long getTotalSuppressedEvents() {
+        return coalescedEvents.get() + suppressedPendingEvents.get() + suppressedUnlockedEvents.get();
+    }
+
+    public void resetCounters() {
+        admittedEvents.set(0);
+        coalescedEvents.set(0);
+        suppressedPendingEvents.set(0);
+        suppressedUnlockedEvents.set(0);
+    }
+
+    private void transition(String packageName, State state, long unlockedUntil, boolean clearWindow) {
+        if (packageName == null) {
+            return;
+        }
+        states.compute(packageName, (key, current) -> {
+            PackageState packageState = current != null ? current : new PackageState();
+            packageState.state = state;
+            packageState.unlockedUntil = unlockedUntil;
+            if (clearWindow) {
+                packageState.lastAdmittedAt = 0;
+            }
+            return packageState;
+        });
+        Log.d(TAG, packageName + " -> " + state);
+    }
+}
@@ -0,0 +1,224 @@
+package com.smartappgatekeeper.service;
+
+import android.content.Context;
+import android.graphics.PixelFormat;
+import android.os.Build;
+import android.util.Log;
+import android.view.Gravity;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.WindowManager;
+import android.widget.Button;
+import android.widget.TextView;
+
+import com.smartappgatekeeper.R;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Single reusable lock screen overlay shared by every locked app
+ * FR-013: System shall lock app when timer expires
+ *
+ * layout_app_lock_screen is inflated once and kept while detached. Showing a lock
+ * only rebinds the app name and button targets and attaches the window if needed,
+ * so back-to-back locks neither inflate views nor allocate new windows.
+ * The listener is dropped once nothing is locked, so the singleton never
+ * holds on to a stopped service. All methods must be called on the main thread.
+ */
+public class LockOverlayManager {
+    private static final String TAG = "LockOverlayManager";
+    private static volatile LockOverlayManager INSTANCE;
+
+    /**
+     * Actions triggered from the overlay for the package currently shown
+     */
+    public interface Listener {
+        void onTakeQuiz(String packageName, String appName);
+        void onOpenSettings();
+    }
+
+    private final Context context;
+    private final WindowManager windowManager;
+    private final WindowManager.LayoutParams layoutParams;
+
+    // Locked packages in lock order; the most recent one is displayed
+    private final LinkedHashMap<String, String> lockedApps = new LinkedHashMap<>();
+
+    private View overlayView;
+    private TextView titleText;
+    private TextView messageText;
+    private Button quizButton;
+    private Button settingsButton;
+    private boolean attached = false;
+    private String shownPackage;
+    private Listener listener;
+
+    public static LockOverlayManager getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (LockOverlayManager.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new LockOverlayManager(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private LockOverlayManager(Context context) {
+        this.context = context;
+        this.windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        this.layoutParams = new WindowManager.LayoutParams(
+            WindowManager.LayoutParams.MATCH_PARENT,
+            WindowManager.LayoutParams.MATCH_PARENT,
+            Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                ? WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY
+                : WindowManager.LayoutParams.TYPE_PHONE,
+            WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
+                | WindowManager.LayoutParams.FLAG_NOT_TOUCH_MODAL
+                | WindowManager.LayoutParams.FLAG_WATCH_OUTSIDE_TOUCH,
+            PixelFormat.TRANSLUCENT
+        );
+        this.layoutParams.gravity = Gravity.TOP | Gravity.LEFT;
+    }
+
+    /**
+     * Inflate the overlay ahead of the first lock
+     */
+    public void prepare() {
+        ensureInflated();
+    }
+
+    /**
+     * Lock a package and display the overlay for it
+     */
+    public void show(String packageName, String appName, Listener listener) {
+        if (packageName == null) {
+            return;
+        }
+        ensureInflated();
+        this.listener = listener;
+
+        // Re-locking moves the package to the front
+        lockedApps.remove(packageName);
+        lockedApps.put(packageName, appName != null ? appName : packageName);
+        bind(packageName, lockedApps.get(packageName));
+        attach();
+    }
+
+    /**
+     * Unlock a package; the overlay switches to the next locked package or detaches
+     */
+    public void hide(String packageName) {
+        if (packageName == null || lockedApps.remove(packageName) == null) {
+            return;
+        }
+        if (lockedApps.isEmpty()) {
+            shownPackage = null;
+            listener = null;
+            detach();
+            return;
+        }
+        String current = lastLockedPackage();
+        bind(current, lockedApps.get(current));
+    }
+
+    public void hideAll() {
+        lockedApps.clear();
+        shownPackage = null;
+        listener = null;
+        detach();
+    }
+
+    public boolean isLocked(String packageName) {
+        return lockedApps.containsKey(packageName);
+    }
+
+    public boolean isShowing() {
+        return attached;
+    }
+
+    public int getLockedCount() {
+        return lockedApps.size();
+    }
+
+    private void ensureInflated() {
+        if (overlayView != null) {
+            return;
+        }
+        overlayView = LayoutInflater.from(context).inflate(R.layout.layout_app_lock_screen, null);
+        titleText = overlayView.findViewById(R.id.text_lock_title);
+        messageText = overlayView.findViewById(R.id.text_lock_message);
+        quizButton = overlayView.findViewById(R.id.button_take_quiz);
+        settingsButton = overlayView.findViewById(R.id.button_settings);
+
+        if (titleText != null) {
+            titleText.setText("🔒 App Locked");
+        }
+
+        // Listeners are bound once and read the current package when clicked
+        if (quizButton != null) {
+            quizButton.setOnClickListener(v -> {
+                if (listener != null && shownPackage != null) {
+                    listener.onTakeQuiz(shownPackage, lockedApps.get(shownPackage));
+                }
+            });
+        }
+        if (settingsButton != null) {
+            settingsButton.setOnClickListener(v -> {
+                if (listener != null) {
+                    listener.onOpenSettings();
+                }
+            });
+        }
+    }
+
+    private void bind(String packageName, String appName) {
+        if (messageText != null) {
+            messageText.setText("Time's up! " + appName + " is now locked.\n\nComplete a quiz to unlock the app and continue using it.");
+        }
+        shownPackage = packageName;
+    }
+
+    private void attach() {
+        if (attached) {
+            return;
+        }
+        try {
+            windowManager.addView(overlayView, layoutParams);
+            attached = true;
+            Log.d(TAG, "Lock overlay attached");
+        } catch (Exception e) {
+            Log.e(TAG, "Error showing lock overlay", e);
+        }
+    }
+
+    private void detach() {
+        if (!attached) {
+            return;
+        }
+        try {
+            windowManager.removeView(overlayView);
+            Log.d(TAG, "Lock overlay detached");
+        } catch (Exception e) {
+            Log.e(TAG, "Error removing lock overlay", e);
+        }
+        attached = false;
+    }
+
+    private String lastLockedPackage() {
+        String last = null;
+        for (String packageName : lockedApps.keySet()) {
+            last = packageName;
+        }
+        return last;
+    }
+
+    /**
+     * Packages currently locked, oldest first
+     */
+    public List<String> getLockedPackages() {
+        return new ArrayList<>(lockedApps.keySet());
+    }
+}
@@ -1,33 +1,113 @@
 package com.smartappgatekeeper.service;
 
+import android.content.Context;
+import android.util.Log;
+
 import com.smartappgatekeeper.model.Question;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
 /**
  * Service for managing comprehensive question bank
  * Provides questions across multiple topics and difficulty levels
+ *
+ * The bank is a CompactQuestionBank mapped from a downloaded file or the
+ * bundled asset, so startup does not grow with the bank; the questions built
+ * in code below are only used when neither can be opened. The downloaded file
+ * is a snapshot of the Room questions table, rewritten by QuestionSyncWorker
+ * after each pull that changed it. Each call reads the index once, so a
+ * swap during a call cannot mix positions of two banks.
  */
 public class QuestionBankService {
+    private static final String TAG = "QuestionBankService";
     
     private static QuestionBankService instance;
-    private List<Question> allQuestions;
+    private List<Question> allQuestions; // built-in questions, only while building
+    private volatile QuestionIndex index; // immutable; replaced whole by installQuestions
     private Random random;
     
-    private QuestionBankService() {
+    private QuestionBankService(Context context) {
         random = new Random();
-        allQuestions = new ArrayList<>();
-        initializeQuestionBank();
+        index = openCompactBank(context);
+        if (index == null) {
+            allQuestions = new ArrayList<>();
+            initializeQuestionBank();
+            index = QuestionIndex.build(Collections.unmodifiableList(allQuestions));
+            allQuestions = null;
+        }
     }
     
-    public static QuestionBankService getInstance() {
+    public static synchronized QuestionBankService getInstance(Context context) {
         if (instance == null) {
-            instance = new QuestionBankService();
+            instance = new QuestionBankService(context.getApplicationContext());
         }
         return instance;
     }
     
+    /**
+     * Replace the bank with synced questions: write them as the downloaded
+     * compact bank, then map it. Calls in progress finish on the previous bank.
+     */
+    public void installQuestions(Context context, List<Question> questions) throws IOException {
+        File target = downloadedBankFile(context);
+        File temp = new File(target.getPath() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp)) {
+            OutputStream output = new BufferedOutputStream(file);
+            CompactQuestionBank.write(questions, output);
+            output.flush();
+            file.getFD().sync();
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Could not replace " + target);
+        }
+        index = CompactQuestionBank.open(target);
+        Log.i(TAG, "Installed question bank with " + questions.size() + " questions");
+    }
+    
+    public static boolean hasDownloadedBank(Context context) {
+        return downloadedBankFile(context).exists();
+    }
+    
+    private static File downloadedBankFile(Context context) {
+        return new File(context.getFilesDir(), CompactQuestionBank.FILE_NAME);
+    }
+    
+    /**
+     * Map the downloaded bank, else the bundled asset
+     * @return null when neither is available
+     */
+    private static QuestionIndex openCompactBank(Context context) {
+        if (context == null) {
+            return null;
+        }
+        File downloaded = downloadedBankFile(context);
+        if (downloaded.exists()) {
+            try {
+                return CompactQuestionBank.open(downloaded);
+            } catch (IOException e) {
+                // E.g. an older format; without the file the next sync writes it again
+                Log.w(TAG, "Downloaded question bank unreadable, using bundled bank", e);
+                downloaded.delete();
+            }
+        }
+        try {
+            return CompactQuestionBank.open(context.getAssets(), CompactQuestionBank.FILE_NAME);
+        } catch (IOException e) {
+            Log.w(TAG, "No bundled question bank, using built-in questions", e);
+            return null;
+        }
+    }
+    
     /**
      * Initialize comprehensive question bank
      */
@@ -316,80 +396,147 @@ public class QuestionBankService {
      * Get questions by topic
      */
     public List<Question> getQuestionsByTopic(String topic) {
-        List<Question> topicQuestions = new ArrayList<>();
-        for (Question question : allQuestions) {
-            if (question.getTopic().equals(topic)) {
-                topicQuestions.add(question);
-            }
-        }
-        return topicQuestions;
+        QuestionIndex index = this.index;
+        return index.toList(index.topicPositions(topic));
     }
     
     /**
      * Get questions by difficulty
      */
     public List<Question> getQuestionsByDifficulty(String difficulty) {
-        List<Question> difficultyQuestions = new ArrayList<>();
-        for (Question question : allQuestions) {
-            if (question.getDifficulty().equals(difficulty)) {
-                difficultyQuestions.add(question);
-            }
-        }
-        return difficultyQuestions;
+        QuestionIndex index = this.index;
+        return index.toList(index.difficultyPositions(difficulty));
+    }
+    
+    /**
+     * Get questions of one topic and difficulty
+     */
+    public List<Question> getQuestionsByTopicAndDifficulty(String topic, String difficulty) {
+        QuestionIndex index = this.index;
+        return index.toList(index.cellPositions(topic, difficulty));
     }
     
     /**
      * Get random questions
      */
     public List<Question> getRandomQuestions(int count) {
-        List<Question> randomQuestions = new ArrayList<>();
-        List<Question> availableQuestions = new ArrayList<>(allQuestions);
-        
-        for (int i = 0; i < count && !availableQuestions.isEmpty(); i++) {
-            int randomIndex = random.nextInt(availableQuestions.size());
-            randomQuestions.add(availableQuestions.remove(randomIndex));
+        return sample(index, null, count, random);
+    }
+    
+    /**
+     * Get random questions reproducibly; the same seed gives the same quiz
+     */
+    public List<Question> getRandomQuestions(int count, long seed) {
+        return sample(index, null, count, new Random(seed));
+    }
+    
+    /**
+     * Get up to count random questions of a topic and/or difficulty, in random order
+     * @param topic null for any topic
+     * @param difficulty null for any difficulty
+     */
+    public List<Question> getRandomQuestions(int count, String topic, String difficulty) {
+        QuestionIndex index = this.index;
+        return sample(index, filter(index, topic, difficulty), count, random);
+    }
+    
+    public List<Question> getRandomQuestions(int count, String topic, String difficulty, long seed) {
+        QuestionIndex index = this.index;
+        return sample(index, filter(index, topic, difficulty), count, new Random(seed));
+    }
+    
+    /**
+     * Get random questions for an unlock quiz
+     * Falls back to any difficulty, then to any topic, when the filtered pool is too small.
+     * @param topics topics to draw from; null or empty means all topics
+     */
+    public List<Question> getQuestionsForUnlock(int count, String difficulty, Collection<String> topics) {
+        QuestionIndex index = this.index;
+        Collection<String> pool = topics != null && !topics.isEmpty() ? topics : index.getTopics();
+        IntBuffer candidates = index.positionsFor(pool, difficulty);
+        if (candidates.limit() < count && difficulty != null) {
+            candidates = index.positionsFor(pool, null);
         }
-        
-        return randomQuestions;
+        return sample(index, candidates.limit() >= count ? candidates : null, count, random);
+    }
+    
+    private static IntBuffer filter(QuestionIndex index, String topic, String difficulty) {
+        if (topic != null) {
+            return difficulty != null ? index.cellPositions(topic, difficulty) : index.topicPositions(topic);
+        }
+        return difficulty != null ? index.difficultyPositions(difficulty) : null;
     }
     
     /**
-     * Get all available topics
+     * Draw from index positions (null for the whole bank) without copying the bank
      */
-    public List<String> getAvailableTopics() {
-        List<String> topics = new ArrayList<>();
-        for (Question question : allQuestions) {
-            if (!topics.contains(question.getTopic())) {
-                topics.add(question.getTopic());
+    private static List<Question> sample(QuestionIndex index, IntBuffer candidates, int count, Random random) {
+        return index.toList(index.sample(candidates, count, random));
+    }
+    
+    /**
+     * Stable 64-bit key of a question (FNV-1a of its text), the same in every bank it appears in
+     */
+    public static long keyOf(Question question) {
+        String text = question.getQuestionText();
+        long hash = 0xcbf29ce484222325L;
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                hash ^= text.charAt(i);
+                hash *= 0x100000001b3L;
             }
         }
-        return topics;
+        return hash;
+    }
+    
+    /**
+     * Get the question with a keyOf key, or null if the current bank has none
+     */
+    public Question getQuestionByKey(long key) {
+        QuestionIndex index = this.index;
+        int position = index.positionOf(key);
+        return position >= 0 ? index.get(position) : null;
+    }
+    
+    /**
+     * Whether the current bank has a question with a keyOf key; reads no question
+     */
+    public boolean containsKey(long key) {
+        return index.positionOf(key) >= 0;
+    }
+    
+    /**
+     * Get all available topics, in bank order
+     */
+    public List<String> getAvailableTopics() {
+        return new ArrayList<>(index.getTopics());
     }
     
     /**
      * Get all questions
      */
     public List<Question> getAllQuestions() {
-        return new ArrayList<>(allQuestions);
+        return new ArrayList<>(index.getQuestions());
     }
     
     /**
      * Get question count by topic
      */
     public int getQuestionCountByTopic(String topic) {
-        int count = 0;
-        for (Question question : allQuestions) {
-            if (question.getTopic().equals(topic)) {
-                count++;
-            }
-        }
-        return count;
+        return index.countByTopic(topic);
+    }
+    
+    /**
+     * Get question count for one topic and difficulty
+     */
+    public int getQuestionCount(String topic, String difficulty) {
+        return index.countByTopicAndDifficulty(topic, difficulty);
     }
     
     /**
      * Get total question count
      */
     public int getTotalQuestionCount() {
-        return allQuestions.size();
+        return index.size();
     }
 }
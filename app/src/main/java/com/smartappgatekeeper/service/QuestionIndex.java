@@ -0,0 +1,353 @@
+package com.smartappgatekeeper.service;
+
+import com.smartappgatekeeper.model.Question;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Immutable topic and difficulty index over a fixed list of questions
+ * FR-006: System shall generate questions from selected topics
+ *
+ * Built once in two passes: the first assigns dense ids to topics and
+ * difficulties and counts each topic x difficulty cell, the second fills
+ * exact-size position arrays. Lookups are then O(1) for counts and
+ * O(result) for question lists. Topics and difficulties keep first-seen order.
+ * Position lists are IntBuffers so a CompactQuestionBank can hand over views
+ * of its mapped file instead of arrays; only absolute get(int) is used on them.
+ * Question keys are a sorted key list with a parallel position list, searched
+ * by bisection, so a key lookup never decodes a question.
+ */
+final class QuestionIndex {
+
+    private static final IntBuffer EMPTY = IntBuffer.allocate(0);
+
+    private final List<Question> questions;
+    private final List<String> topics;
+    private final List<String> difficulties;
+    private final Map<String, Integer> topicIds;
+    private final Map<String, Integer> difficultyIds;
+
+    // QuestionBankService.keyOf keys ascending (ties by position), and their positions
+    private final LongBuffer sortedKeys;
+    private final IntBuffer keyPositions;
+
+    // Positions into questions, ascending
+    private final IntBuffer[] byTopic;
+    private final IntBuffer[] byDifficulty;
+    private final IntBuffer[][] byTopicAndDifficulty;
+
+    /**
+     * @param topics topic names; byTopic and the first grid dimension follow this order
+     * @param difficulties difficulty names; byDifficulty and the second grid dimension follow this order
+     * @param sortedKeys every question's key, ascending; keyPositions holds the matching positions
+     */
+    QuestionIndex(List<Question> questions, List<String> topics, List<String> difficulties,
+                  IntBuffer[] byTopic, IntBuffer[] byDifficulty, IntBuffer[][] byTopicAndDifficulty,
+                  LongBuffer sortedKeys, IntBuffer keyPositions) {
+        this.questions = questions;
+        this.topics = Collections.unmodifiableList(topics);
+        this.difficulties = Collections.unmodifiableList(difficulties);
+        this.topicIds = idsOf(topics);
+        this.difficultyIds = idsOf(difficulties);
+        this.byTopic = byTopic;
+        this.byDifficulty = byDifficulty;
+        this.byTopicAndDifficulty = byTopicAndDifficulty;
+        this.sortedKeys = sortedKeys;
+        this.keyPositions = keyPositions;
+    }
+
+    /**
+     * @param questions the bank; must not change afterwards
+     */
+    static QuestionIndex build(List<Question> questions) {
+        int size = questions.size();
+        Map<String, Integer> topicIds = new HashMap<>();
+        Map<String, Integer> difficultyIds = new HashMap<>();
+        List<String> topics = new ArrayList<>();
+        List<String> difficulties = new ArrayList<>();
+        int[] topicOf = new int[size];
+        int[] difficultyOf = new int[size];
+        long[] keys = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            Question question = questions.get(i);
+            topicOf[i] = idOf(question.getTopic(), topicIds, topics);
+            difficultyOf[i] = idOf(question.getDifficulty(), difficultyIds, difficulties);
+            keys[i] = QuestionBankService.keyOf(question);
+        }
+
+        int topicCount = topics.size();
+        int difficultyCount = difficulties.size();
+        int[][] cellCounts = new int[topicCount][difficultyCount];
+        for (int i = 0; i < size; i++) {
+            cellCounts[topicOf[i]][difficultyOf[i]]++;
+        }
+
+        int[][][] grid = new int[topicCount][difficultyCount][];
+        int[][] byTopic = new int[topicCount][];
+        int[][] byDifficulty = new int[difficultyCount][];
+        int[] difficultyTotals = new int[difficultyCount];
+        for (int t = 0; t < topicCount; t++) {
+            int topicTotal = 0;
+            for (int d = 0; d < difficultyCount; d++) {
+                grid[t][d] = new int[cellCounts[t][d]];
+                topicTotal += cellCounts[t][d];
+                difficultyTotals[d] += cellCounts[t][d];
+            }
+            byTopic[t] = new int[topicTotal];
+        }
+        for (int d = 0; d < difficultyCount; d++) {
+            byDifficulty[d] = new int[difficultyTotals[d]];
+        }
+
+        int[][] cellFill = new int[topicCount][difficultyCount];
+        int[] topicFill = new int[topicCount];
+        int[] difficultyFill = new int[difficultyCount];
+        for (int i = 0; i < size; i++) {
+            int t = topicOf[i];
+            int d = difficultyOf[i];
+            grid[t][d][cellFill[t][d]++] = i;
+            byTopic[t][topicFill[t]++] = i;
+            byDifficulty[d][difficultyFill[d]++] = i;
+        }
+
+        IntBuffer[][] gridBuffers = new IntBuffer[topicCount][difficultyCount];
+        IntBuffer[] topicBuffers = new IntBuffer[topicCount];
+        IntBuffer[] difficultyBuffers = new IntBuffer[difficultyCount];
+        for (int t = 0; t < topicCount; t++) {
+            topicBuffers[t] = IntBuffer.wrap(byTopic[t]);
+            for (int d = 0; d < difficultyCount; d++) {
+                gridBuffers[t][d] = IntBuffer.wrap(grid[t][d]);
+            }
+        }
+        for (int d = 0; d < difficultyCount; d++) {
+            difficultyBuffers[d] = IntBuffer.wrap(byDifficulty[d]);
+        }
+        Integer[] byKey = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            byKey[i] = i;
+        }
+        Arrays.sort(byKey, (a, b) -> keys[a] != keys[b] ? Long.compare(keys[a], keys[b]) : Integer.compare(a, b));
+        long[] sortedKeys = new long[size];
+        int[] keyPositions = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedKeys[i] = keys[byKey[i]];
+            keyPositions[i] = byKey[i];
+        }
+        return new QuestionIndex(questions, topics, difficulties, topicBuffers, difficultyBuffers, gridBuffers,
+            LongBuffer.wrap(sortedKeys), IntBuffer.wrap(keyPositions));
+    }
+
+    private static Map<String, Integer> idsOf(List<String> names) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            ids.put(names.get(i), i);
+        }
+        return ids;
+    }
+
+    private static int idOf(String key, Map<String, Integer> ids, List<String> names) {
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = names.size();
+            ids.put(key, id);
+            names.add(key);
+        }
+        return id;
+    }
+
+    int size() {
+        return questions.size();
+    }
+
+    /**
+     * The indexed questions, in bank order; may materialize lazily
+     */
+    List<Question> getQuestions() {
+        return questions;
+    }
+
+    Question get(int position) {
+        return questions.get(position);
+    }
+
+    /**
+     * Position of the question with a QuestionBankService.keyOf key, or -1.
+     * O(log n) over the key list; no question is read. Duplicate keys give the first position.
+     */
+    int positionOf(long key) {
+        int low = 0;
+        int high = sortedKeys.limit();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedKeys.get(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < sortedKeys.limit() && sortedKeys.get(low) == key ? keyPositions.get(low) : -1;
+    }
+
+    /**
+     * Key list for CompactQuestionBank.write, ascending. Do not modify.
+     */
+    LongBuffer sortedKeys() {
+        return sortedKeys;
+    }
+
+    IntBuffer keyPositions() {
+        return keyPositions;
+    }
+
+    List<String> getTopics() {
+        return topics;
+    }
+
+    List<String> getDifficulties() {
+        return difficulties;
+    }
+
+    /**
+     * Positions of a topic's questions; empty for unknown topics. Do not modify.
+     */
+    IntBuffer topicPositions(String topic) {
+        Integer t = topicIds.get(topic);
+        return t != null ? byTopic[t] : EMPTY;
+    }
+
+    IntBuffer difficultyPositions(String difficulty) {
+        Integer d = difficultyIds.get(difficulty);
+        return d != null ? byDifficulty[d] : EMPTY;
+    }
+
+    IntBuffer cellPositions(String topic, String difficulty) {
+        Integer t = topicIds.get(topic);
+        Integer d = difficultyIds.get(difficulty);
+        return t != null && d != null ? byTopicAndDifficulty[t][d] : EMPTY;
+    }
+
+    int countByTopic(String topic) {
+        return topicPositions(topic).limit();
+    }
+
+    int countByDifficulty(String difficulty) {
+        return difficultyPositions(difficulty).limit();
+    }
+
+    int countByTopicAndDifficulty(String topic, String difficulty) {
+        return cellPositions(topic, difficulty).limit();
+    }
+
+    /**
+     * Concatenated positions of several distinct topics (optionally one difficulty), in bank order per topic
+     * @param difficulty null for any difficulty
+     */
+    IntBuffer positionsFor(Iterable<String> topicNames, String difficulty) {
+        int total = 0;
+        List<IntBuffer> parts = new ArrayList<>();
+        boolean[] seen = new boolean[topics.size()];
+        for (String topic : topicNames) {
+            Integer t = topicIds.get(topic);
+            if (t == null || seen[t]) {
+                continue;
+            }
+            seen[t] = true;
+            IntBuffer part = difficulty != null ? cellPositions(topic, difficulty) : byTopic[t];
+            if (part.limit() > 0) {
+                parts.add(part);
+                total += part.limit();
+            }
+        }
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        int[] positions = new int[total];
+        int offset = 0;
+        for (IntBuffer part : parts) {
+            for (int i = 0; i < part.limit(); i++) {
+                positions[offset++] = part.get(i);
+            }
+        }
+        return IntBuffer.wrap(positions);
+    }
+
+    /**
+     * Up to k distinct positions drawn uniformly from candidates, in random order
+     * Sparse draws use Floyd's algorithm, O(k) time and space; dense draws use a
+     * partial Fisher-Yates over an index array. The candidates are never copied.
+     * @param candidates positions to draw from, or null for the whole bank
+     */
+    int[] sample(IntBuffer candidates, int k, Random random) {
+        int n = candidates != null ? candidates.limit() : questions.size();
+        k = Math.max(0, Math.min(k, n));
+        int[] picked;
+        if (k * 2 <= n) {
+            picked = new int[k];
+            Set<Integer> seen = new HashSet<>(k * 2);
+            int m = 0;
+            for (int j = n - k; j < n; j++) {
+                int t = random.nextInt(j + 1);
+                if (!seen.add(t)) {
+                    seen.add(j);
+                    t = j;
+                }
+                picked[m++] = t;
+            }
+            // Floyd fixes which items are drawn, not their order
+            for (int i = k - 1; i > 0; i--) {
+                swap(picked, i, random.nextInt(i + 1));
+            }
+        } else {
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            for (int i = 0; i < k; i++) {
+                swap(order, i, i + random.nextInt(n - i));
+            }
+            picked = k == n ? order : Arrays.copyOf(order, k);
+        }
+        if (candidates != null) {
+            for (int i = 0; i < k; i++) {
+                picked[i] = candidates.get(picked[i]);
+            }
+        }
+        return picked;
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    /**
+     * Materialize positions as a new list, O(result)
+     */
+    List<Question> toList(int[] positions) {
+        Question[] result = new Question[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            result[i] = questions.get(positions[i]);
+        }
+        return new ArrayList<>(Arrays.asList(result));
+    }
+
+    List<Question> toList(IntBuffer positions) {
+        Question[] result = new Question[positions.limit()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = questions.get(positions.get(i));
+        }
+        return new ArrayList<>(Arrays.asList(result));
+    }
+}
@@ -0,0 +1,138 @@
+package com.smartappgatekeeper.service;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.smartappgatekeeper.database.entities.QuestionRecord;
+import com.smartappgatekeeper.model.Question;
+import com.smartappgatekeeper.repository.AppRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pull sync of the Supabase questions table into Room
+ * FR-006: System shall generate questions from selected topics
+ *
+ * Only rows changed since the stored (updated_at, id) high-water mark are
+ * fetched, a page at a time; each page is committed before the mark moves
+ * past it, so an interrupted run resumes where it stopped and re-applying a
+ * page is harmless. Rows removed on the server (rather than deactivated with
+ * is_active) are not detected, nor is a row whose updated_at is older than
+ * the mark when its transaction commits. A dirty flag, set before the first
+ * row is stored and cleared only after the compact bank QuestionBankService
+ * maps has been rewritten from the active questions, makes a failed or
+ * interrupted install retry even when the next pull finds nothing new.
+ */
+public class QuestionSyncWorker extends Worker {
+    private static final String TAG = "QuestionSyncWorker";
+    private static final String WORK_NAME = "question_sync";
+
+    static final int PAGE_SIZE = 500;
+
+    private static final String PREFS_NAME = "question_sync";
+    private static final String PREF_UPDATED_AT = "high_water_updated_at";
+    private static final String PREF_ID = "high_water_id";
+    private static final String PREF_BANK_DIRTY = "bank_dirty";
+
+    public QuestionSyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Enqueue the periodic sync; keeps an already scheduled one
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+            .setRequiredNetworkType(NetworkType.CONNECTED)
+            .setRequiresBatteryNotLow(true)
+            .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                QuestionSyncWorker.class, 12, TimeUnit.HOURS)
+            .setConstraints(constraints)
+            .build();
+        WorkManager.getInstance(context)
+            .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        try {
+            AppRepository repository = AppRepository.getInstance((Application) context);
+            SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+            int pulled = pull(repository, SupabaseDatabaseService.getInstance(context), preferences);
+
+            if (preferences.getBoolean(PREF_BANK_DIRTY, false) || !QuestionBankService.hasDownloadedBank(context)) {
+                List<QuestionRecord> rows = repository.getActiveQuestions().get();
+                // An empty table keeps the bundled bank
+                if (!rows.isEmpty()) {
+                    List<Question> questions = new ArrayList<>(rows.size());
+                    for (QuestionRecord row : rows) {
+                        questions.add(row.toQuestion());
+                    }
+                    QuestionBankService.getInstance(context).installQuestions(context, questions);
+                }
+                preferences.edit().putBoolean(PREF_BANK_DIRTY, false).apply();
+            }
+            Log.i(TAG, "Question sync complete, " + pulled + " rows changed");
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Question sync failed", e);
+            return Result.retry();
+        }
+    }
+
+    /**
+     * Fetch and store every page past the high-water mark
+     * @return rows stored
+     */
+    private int pull(AppRepository repository, SupabaseDatabaseService remote,
+                     SharedPreferences preferences) throws Exception {
+        String updatedAt = preferences.getString(PREF_UPDATED_AT, null);
+        String id = preferences.getString(PREF_ID, null);
+        int pulled = 0;
+        List<QuestionRecord> page;
+        do {
+            if (isStopped()) {
+                break;
+            }
+            page = remote.fetchQuestionsPage(updatedAt, id, PAGE_SIZE);
+            if (page.isEmpty()) {
+                break;
+            }
+            if (pulled == 0) {
+                // Persisted before any row lands, so a crash after the upsert still rebuilds the bank
+                preferences.edit().putBoolean(PREF_BANK_DIRTY, true).commit();
+            }
+            repository.upsertQuestions(page).get();
+            pulled += page.size();
+
+            QuestionRecord last = page.get(page.size() - 1);
+            if (last.updatedAt == null) {
+                // Rows without updated_at sort last and cannot be paged past
+                break;
+            }
+            updatedAt = last.updatedAt;
+            id = last.id;
+            preferences.edit()
+                .putString(PREF_UPDATED_AT, updatedAt)
+                .putString(PREF_ID, id)
+                .apply();
+        } while (page.size() == PAGE_SIZE);
+        return pulled;
+    }
+}
@@ -0,0 +1,175 @@
+package com.smartappgatekeeper.service;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.smartappgatekeeper.database.entities.TargetApp;
+import com.smartappgatekeeper.model.Question;
+import com.smartappgatekeeper.model.QuizSession;
+
+import org.json.JSONArray;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pool of pre-built quiz sessions, one ready per enabled target app
+ * FR-002: System shall display quiz modal within 200ms of app launch attempt
+ *
+ * Sessions are built on a background thread honoring the app's questionsPerUnlock,
+ * difficultyLevel and selectedTopics. Interception takes a ready session in O(1)
+ * and passes its ID to QuizActivity; the pool then rebuilds a replacement.
+ */
+public class ReadyQuizPool {
+    private static final String TAG = "ReadyQuizPool";
+    private static volatile ReadyQuizPool INSTANCE;
+
+    public static final String EXTRA_QUIZ_SESSION_ID = "quiz_session_id";
+    
+    // Sessions handed out but never claimed (e.g. the activity failed to start)
+    private static final int MAX_UNCLAIMED_SESSIONS = 32;
+
+    private final Context context;
+    private final ExecutorService builder = Executors.newSingleThreadExecutor();
+    private final ConcurrentHashMap<String, TargetApp> configs = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, QuizSession> ready = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, QuizSession> handedOut = new ConcurrentHashMap<>();
+    private volatile ReviewScheduler reviewScheduler;
+
+    public static ReadyQuizPool getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ReadyQuizPool.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ReadyQuizPool(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private ReadyQuizPool(Context context) {
+        // Lets the bank map its compact file even if the pool opens it first
+        this.context = context;
+    }
+
+    /**
+     * Pick questions through spaced repetition instead of purely at random
+     */
+    public void setReviewScheduler(ReviewScheduler reviewScheduler) {
+        this.reviewScheduler = reviewScheduler;
+    }
+    
+    /**
+     * Sync the pool with the current enabled target apps.
+     * Sessions whose quiz settings changed are rebuilt; removed apps are dropped.
+     */
+    public void prepare(List<TargetApp> targetApps) {
+        builder.execute(() -> {
+            Set<String> current = new HashSet<>();
+            if (targetApps != null) {
+                for (TargetApp targetApp : targetApps) {
+                    if (targetApp == null || targetApp.packageName == null || !targetApp.isEnabled) {
+                        continue;
+                    }
+                    current.add(targetApp.packageName);
+                    TargetApp previous = configs.put(targetApp.packageName, new TargetApp(targetApp));
+                    if (previous == null || !sameQuizSettings(previous, targetApp)
+                            || !ready.containsKey(targetApp.packageName)) {
+                        fill(targetApp.packageName);
+                    }
+                }
+            }
+            configs.keySet().retainAll(current);
+            ready.keySet().retainAll(current);
+        });
+    }
+
+    /**
+     * Take the ready session for a package without blocking.
+     * @return session ID to pass to QuizActivity, or null if none is ready yet
+     */
+    public String takeSessionId(String packageName) {
+        QuizSession session = ready.remove(packageName);
+        if (session == null) {
+            return null;
+        }
+        if (handedOut.size() >= MAX_UNCLAIMED_SESSIONS) {
+            handedOut.clear();
+        }
+        handedOut.put(session.getSessionId(), session);
+        builder.execute(() -> fill(packageName));
+        return session.getSessionId();
+    }
+
+    /**
+     * Claim a session handed out by takeSessionId. Each session can be claimed once.
+     */
+    public QuizSession claim(String sessionId) {
+        return sessionId != null ? handedOut.remove(sessionId) : null;
+    }
+
+    public int getReadyCount() {
+        return ready.size();
+    }
+
+    /**
+     * Build a session for a package; runs on the builder thread only
+     */
+    private void fill(String packageName) {
+        TargetApp config = configs.get(packageName);
+        if (config == null) {
+            return;
+        }
+        try {
+            int count = Math.max(1, config.questionsPerUnlock);
+            List<String> topics = parseTopics(config.selectedTopics);
+            ReviewScheduler scheduler = reviewScheduler;
+            List<Question> questions = scheduler != null
+                ? scheduler.selectForUnlock(count, config.difficultyLevel, topics)
+                : QuestionBankService.getInstance(context).getQuestionsForUnlock(count, config.difficultyLevel, topics);
+            ready.put(packageName, new QuizSession(UUID.randomUUID().toString(), packageName,
+                config.difficultyLevel, questions));
+        } catch (Exception e) {
+            Log.e(TAG, "Error building quiz session for " + packageName, e);
+        }
+    }
+
+    private static boolean sameQuizSettings(TargetApp a, TargetApp b) {
+        return a.questionsPerUnlock == b.questionsPerUnlock
+            && equalsNullable(a.difficultyLevel, b.difficultyLevel)
+            && equalsNullable(a.selectedTopics, b.selectedTopics);
+    }
+
+    private static boolean equalsNullable(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * selectedTopics is stored as a JSON array; plain comma separated values are accepted too
+     */
+    private static List<String> parseTopics(String selectedTopics) {
+        List<String> topics = new ArrayList<>();
+        if (selectedTopics == null || selectedTopics.trim().isEmpty()) {
+            return topics;
+        }
+        try {
+            JSONArray array = new JSONArray(selectedTopics);
+            for (int i = 0; i < array.length(); i++) {
+                topics.add(array.getString(i));
+            }
+        } catch (Exception e) {
+            for (String topic : selectedTopics.split(",")) {
+                if (!topic.trim().isEmpty()) {
+                    topics.add(topic.trim());
+                }
+            }
+        }
+        return topics;
+    }
+}
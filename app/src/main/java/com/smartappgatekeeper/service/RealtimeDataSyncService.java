@@ -121,5 +121,6 @@ public class RealtimeDataSyncService extends Service {
         if (syncRunnable != null) {
             handler.removeCallbacks(syncRunnable);
         }
+        repository.flushUsageEvents();
     }
 }
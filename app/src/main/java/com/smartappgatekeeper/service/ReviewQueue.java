@@ -0,0 +1,289 @@
+package com.smartappgatekeeper.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * SM-2 review state and due-time queues of answered questions
+ * FR-006: System shall generate questions from selected topics
+ *
+ * State lives in parallel primitive arrays, one slot per question ever
+ * answered. Each (topic, difficulty) cell keeps an indexed binary min-heap of
+ * its slots by due time, so an answer reschedules its question in O(log n)
+ * and the most overdue questions of a pool come from merging the heads of
+ * the pool's cells. Questions that selection finds missing from the bank
+ * are parked: their state is kept but they leave the heaps until answered
+ * again, so they cannot crowd out real reviews. Not thread-safe;
+ * ReviewScheduler serializes access.
+ */
+final class ReviewQueue {
+
+    static final float INITIAL_EASE = 2.5f;
+    static final float MIN_EASE = 1.3f;
+    static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int PARKED = -1;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] dueAt = new long[INITIAL_CAPACITY];
+    private int[] intervalDays = new int[INITIAL_CAPACITY];
+    private float[] ease = new float[INITIAL_CAPACITY];
+    private int[] repetitions = new int[INITIAL_CAPACITY];
+    private int[] cellOf = new int[INITIAL_CAPACITY];
+    private int[] heapPosition = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final Map<String, Integer> cellIds = new HashMap<>();
+    private final List<String> cellTopics = new ArrayList<>();
+    private final List<String> cellDifficulties = new ArrayList<>();
+    private final List<Heap> heaps = new ArrayList<>();
+
+    /**
+     * Slots of one cell ordered by due time, ties by slot
+     */
+    private final class Heap {
+        int[] items = new int[16];
+        int size = 0;
+
+        void push(int slot) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size] = slot;
+            heapPosition[slot] = size;
+            siftUp(size++);
+        }
+
+        int pop() {
+            int head = items[0];
+            remove(0);
+            return head;
+        }
+
+        void remove(int position) {
+            int last = items[--size];
+            if (position < size) {
+                items[position] = last;
+                heapPosition[last] = position;
+                siftDown(position);
+                siftUp(heapPosition[last]);
+            }
+        }
+
+        void update(int slot) {
+            int position = heapPosition[slot];
+            siftUp(position);
+            siftDown(heapPosition[slot]);
+        }
+
+        long headDueAt() {
+            return dueAt[items[0]];
+        }
+
+        private void siftUp(int position) {
+            int slot = items[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (!before(slot, items[parent])) {
+                    break;
+                }
+                place(items[parent], position);
+                position = parent;
+            }
+            place(slot, position);
+        }
+
+        private void siftDown(int position) {
+            int slot = items[position];
+            int half = size >>> 1;
+            while (position < half) {
+                int child = 2 * position + 1;
+                if (child + 1 < size && before(items[child + 1], items[child])) {
+                    child++;
+                }
+                if (!before(items[child], slot)) {
+                    break;
+                }
+                place(items[child], position);
+                position = child;
+            }
+            place(slot, position);
+        }
+
+        private void place(int slot, int position) {
+            items[position] = slot;
+            heapPosition[slot] = position;
+        }
+    }
+
+    private boolean before(int a, int b) {
+        return dueAt[a] != dueAt[b] ? dueAt[a] < dueAt[b] : a < b;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Restore a persisted review; O(log n)
+     */
+    void load(long key, String topic, String difficulty, long due, int interval, float easeFactor, int reps) {
+        int slot = slotFor(key, topic, difficulty);
+        dueAt[slot] = due;
+        intervalDays[slot] = interval;
+        ease[slot] = easeFactor;
+        repetitions[slot] = reps;
+        heaps.get(cellOf[slot]).update(slot);
+    }
+
+    /**
+     * Apply one SM-2 step and reschedule the question; O(log n)
+     * @param quality 0-5; 3 or more counts as recalled
+     * @return the question's slot, for reading back its new state
+     */
+    int recordAnswer(long key, String topic, String difficulty, int quality, long now) {
+        int slot = slotFor(key, topic, difficulty);
+        if (quality >= 3) {
+            int reps = repetitions[slot];
+            intervalDays[slot] = reps == 0 ? 1
+                : reps == 1 ? 6
+                : Math.max(1, Math.round(intervalDays[slot] * ease[slot]));
+            repetitions[slot] = reps + 1;
+        } else {
+            repetitions[slot] = 0;
+            intervalDays[slot] = 1;
+        }
+        int miss = 5 - quality;
+        ease[slot] = Math.max(MIN_EASE, ease[slot] + 0.1f - miss * (0.08f + miss * 0.02f));
+        dueAt[slot] = now + intervalDays[slot] * DAY_MILLIS;
+        heaps.get(cellOf[slot]).update(slot);
+        return slot;
+    }
+
+    /**
+     * Up to k available questions due at or before now, most overdue first.
+     * Due questions that are not available are parked; the rest of the queue
+     * is left unchanged. O((k + parked) * (cells + log n))
+     * @param topics null or empty for every topic
+     * @param difficulty null for every difficulty
+     * @param available whether a key still has a question to show
+     */
+    long[] selectDue(Collection<String> topics, String difficulty, int k, long now, LongPredicate available) {
+        List<Heap> pool = new ArrayList<>();
+        for (int cell = 0; cell < heaps.size(); cell++) {
+            if ((topics == null || topics.isEmpty() || topics.contains(cellTopics.get(cell)))
+                    && (difficulty == null || difficulty.equals(cellDifficulties.get(cell)))) {
+                pool.add(heaps.get(cell));
+            }
+        }
+
+        int[] popped = new int[Math.max(0, k)];
+        int count = 0;
+        while (count < k) {
+            Heap next = null;
+            for (Heap heap : pool) {
+                if (heap.size > 0 && (next == null || before(heap.items[0], next.items[0]))) {
+                    next = heap;
+                }
+            }
+            if (next == null || next.headDueAt() > now) {
+                break;
+            }
+            int slot = next.pop();
+            if (available.test(keys[slot])) {
+                popped[count++] = slot;
+            } else {
+                heapPosition[slot] = PARKED;
+            }
+        }
+
+        long[] due = new long[count];
+        for (int i = 0; i < count; i++) {
+            due[i] = keys[popped[i]];
+            heaps.get(cellOf[popped[i]]).push(popped[i]);
+        }
+        return due;
+    }
+
+    long getKey(int slot) {
+        return keys[slot];
+    }
+
+    long getDueAt(int slot) {
+        return dueAt[slot];
+    }
+
+    int getIntervalDays(int slot) {
+        return intervalDays[slot];
+    }
+
+    float getEase(int slot) {
+        return ease[slot];
+    }
+
+    int getRepetitions(int slot) {
+        return repetitions[slot];
+    }
+
+    /**
+     * Slot of a question, created with SM-2 defaults; moves it if its cell
+     * changed and puts it back in the queues if it was parked
+     */
+    private int slotFor(long key, String topic, String difficulty) {
+        int cell = cellId(topic, difficulty);
+        Integer existing = slots.get(key);
+        if (existing != null) {
+            int slot = existing;
+            if (heapPosition[slot] == PARKED) {
+                cellOf[slot] = cell;
+                heaps.get(cell).push(slot);
+            } else if (cellOf[slot] != cell) {
+                heaps.get(cellOf[slot]).remove(heapPosition[slot]);
+                cellOf[slot] = cell;
+                heaps.get(cell).push(slot);
+            }
+            return slot;
+        }
+
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            dueAt = Arrays.copyOf(dueAt, capacity);
+            intervalDays = Arrays.copyOf(intervalDays, capacity);
+            ease = Arrays.copyOf(ease, capacity);
+            repetitions = Arrays.copyOf(repetitions, capacity);
+            cellOf = Arrays.copyOf(cellOf, capacity);
+            heapPosition = Arrays.copyOf(heapPosition, capacity);
+        }
+        int slot = size++;
+        keys[slot] = key;
+        dueAt[slot] = 0;
+        intervalDays[slot] = 0;
+        ease[slot] = INITIAL_EASE;
+        repetitions[slot] = 0;
+        cellOf[slot] = cell;
+        slots.put(key, slot);
+        heaps.get(cell).push(slot);
+        return slot;
+    }
+
+    private int cellId(String topic, String difficulty) {
+        String name = topic + '\u0000' + difficulty;
+        Integer id = cellIds.get(name);
+        if (id == null) {
+            id = heaps.size();
+            cellIds.put(name, id);
+            cellTopics.add(topic);
+            cellDifficulties.add(difficulty);
+            heaps.add(new Heap());
+        }
+        return id;
+    }
+}
@@ -0,0 +1,133 @@
+package com.smartappgatekeeper.service;
+
+import android.app.Application;
+import android.util.Log;
+
+import com.smartappgatekeeper.database.entities.QuestionReview;
+import com.smartappgatekeeper.model.Question;
+import com.smartappgatekeeper.repository.AppRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Spaced-repetition question selection driven by answers
+ * FR-006: System shall generate questions from selected topics
+ *
+ * Each answer runs one SM-2 step for its question and stores the new state
+ * as a single question_reviews row; history is never replayed. Unlock quizzes
+ * take the most overdue questions of their pool first and fill the rest with
+ * random questions, so new questions keep entering the rotation. Persisted
+ * state is read once at startup; until then selection is purely random.
+ */
+public class ReviewScheduler {
+    private static final String TAG = "ReviewScheduler";
+    private static volatile ReviewScheduler INSTANCE;
+
+    // Answer quality from speed, for correct answers (SM-2 grades 5/4/3)
+    private static final int FAST_ANSWER_SECONDS = 10;
+    private static final int SLOW_ANSWER_SECONDS = 30;
+    private static final int QUALITY_WRONG = 1;
+
+    private final AppRepository repository;
+    private final Application application;
+    private final ReviewQueue queue = new ReviewQueue();
+    private final CompletableFuture<Void> loaded;
+
+    public static ReviewScheduler getInstance(Application application) {
+        if (INSTANCE == null) {
+            synchronized (ReviewScheduler.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ReviewScheduler(application);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private ReviewScheduler(Application application) {
+        this.application = application;
+        this.repository = AppRepository.getInstance(application);
+        loaded = repository.getQuestionReviews().thenAccept(reviews -> {
+            synchronized (queue) {
+                for (QuestionReview review : reviews) {
+                    queue.load(review.questionKey, review.topic, review.difficulty, review.dueAt,
+                        review.intervalDays, review.easeFactor, review.repetitions);
+                }
+            }
+            Log.d(TAG, "Loaded " + reviews.size() + " question reviews");
+        }).exceptionally(error -> {
+            Log.e(TAG, "Error loading question reviews", error);
+            return null;
+        });
+    }
+
+    /**
+     * Reschedule a question after an answer; O(log n) plus one row write
+     */
+    public void recordAnswer(Question question, boolean correct, int secondsSpent) {
+        long answeredAt = System.currentTimeMillis();
+        int quality = !correct ? QUALITY_WRONG
+            : secondsSpent <= FAST_ANSWER_SECONDS ? 5
+            : secondsSpent <= SLOW_ANSWER_SECONDS ? 4
+            : 3;
+        // Applied after the persisted state so a late load cannot overwrite it
+        loaded.thenRun(() -> {
+            QuestionReview review = new QuestionReview();
+            synchronized (queue) {
+                int slot = queue.recordAnswer(QuestionBankService.keyOf(question), question.getTopic(),
+                    question.getDifficulty(), quality, answeredAt);
+                review.questionKey = queue.getKey(slot);
+                review.dueAt = queue.getDueAt(slot);
+                review.intervalDays = queue.getIntervalDays(slot);
+                review.easeFactor = queue.getEase(slot);
+                review.repetitions = queue.getRepetitions(slot);
+            }
+            review.topic = question.getTopic();
+            review.difficulty = question.getDifficulty();
+            review.lastAnsweredAt = answeredAt;
+            repository.upsertQuestionReview(review);
+        });
+    }
+
+    /**
+     * Questions for an unlock quiz: due reviews first, most overdue first, then random ones
+     * @param topics topics to draw from; null or empty means all topics
+     */
+    public List<Question> selectForUnlock(int count, String difficulty, Collection<String> topics) {
+        QuestionBankService bank = QuestionBankService.getInstance(application);
+        List<Question> selected = new ArrayList<>(count);
+        Set<Long> keys = new HashSet<>();
+        if (loaded.isDone()) {
+            long[] due;
+            synchronized (queue) {
+                // Questions no longer in the bank are parked until answered again
+                due = queue.selectDue(topics, difficulty, count, System.currentTimeMillis(),
+                    bank::containsKey);
+            }
+            for (long key : due) {
+                // The bank can be swapped by a sync between the check and here
+                Question question = bank.getQuestionByKey(key);
+                if (question != null && keys.add(key)) {
+                    selected.add(question);
+                }
+            }
+        }
+        if (selected.size() < count) {
+            // Extra questions cover any that repeat a due one
+            for (Question question : bank.getQuestionsForUnlock(count + selected.size(), difficulty, topics)) {
+                if (selected.size() >= count) {
+                    break;
+                }
+                if (keys.add(QuestionBankService.keyOf(question))) {
+                    selected.add(question);
+                }
+            }
+        }
+        return selected;
+    }
+}
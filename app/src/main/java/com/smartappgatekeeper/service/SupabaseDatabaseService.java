@@ -16,6 +16,8 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.io.IOException;
+import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -192,6 +194,68 @@ public class SupabaseDatabaseService {
     }
     */
     
+    /**
+     * Fetch one page of questions changed after a high-water mark, oldest change first.
+     * Rows are ordered by (updated_at, id) and the mark is the last row of the
+     * previous page, so rows sharing a timestamp are neither skipped nor repeated.
+     * Blocking; call from a background thread.
+     * @param afterUpdatedAt updated_at of the last row already stored, verbatim; null to start from the beginning
+     * @param afterId id of that row
+     */
+    public List<QuestionRecord> fetchQuestionsPage(String afterUpdatedAt, String afterId, int limit) throws Exception {
+        StringBuilder url = new StringBuilder(supabaseClient.getPostgrestUrl())
+            .append("/").append(SupabaseConfig.TABLE_QUESTIONS)
+            .append("?select=id,question_text,option_a,option_b,option_c,option_d,correct_answer,")
+            .append("explanation,topic,difficulty,is_active,updated_at")
+            .append("&order=updated_at.asc,id.asc")
+            .append("&limit=").append(limit);
+        if (afterUpdatedAt != null) {
+            String mark = "\"" + afterUpdatedAt + "\"";
+            url.append("&or=").append(URLEncoder.encode(
+                "(updated_at.gt." + mark + ",and(updated_at.eq." + mark + ",id.gt." + afterId + "))", "UTF-8"));
+        }
+        
+        HttpURLConnection connection = createConnection(url.toString(), "GET");
+        connection.setDoOutput(false);
+        connection.setRequestProperty("apikey", supabaseClient.getAnonKey());
+        connection.setRequestProperty("Authorization", "Bearer " + supabaseClient.getAnonKey());
+        connection.setRequestProperty("Accept", "application/json");
+        try {
+            int responseCode = connection.getResponseCode();
+            String response = readResponse(connection);
+            if (responseCode != 200) {
+                throw new IOException("Failed to fetch questions (" + responseCode + "): " + response);
+            }
+            
+            JSONArray rows = new JSONArray(response);
+            List<QuestionRecord> questions = new ArrayList<>(rows.length());
+            for (int i = 0; i < rows.length(); i++) {
+                JSONObject row = rows.getJSONObject(i);
+                QuestionRecord question = new QuestionRecord();
+                question.id = row.getString("id");
+                question.questionText = optString(row, "question_text");
+                question.optionA = optString(row, "option_a");
+                question.optionB = optString(row, "option_b");
+                question.optionC = optString(row, "option_c");
+                question.optionD = optString(row, "option_d");
+                question.correctAnswer = optString(row, "correct_answer");
+                question.explanation = optString(row, "explanation");
+                question.topic = optString(row, "topic");
+                question.difficulty = optString(row, "difficulty");
+                question.isActive = row.isNull("is_active") || row.getBoolean("is_active");
+                question.updatedAt = optString(row, "updated_at");
+                questions.add(question);
+            }
+            return questions;
+        } finally {
+            connection.disconnect();
+        }
+    }
+    
+    private static String optString(JSONObject row, String name) {
+        return row.isNull(name) ? null : row.optString(name);
+    }
+    
     /**
      * Sync usage events to Supabase
      */
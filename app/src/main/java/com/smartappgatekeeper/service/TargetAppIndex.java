@@ -0,0 +1,134 @@
+package com.smartappgatekeeper.service;
+
+import com.smartappgatekeeper.database.entities.TargetApp;
+
+import java.util.List;
+
+/**
+ * Immutable package-name index for enabled target apps
+ * FR-001: System shall intercept all configured target apps
+ * FR-002: System shall display quiz modal within 200ms of app launch attempt
+ *
+ * Open-addressing hash table (linear probing, load factor <= 0.5) built once per
+ * target list and never mutated afterwards, so it can be shared across threads
+ * through a single volatile reference. Lookups accept the raw CharSequence from
+ * the AccessibilityEvent and do not allocate.
+ */
+public final class TargetAppIndex {
+
+    public static final TargetAppIndex EMPTY = new TargetAppIndex(new String[2], new int[2], 0);
+
+    private final String[] keys;
+    private final int[] hashes;
+    private final int mask;
+    private final int size;
+
+    private TargetAppIndex(String[] keys, int[] hashes, int size) {
+        this.keys = keys;
+        this.hashes = hashes;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    /**
+     * Build an index from the enabled target apps. Must not be called on the accessibility thread.
+     */
+    public static TargetAppIndex build(List<TargetApp> targetApps) {
+        if (targetApps == null || targetApps.isEmpty()) {
+            return EMPTY;
+        }
+
+        int capacity = 2;
+        while (capacity < targetApps.size() * 2) {
+            capacity <<= 1;
+        }
+
+        String[] keys = new String[capacity];
+        int[] hashes = new int[capacity];
+        int mask = capacity - 1;
+        int size = 0;
+
+        for (TargetApp targetApp : targetApps) {
+            if (targetApp == null || !targetApp.isEnabled || targetApp.packageName == null) {
+                continue;
+            }
+            String packageName = targetApp.packageName;
+            int hash = packageName.hashCode();
+            int slot = spread(hash) & mask;
+            boolean duplicate = false;
+            while (keys[slot] != null) {
+                if (hashes[slot] == hash && keys[slot].equals(packageName)) {
+                    duplicate = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (!duplicate) {
+                keys[slot] = packageName;
+                hashes[slot] = hash;
+                size++;
+            }
+        }
+
+        return size == 0 ? EMPTY : new TargetAppIndex(keys, hashes, size);
+    }
+
+    /**
+     * Check whether the given package is an enabled target app.
+     * Allocation-free; safe to call from any thread.
+     */
+    public boolean contains(CharSequence packageName) {
+        if (packageName == null || size == 0) {
+            return false;
+        }
+
+        int hash = hashOf(packageName);
+        int slot = spread(hash) & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (hashes[slot] == hash && contentEquals(key, packageName)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Same value as String.hashCode() without requiring a String instance
+     */
+    private static int hashOf(CharSequence value) {
+        if (value instanceof String) {
+            return value.hashCode();
+        }
+        int hash = 0;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            hash = 31 * hash + value.charAt(i);
+        }
+        return hash;
+    }
+
+    private static boolean contentEquals(String key, CharSequence value) {
+        if (value instanceof String) {
+            return key.equals(value);
+        }
+        int length = key.length();
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
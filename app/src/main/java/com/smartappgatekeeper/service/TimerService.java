@@ -5,10 +5,13 @@ import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.app.Service;
+import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.os.Build;
-import android.os.CountDownTimer;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.core.app.NotificationCompat;
@@ -16,28 +19,47 @@ import androidx.core.app.NotificationCompat;
 import com.smartappgatekeeper.R;
 import com.smartappgatekeeper.ui.activities.MainActivity;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Foreground service for managing app unlock timers
  * FR-011: System shall start timer when app is unlocked
  * FR-012: System shall display remaining time in overlay
  * FR-013: System shall lock app when timer expires
+ *
+ * Any number of apps can be unlocked at once. Deadlines are kept in an
+ * UnlockTimerScheduler and persisted, and the service sleeps until the nearest
+ * one is due instead of ticking every second.
  */
 public class TimerService extends Service {
     private static final String TAG = "TimerService";
     private static final String CHANNEL_ID = "TimerServiceChannel";
     private static final int NOTIFICATION_ID = 1;
     
-    private CountDownTimer countDownTimer;
-    private long remainingTimeMillis;
-    private String targetAppName;
-    private String packageName;
-    private android.view.View blockingView;
-    private android.view.WindowManager windowManager;
+    // Persisted deadlines: package name -> "deadlineMillis|appName"
+    private static final String PREFS_TIMERS = "unlock_timers";
+    
+    private UnlockTimerScheduler scheduler;
+    private SharedPreferences timerPreferences;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable expiryCheck = this::onTimersDue;
+    private long scheduledWakeupMillis = UnlockTimerScheduler.NO_DEADLINE;
+    
+    // Notification state; the chronometer counts down on its own, so we only repost on changes
+    private boolean inForeground = false;
+    private long postedDeadlineMillis = UnlockTimerScheduler.NO_DEADLINE;
+    private int postedTimerCount = 0;
+    private int sessionNotificationPosts = 0;
+    private static volatile int lastSessionNotificationPosts = 0;
     
     @Override
     public void onCreate() {
         super.onCreate();
         createNotificationChannel();
+        scheduler = new UnlockTimerScheduler(System::currentTimeMillis);
+        timerPreferences = getSharedPreferences(PREFS_TIMERS, Context.MODE_PRIVATE);
+        restoreTimers();
         Log.d(TAG, "TimerService created");
     }
     
@@ -49,12 +71,19 @@ public class TimerService extends Service {
             if ("START_TIMER".equals(action)) {
                 startTimer(intent);
             } else if ("STOP_TIMER".equals(action)) {
-                stopTimer();
+                stopTimer(intent.getStringExtra("package_name"));
             } else if ("UPDATE_TIMER".equals(action)) {
                 updateTimer(intent);
             }
         }
         
+        if (scheduler.isEmpty()) {
+            endSession();
+        } else {
+            updateNotification();
+            // Restored deadlines may already be due
+            onTimersDue();
+        }
         return START_STICKY;
     }
     
@@ -66,9 +95,7 @@ public class TimerService extends Service {
     @Override
     public void onDestroy() {
         super.onDestroy();
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-        }
+        handler.removeCallbacks(expiryCheck);
         Log.d(TAG, "TimerService destroyed");
     }
     
@@ -77,49 +104,31 @@ public class TimerService extends Service {
      */
     private void startTimer(Intent intent) {
         int durationMinutes = intent.getIntExtra("duration_minutes", 10);
-        targetAppName = intent.getStringExtra("app_name");
-        packageName = intent.getStringExtra("package_name");
-        
-        remainingTimeMillis = durationMinutes * 60 * 1000L;
-        
-        // Cancel existing timer
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
+        String targetAppName = intent.getStringExtra("app_name");
+        String packageName = intent.getStringExtra("package_name");
+        if (packageName == null) {
+            return;
         }
         
-        // Start foreground service
-        startForeground(NOTIFICATION_ID, createNotification());
-        
-        // Create countdown timer
-        countDownTimer = new CountDownTimer(remainingTimeMillis, 1000) {
-            @Override
-            public void onTick(long millisUntilFinished) {
-                remainingTimeMillis = millisUntilFinished;
-                updateNotification();
-            }
-            
-            @Override
-            public void onFinish() {
-                Log.d(TAG, "Timer finished for " + targetAppName);
-                onTimerExpired();
-            }
-        };
-        
-        countDownTimer.start();
-        Log.d(TAG, "Timer started for " + targetAppName + " (" + durationMinutes + " minutes)");
+        // Replaces any running timer for the same app
+        long deadline = System.currentTimeMillis() + durationMinutes * 60 * 1000L;
+        scheduler.schedule(packageName, targetAppName, deadline);
+        persistTimer(packageName, targetAppName, deadline);
+        Log.d(TAG, "Timer started for " + targetAppName + " (" + durationMinutes + " minutes), "
+            + scheduler.size() + " active");
     }
     
     /**
-     * Stop the current timer
+     * Stop the timer of one app, or all timers when no package is given
      */
-    private void stopTimer() {
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-            countDownTimer = null;
+    private void stopTimer(String packageName) {
+        if (packageName != null) {
+            scheduler.cancel(packageName);
+            timerPreferences.edit().remove(packageName).apply();
+        } else {
+            scheduler.cancelAll();
+            timerPreferences.edit().clear().apply();
         }
-        
-        stopForeground(true);
-        stopSelf();
         Log.d(TAG, "Timer stopped");
     }
     
@@ -127,168 +136,151 @@ public class TimerService extends Service {
      * Update timer with new duration
      */
     private void updateTimer(Intent intent) {
+        String packageName = intent.getStringExtra("package_name");
+        UnlockTimerScheduler.Timer timer = packageName != null ? scheduler.get(packageName) : null;
+        if (timer == null) {
+            return;
+        }
+        
         int durationMinutes = intent.getIntExtra("duration_minutes", 10);
-        remainingTimeMillis = durationMinutes * 60 * 1000L;
+        long deadline = System.currentTimeMillis() + durationMinutes * 60 * 1000L;
+        scheduler.schedule(packageName, timer.appName, deadline);
+        persistTimer(packageName, timer.appName, deadline);
+    }
+    
+    /**
+     * Wake-up at the nearest deadline: expire everything due and sleep again
+     */
+    private void onTimersDue() {
+        scheduledWakeupMillis = UnlockTimerScheduler.NO_DEADLINE;
+        List<UnlockTimerScheduler.Timer> expired = scheduler.advance();
+        if (!expired.isEmpty()) {
+            SharedPreferences.Editor editor = timerPreferences.edit();
+            for (UnlockTimerScheduler.Timer timer : expired) {
+                editor.remove(timer.packageName);
+            }
+            editor.apply();
+            onTimersExpired(expired);
+        }
         
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-            countDownTimer = new CountDownTimer(remainingTimeMillis, 1000) {
-                @Override
-                public void onTick(long millisUntilFinished) {
-                    remainingTimeMillis = millisUntilFinished;
-                    updateNotification();
-                }
-                
-                @Override
-                public void onFinish() {
-                    onTimerExpired();
-                }
-            };
-            countDownTimer.start();
+        if (scheduler.isEmpty()) {
+            // Stop the service
+            endSession();
+        } else {
+            if (!expired.isEmpty()) {
+                updateNotification();
+            }
+            rescheduleWakeup();
         }
     }
     
     /**
-     * Handle timer expiration
+     * Leave the foreground and record how many notifications this session posted
      */
-    private void onTimerExpired() {
-        // Implement app locking logic
-        lockTargetApp();
-        
-        // Log the timer expiration event
-        logTimerExpiration();
-        
-        // Show notification that app is now locked
-        showAppLockedNotification();
-        
-        // Update usage statistics
-        updateUsageStatistics();
-        
-        // Stop the service
+    private void endSession() {
+        if (inForeground) {
+            lastSessionNotificationPosts = sessionNotificationPosts;
+            Log.d(TAG, "Unlock session ended after " + sessionNotificationPosts + " notification posts");
+        }
+        inForeground = false;
+        sessionNotificationPosts = 0;
+        postedDeadlineMillis = UnlockTimerScheduler.NO_DEADLINE;
+        postedTimerCount = 0;
+        stopForeground(true);
         stopSelf();
     }
     
     /**
-     * Lock the target app by starting the AppLockService
+     * Notifications posted during the last finished unlock session
      */
-    private void lockTargetApp() {
-        try {
-            // Start the app lock service
-            startAppLockService();
-            
-            // Show notification
-            showAppLockedNotification();
-            
-            // Log the event
-            logTimerExpiration();
-            
-        } catch (Exception e) {
-            android.util.Log.e(TAG, "Error locking app", e);
+    public static int getLastSessionNotificationPosts() {
+        return lastSessionNotificationPosts;
+    }
+    
+    private void rescheduleWakeup() {
+        long next = scheduler.nextDeadlineMillis();
+        if (next == scheduledWakeupMillis) {
+            return;
+        }
+        handler.removeCallbacks(expiryCheck);
+        scheduledWakeupMillis = next;
+        if (next != UnlockTimerScheduler.NO_DEADLINE) {
+            handler.postDelayed(expiryCheck, Math.max(0, next - System.currentTimeMillis()));
         }
     }
     
     /**
-     * Start the app lock service to monitor and block the target app
+     * Handle timer expiration for every app that is due
      */
-    private void startAppLockService() {
-        Intent lockIntent = new Intent(this, AppLockService.class);
-        lockIntent.putExtra("target_package", packageName);
-        lockIntent.putExtra("target_app_name", targetAppName);
-        startService(lockIntent);
+    private void onTimersExpired(List<UnlockTimerScheduler.Timer> expired) {
+        // Implement app locking logic
+        lockTargetApps(expired);
+        
+        for (UnlockTimerScheduler.Timer timer : expired) {
+            // Log the timer expiration event
+            logTimerExpiration(timer.packageName);
+            
+            // Show notification that app is now locked
+            showAppLockedNotification(timer.appName != null ? timer.appName : timer.packageName);
+        }
+        
+        // Update usage statistics
+        updateUsageStatistics();
     }
     
     /**
-     * Legacy method - kept for compatibility but now delegates to AppLockService
+     * Lock the target apps by starting the AppLockService once for the whole batch
      */
-    private void createLegacyBlockingView() {
+    private void lockTargetApps(List<UnlockTimerScheduler.Timer> expired) {
         try {
-            // Create a system alert window to block the app
-            android.view.WindowManager.LayoutParams params = new android.view.WindowManager.LayoutParams();
-            params.type = android.view.WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY;
-            params.flags = android.view.WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE |
-                          android.view.WindowManager.LayoutParams.FLAG_NOT_TOUCH_MODAL |
-                          android.view.WindowManager.LayoutParams.FLAG_LAYOUT_IN_SCREEN;
-            params.width = android.view.WindowManager.LayoutParams.MATCH_PARENT;
-            params.height = android.view.WindowManager.LayoutParams.MATCH_PARENT;
-            params.format = android.graphics.PixelFormat.TRANSLUCENT;
+            String[] packages = new String[expired.size()];
+            String[] appNames = new String[expired.size()];
+            for (int i = 0; i < expired.size(); i++) {
+                packages[i] = expired.get(i).packageName;
+                appNames[i] = expired.get(i).appName;
+            }
             
-            // Create blocking view
-            android.view.View blockingView = createBlockingView();
+            Intent lockIntent = new Intent(this, AppLockService.class);
+            lockIntent.putExtra(AppLockService.EXTRA_TARGET_PACKAGES, packages);
+            lockIntent.putExtra(AppLockService.EXTRA_TARGET_APP_NAMES, appNames);
+            startService(lockIntent);
             
-            // Add to window manager
-            android.view.WindowManager windowManager = (android.view.WindowManager) getSystemService(WINDOW_SERVICE);
-            if (windowManager != null) {
-                windowManager.addView(blockingView, params);
-                
-                // Store reference for later removal
-                this.blockingView = blockingView;
-                this.windowManager = windowManager;
-                
-                android.util.Log.d(TAG, "App locked successfully");
-            }
         } catch (Exception e) {
-            android.util.Log.e(TAG, "Error locking app", e);
+            android.util.Log.e(TAG, "Error locking apps", e);
         }
     }
     
-    /**
-     * Create a blocking view that covers the entire screen
-     */
-    private android.view.View createBlockingView() {
-        android.widget.LinearLayout layout = new android.widget.LinearLayout(this);
-        layout.setOrientation(android.widget.LinearLayout.VERTICAL);
-        layout.setBackgroundColor(android.graphics.Color.BLACK);
-        layout.setGravity(android.view.Gravity.CENTER);
-        
-        // Add app locked message
-        android.widget.TextView messageView = new android.widget.TextView(this);
-        messageView.setText("🔒 App Locked\n\nTime's up! Complete a quiz to unlock.");
-        messageView.setTextColor(android.graphics.Color.WHITE);
-        messageView.setTextSize(18);
-        messageView.setGravity(android.view.Gravity.CENTER);
-        messageView.setPadding(50, 50, 50, 50);
-        
-        // Add unlock button
-        android.widget.Button unlockButton = new android.widget.Button(this);
-        unlockButton.setText("Take Quiz to Unlock");
-        unlockButton.setTextColor(android.graphics.Color.WHITE);
-        unlockButton.setBackgroundColor(android.graphics.Color.parseColor("#6200EE"));
-        unlockButton.setOnClickListener(v -> {
-            // Start quiz activity
-            android.content.Intent quizIntent = new android.content.Intent(this, com.smartappgatekeeper.ui.activities.QuizActivity.class);
-            quizIntent.addFlags(android.content.Intent.FLAG_ACTIVITY_NEW_TASK);
-            startActivity(quizIntent);
-            
-            // Remove blocking view
-            removeBlockingView();
-        });
-        
-        layout.addView(messageView);
-        layout.addView(unlockButton);
-        
-        return layout;
+    private void persistTimer(String packageName, String appName, long deadline) {
+        timerPreferences.edit()
+            .putString(packageName, deadline + "|" + (appName != null ? appName : ""))
+            .apply();
     }
     
     /**
-     * Remove the blocking view
+     * Reload deadlines saved before the service was killed; overdue ones expire on the next check
      */
-    private void removeBlockingView() {
-        if (blockingView != null && windowManager != null) {
+    private void restoreTimers() {
+        for (Map.Entry<String, ?> entry : timerPreferences.getAll().entrySet()) {
             try {
-                windowManager.removeView(blockingView);
-                blockingView = null;
-                windowManager = null;
-                android.util.Log.d(TAG, "App unlocked successfully");
+                String value = String.valueOf(entry.getValue());
+                int separator = value.indexOf('|');
+                long deadline = Long.parseLong(value.substring(0, separator));
+                String appName = value.substring(separator + 1);
+                scheduler.schedule(entry.getKey(), appName.isEmpty() ? null : appName, deadline);
             } catch (Exception e) {
-                android.util.Log.e(TAG, "Error removing blocking view", e);
+                Log.w(TAG, "Dropping unreadable timer for " + entry.getKey(), e);
+                timerPreferences.edit().remove(entry.getKey()).apply();
             }
         }
+        if (!scheduler.isEmpty()) {
+            Log.d(TAG, "Restored " + scheduler.size() + " unlock timers");
+        }
     }
     
     /**
      * Log timer expiration event
      */
-    private void logTimerExpiration() {
+    private void logTimerExpiration(String packageName) {
         android.util.Log.i(TAG, "Timer expired for app: " + packageName);
         // TODO: Log to analytics or database
     }
@@ -296,7 +288,7 @@ public class TimerService extends Service {
     /**
      * Show notification that app is locked
      */
-    private void showAppLockedNotification() {
+    private void showAppLockedNotification(String appName) {
         android.app.NotificationManager notificationManager = 
             (android.app.NotificationManager) getSystemService(NOTIFICATION_SERVICE);
         
@@ -314,7 +306,7 @@ public class TimerService extends Service {
         
         android.app.Notification notification = new androidx.core.app.NotificationCompat.Builder(this, CHANNEL_ID)
             .setContentTitle("🔒 App Locked")
-            .setContentText("Time's up! Complete a quiz to unlock " + packageName)
+            .setContentText("Time's up! Complete a quiz to unlock " + appName)
             .setSmallIcon(android.R.drawable.ic_dialog_alert)
             .setContentIntent(pendingIntent)
             .setAutoCancel(true)
@@ -355,6 +347,12 @@ public class TimerService extends Service {
      * Create notification for timer service
      */
     private Notification createNotification() {
+        UnlockTimerScheduler.Timer next = nextTimer();
+        String title = scheduler.size() > 1
+            ? scheduler.size() + " apps unlocked"
+            : "App Unlocked: " + (next != null ? next.appName : "");
+        long deadline = next != null ? next.deadlineMillis : System.currentTimeMillis();
+        
         Intent notificationIntent = new Intent(this, MainActivity.class);
         PendingIntent pendingIntent = PendingIntent.getActivity(
             this, 0, notificationIntent, 
@@ -362,32 +360,53 @@ public class TimerService extends Service {
         );
         
         return new NotificationCompat.Builder(this, CHANNEL_ID)
-            .setContentTitle("App Unlocked: " + targetAppName)
-            .setContentText("Time remaining: " + formatTime(remainingTimeMillis))
+            .setContentTitle(title)
+            .setContentText(next != null ? next.appName + " locks when the timer runs out" : "")
             .setSmallIcon(R.drawable.ic_timer)
+            // The system renders the countdown to the deadline; no per-second updates
+            .setWhen(deadline)
+            .setShowWhen(true)
+            .setUsesChronometer(true)
+            .setChronometerCountDown(true)
+            .setOnlyAlertOnce(true)
             .setContentIntent(pendingIntent)
             .setOngoing(true)
             .setPriority(NotificationCompat.PRIORITY_LOW)
             .build();
     }
     
-    /**
-     * Update notification with current time
-     */
-    private void updateNotification() {
-        Notification notification = createNotification();
-        NotificationManager manager = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
-        if (manager != null) {
-            manager.notify(NOTIFICATION_ID, notification);
+    private UnlockTimerScheduler.Timer nextTimer() {
+        long deadline = scheduler.nextDeadlineMillis();
+        for (UnlockTimerScheduler.Timer timer : scheduler.getTimers()) {
+            if (timer.deadlineMillis == deadline) {
+                return timer;
+            }
         }
+        return null;
     }
     
     /**
-     * Format time in MM:SS format
+     * Post the notification on start, extend and expire; skipped when nothing visible changed
      */
-    private String formatTime(long millis) {
-        long minutes = millis / (1000 * 60);
-        long seconds = (millis % (1000 * 60)) / 1000;
-        return String.format("%02d:%02d", minutes, seconds);
+    private void updateNotification() {
+        long deadline = scheduler.nextDeadlineMillis();
+        int timerCount = scheduler.size();
+        if (inForeground && deadline == postedDeadlineMillis && timerCount == postedTimerCount) {
+            return;
+        }
+        
+        Notification notification = createNotification();
+        if (!inForeground) {
+            startForeground(NOTIFICATION_ID, notification);
+            inForeground = true;
+        } else {
+            NotificationManager manager = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
+            if (manager != null) {
+                manager.notify(NOTIFICATION_ID, notification);
+            }
+        }
+        postedDeadlineMillis = deadline;
+        postedTimerCount = timerCount;
+        sessionNotificationPosts++;
     }
-}
\ No newline at end of file
+}
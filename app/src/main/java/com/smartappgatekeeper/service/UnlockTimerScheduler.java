@@ -0,0 +1,212 @@
+package com.smartappgatekeeper.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unlock deadlines for any number of apps on a hashed timing wheel
+ * FR-011: System shall start timer when app is unlocked
+ * FR-013: System shall lock app when timer expires
+ *
+ * Each deadline lives in the wheel slot of its tick, linked into that slot's
+ * list, and is also indexed by package, so schedule, reschedule and cancel are
+ * O(1). advance() only visits the slots between the last and the current tick,
+ * and nextDeadlineMillis() tells the caller when to wake up next, so nothing
+ * runs between deadlines. Deadlines are wall-clock millis so they can be
+ * persisted across service restarts. Not thread-safe; TimerService uses it
+ * from the main thread only.
+ */
+class UnlockTimerScheduler {
+
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    /**
+     * Time source, replaceable by a fake clock
+     */
+    interface Clock {
+        long currentTimeMillis();
+    }
+
+    static final class Timer {
+        final String packageName;
+        final String appName;
+        final long deadlineMillis;
+        final long deadlineTick;
+        Timer previous;
+        Timer next;
+
+        Timer(String packageName, String appName, long deadlineMillis, long deadlineTick) {
+            this.packageName = packageName;
+            this.appName = appName;
+            this.deadlineMillis = deadlineMillis;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private final Clock clock;
+    private final long tickMillis;
+    private final int mask;
+    private final Timer[] slots;
+    private final int[] slotCounts;
+    private final Map<String, Timer> timers = new HashMap<>();
+    private long currentTick;
+
+    UnlockTimerScheduler(Clock clock) {
+        this(clock, 1000, 4096);
+    }
+
+    /**
+     * @param wheelSize number of slots, must be a power of two
+     */
+    UnlockTimerScheduler(Clock clock, long tickMillis, int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        }
+        this.clock = clock;
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.slots = new Timer[wheelSize];
+        this.slotCounts = new int[wheelSize];
+        this.currentTick = clock.currentTimeMillis() / tickMillis;
+    }
+
+    /**
+     * Set or replace the deadline of a package
+     */
+    void schedule(String packageName, String appName, long deadlineMillis) {
+        cancel(packageName);
+        // Past deadlines land in the current slot and fire on the next advance
+        long tick = Math.max(currentTick, deadlineMillis / tickMillis);
+        Timer timer = new Timer(packageName, appName, deadlineMillis, tick);
+        link(timer);
+        timers.put(packageName, timer);
+    }
+
+    boolean cancel(String packageName) {
+        Timer timer = timers.remove(packageName);
+        if (timer == null) {
+            return false;
+        }
+        unlink(timer);
+        return true;
+    }
+
+    void cancelAll() {
+        timers.clear();
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = null;
+            slotCounts[i] = 0;
+        }
+    }
+
+    Timer get(String packageName) {
+        return timers.get(packageName);
+    }
+
+    int size() {
+        return timers.size();
+    }
+
+    boolean isEmpty() {
+        return timers.isEmpty();
+    }
+
+    /**
+     * Snapshot of all pending timers, for persistence
+     */
+    List<Timer> getTimers() {
+        return new ArrayList<>(timers.values());
+    }
+
+    /**
+     * Move the wheel to the current time and remove every expired timer
+     * @return expired timers, in no particular order
+     */
+    List<Timer> advance() {
+        long now = clock.currentTimeMillis();
+        long targetTick = now / tickMillis;
+        List<Timer> expired = new ArrayList<>();
+        if (timers.isEmpty()) {
+            currentTick = Math.max(currentTick, targetTick);
+            return expired;
+        }
+
+        // A full rotation visits every slot once; more ticks than that add nothing
+        long firstTick = Math.max(currentTick, targetTick - mask);
+        for (long tick = firstTick; tick <= targetTick; tick++) {
+            int slot = (int) (tick & mask);
+            Timer timer = slots[slot];
+            while (timer != null) {
+                Timer next = timer.next;
+                if (timer.deadlineMillis <= now) {
+                    unlink(timer);
+                    timers.remove(timer.packageName);
+                    expired.add(timer);
+                }
+                timer = next;
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return expired;
+    }
+
+    /**
+     * Earliest pending deadline, or NO_DEADLINE when nothing is scheduled.
+     * Scans forward at most one rotation, then falls back to the index.
+     */
+    long nextDeadlineMillis() {
+        if (timers.isEmpty()) {
+            return NO_DEADLINE;
+        }
+        for (long tick = currentTick; tick <= currentTick + mask; tick++) {
+            int slot = (int) (tick & mask);
+            if (slotCounts[slot] == 0) {
+                continue;
+            }
+            long earliest = NO_DEADLINE;
+            for (Timer timer = slots[slot]; timer != null; timer = timer.next) {
+                if (timer.deadlineTick <= tick) {
+                    earliest = Math.min(earliest, timer.deadlineMillis);
+                }
+            }
+            if (earliest != NO_DEADLINE) {
+                return earliest;
+            }
+        }
+
+        long earliest = NO_DEADLINE;
+        for (Timer timer : timers.values()) {
+            earliest = Math.min(earliest, timer.deadlineMillis);
+        }
+        return earliest;
+    }
+
+    private void link(Timer timer) {
+        int slot = (int) (timer.deadlineTick & mask);
+        Timer head = slots[slot];
+        timer.previous = null;
+        timer.next = head;
+        if (head != null) {
+            head.previous = timer;
+        }
+        slots[slot] = timer;
+        slotCounts[slot]++;
+    }
+
+    private void unlink(Timer timer) {
+        int slot = (int) (timer.deadlineTick & mask);
+        if (timer.previous != null) {
+            timer.previous.next = timer.next;
+        } else {
+            slots[slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        }
+        timer.previous = null;
+        timer.next = null;
+        slotCounts[slot]--;
+    }
+}
@@ -0,0 +1,66 @@
+package com.smartappgatekeeper.service;
+
+import android.app.Application;
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.smartappgatekeeper.repository.AppRepository;
+import com.smartappgatekeeper.repository.UsageRetentionJob;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daily retention and compaction of usage history
+ * FR-004: System shall log all interception events for analytics
+ *
+ * Scheduled as unique periodic work so it runs at most once a day, only while
+ * the device is idle and the battery is not low.
+ */
+public class UsageRetentionWorker extends Worker {
+    private static final String TAG = "UsageRetentionWorker";
+    private static final String WORK_NAME = "usage_retention";
+    
+    public static final int RETAIN_DAYS = 30;
+    
+    public UsageRetentionWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+    
+    /**
+     * Enqueue the daily job; keeps an already scheduled one
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+            .setRequiresDeviceIdle(true)
+            .setRequiresBatteryNotLow(true)
+            .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                UsageRetentionWorker.class, 1, TimeUnit.DAYS)
+            .setConstraints(constraints)
+            .build();
+        WorkManager.getInstance(context)
+            .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+    
+    @NonNull
+    @Override
+    public Result doWork() {
+        try {
+            AppRepository repository = AppRepository.getInstance((Application) getApplicationContext());
+            UsageRetentionJob.Report report = repository.runUsageRetention(RETAIN_DAYS, false).get();
+            Log.i(TAG, "Retention complete: " + report);
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Retention failed", e);
+            return Result.retry();
+        }
+    }
+}
@@ -10,6 +10,10 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.smartappgatekeeper.R;
+import com.smartappgatekeeper.repository.AppRepository;
+import com.smartappgatekeeper.service.InterceptionLatencyTracer;
+import com.smartappgatekeeper.service.TimerService;
+import com.smartappgatekeeper.service.InterceptionStateMachine;
 import com.smartappgatekeeper.utils.DatabaseUtils;
 
 /**
@@ -21,6 +25,7 @@ public class DebugActivity extends AppCompatActivity {
     private Button buttonClearData;
     private Button buttonResetDatabase;
     private Button buttonTestSupabase;
+    private Button buttonExportLatency;
     private Button buttonBackToMain;
     
     @Override
@@ -38,6 +43,7 @@ public class DebugActivity extends AppCompatActivity {
         buttonClearData = findViewById(R.id.button_clear_data);
         buttonResetDatabase = findViewById(R.id.button_reset_database);
         buttonTestSupabase = findViewById(R.id.button_test_supabase);
+        buttonExportLatency = findViewById(R.id.button_export_latency);
         buttonBackToMain = findViewById(R.id.button_back_to_main);
     }
     
@@ -55,6 +61,10 @@ public class DebugActivity extends AppCompatActivity {
             startActivity(intent);
         });
         
+        buttonExportLatency.setOnClickListener(v -> {
+            exportLatencyReport();
+        });
+        
         buttonBackToMain.setOnClickListener(v -> {
             goBackToMain();
         });
@@ -72,6 +82,19 @@ public class DebugActivity extends AppCompatActivity {
         updateStatus();
     }
     
+    private void exportLatencyReport() {
+        try {
+            String report = InterceptionLatencyTracer.getInstance().toJson().toString(2);
+            Intent shareIntent = new Intent(Intent.ACTION_SEND);
+            shareIntent.setType("application/json");
+            shareIntent.putExtra(Intent.EXTRA_SUBJECT, "Interception latency report");
+            shareIntent.putExtra(Intent.EXTRA_TEXT, report);
+            startActivity(Intent.createChooser(shareIntent, "Export latency report"));
+        } catch (Exception e) {
+            Toast.makeText(this, "❌ Failed to export latency report", Toast.LENGTH_SHORT).show();
+        }
+    }
+    
     private void goBackToMain() {
         Intent intent = new Intent(this, MainActivity.class);
         intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
@@ -81,9 +104,27 @@ public class DebugActivity extends AppCompatActivity {
     
     private void updateStatus() {
         boolean needsReset = DatabaseUtils.needsDatabaseReset(this);
+        InterceptionStateMachine interception = InterceptionStateMachine.getInstance();
         String status = "Database Status:\n\n" +
                        "Version Check: " + (needsReset ? "❌ Needs Reset" : "✅ Up to Date") + "\n" +
                        "Last Reset: " + getLastResetTime() + "\n\n" +
+                       "Interception Events:\n" +
+                       "• Admitted: " + interception.getAdmittedEvents() + "\n" +
+                       "• Coalesced: " + interception.getCoalescedEvents() + "\n" +
+                       "• Dropped (quiz pending): " + interception.getSuppressedPendingEvents() + "\n" +
+                       "• Dropped (unlocked): " + interception.getSuppressedUnlockedEvents() + "\n\n" +
+                       "Usage Event Journal:\n" +
+                       AppRepository.getInstance(getApplication()).getUsageEventJournalSummary() + "\n\n" +
+                       "Database Executors:\n" +
+                       AppRepository.getInstance(getApplication()).getDatabaseExecutorSummary() + "\n\n" +
+                       "Shared Query Streams:\n" +
+                       AppRepository.getInstance(getApplication()).getQueryStreamSummary() + "\n\n" +
+                       "Retention (last run):\n" +
+                       AppRepository.getInstance(getApplication()).getLastRetentionSummary() + "\n\n" +
+                       "Interception Latency (SLO " + InterceptionLatencyTracer.SLO_MILLIS + "ms):\n" +
+                       InterceptionLatencyTracer.getInstance().getSummary() + "\n\n" +
+                       "Unlock Timer Notifications (last session): " +
+                       TimerService.getLastSessionNotificationPosts() + " posts\n\n" +
                        "Actions Available:\n" +
                        "• Clear All Data - Removes all app data\n" +
                        "• Reset Database - Fixes schema issues\n" +
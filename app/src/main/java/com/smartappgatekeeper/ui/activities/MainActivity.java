@@ -23,6 +23,8 @@ import com.smartappgatekeeper.utils.DatabaseUtils;
 import com.smartappgatekeeper.utils.SupabaseConnectionTest;
 import com.smartappgatekeeper.repository.AppRepository;
 import com.smartappgatekeeper.service.FloatingAIService;
+import com.smartappgatekeeper.service.QuestionSyncWorker;
+import com.smartappgatekeeper.service.UsageRetentionWorker;
 
 /**
  * Main Activity with bottom navigation
@@ -46,6 +48,12 @@ public class MainActivity extends AppCompatActivity implements NavigationBarView
         // Reset database if needed to handle schema conflicts
         DatabaseUtils.resetDatabaseIfNeeded(this);
         
+        // Daily retention of old usage history
+        UsageRetentionWorker.schedule(getApplicationContext());
+        
+        // Pull question bank updates
+        QuestionSyncWorker.schedule(getApplicationContext());
+        
         setContentView(R.layout.activity_main);
         
         initializeViews();
@@ -12,6 +12,11 @@ import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 import com.smartappgatekeeper.R;
+import com.smartappgatekeeper.database.entities.TargetApp;
+import com.smartappgatekeeper.repository.AppRepository;
+import com.smartappgatekeeper.service.InterceptionLatencyTracer;
+import com.smartappgatekeeper.service.InterceptionStateMachine;
+import com.smartappgatekeeper.service.ReadyQuizPool;
 import com.smartappgatekeeper.viewmodel.QuizViewModel;
 import com.smartappgatekeeper.model.Question;
 
@@ -28,6 +33,12 @@ public class QuizActivity extends AppCompatActivity {
     private boolean isUnlockMode = false;
     private String targetPackage;
     private String targetAppName;
+    private int unlockDurationMinutes = 10;
+    private boolean isAppUnlocked = false;
+    private String quizSessionId;
+    
+    // Latency tracing for intercepted launches (FR-002)
+    private long interceptionId = InterceptionLatencyTracer.NO_INTERCEPTION;
     
     // UI Components
     private TextView tvQuestion, tvQuestionNumber, tvTimeRemaining, tvScore;
@@ -39,14 +50,27 @@ public class QuizActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        
+        Intent intent = getIntent();
+        if (intent != null && savedInstanceState == null) {
+            interceptionId = intent.getLongExtra(InterceptionLatencyTracer.EXTRA_INTERCEPTION_ID,
+                InterceptionLatencyTracer.NO_INTERCEPTION);
+            InterceptionLatencyTracer.getInstance().mark(interceptionId, InterceptionLatencyTracer.Stage.QUIZ_CREATED);
+        }
+        
         setContentView(R.layout.activity_quiz);
         
         // Check if this is unlock mode
-        Intent intent = getIntent();
         if (intent != null) {
             isUnlockMode = intent.getBooleanExtra("unlock_mode", false);
             targetPackage = intent.getStringExtra("target_package");
             targetAppName = intent.getStringExtra("target_app_name");
+            quizSessionId = intent.getStringExtra(ReadyQuizPool.EXTRA_QUIZ_SESSION_ID);
+            
+            TargetApp targetApp = intent.getParcelableExtra("target_app");
+            if (targetApp != null) {
+                unlockDurationMinutes = targetApp.perUnlockDurationMinutes;
+            }
         }
         
         initViews();
@@ -116,7 +140,7 @@ public class QuizActivity extends AppCompatActivity {
      * Start the quiz
      */
     private void startQuiz() {
-        viewModel.startQuiz();
+        viewModel.startQuiz(quizSessionId);
     }
     
     /**
@@ -133,6 +157,14 @@ public class QuizActivity extends AppCompatActivity {
             // Clear previous selection
             rgAnswers.clearCheck();
             btnSubmit.setEnabled(false);
+            
+            if (interceptionId != InterceptionLatencyTracer.NO_INTERCEPTION) {
+                long tracedId = interceptionId;
+                interceptionId = InterceptionLatencyTracer.NO_INTERCEPTION;
+                // Posted so the mark lands after this view update has been processed
+                tvQuestion.post(() -> InterceptionLatencyTracer.getInstance()
+                    .mark(tracedId, InterceptionLatencyTracer.Stage.FIRST_QUESTION_RENDERED));
+            }
         }
     }
     
@@ -267,9 +299,32 @@ public class QuizActivity extends AppCompatActivity {
      */
     private void unlockTargetApp() {
         try {
-            // Stop the app lock service
-            Intent lockServiceIntent = new Intent(this, com.smartappgatekeeper.service.AppLockService.class);
-            stopService(lockServiceIntent);
+            // Release this app's lock; the service stops when nothing else is locked.
+            // Without a lock there is no service to tell, so do not start one.
+            if (targetPackage != null
+                    && com.smartappgatekeeper.service.LockOverlayManager.getInstance(this).isLocked(targetPackage)) {
+                Intent lockServiceIntent = new Intent(this, com.smartappgatekeeper.service.AppLockService.class);
+                lockServiceIntent.setAction(com.smartappgatekeeper.service.AppLockService.ACTION_UNLOCK);
+                lockServiceIntent.putExtra("target_package", targetPackage);
+                startService(lockServiceIntent);
+            }
+            
+            // Stop intercepting the app until the unlock window ends
+            isAppUnlocked = true;
+            if (targetPackage != null) {
+                AppRepository.getInstance(getApplication()).recordAppUse(targetPackage);
+            }
+            InterceptionStateMachine.getInstance().onQuizPassed(targetPackage, unlockDurationMinutes * 60 * 1000L);
+            
+            // Lock the app again when the unlock window ends
+            if (targetPackage != null) {
+                Intent timerIntent = new Intent(this, com.smartappgatekeeper.service.TimerService.class);
+                timerIntent.setAction("START_TIMER");
+                timerIntent.putExtra("package_name", targetPackage);
+                timerIntent.putExtra("app_name", targetAppName);
+                timerIntent.putExtra("duration_minutes", unlockDurationMinutes);
+                startService(timerIntent);
+            }
             
             // Show success message
             android.widget.Toast.makeText(this, 
@@ -319,5 +374,8 @@ public class QuizActivity extends AppCompatActivity {
         if (timer != null) {
             timer.cancel();
         }
+        if (isUnlockMode && !isAppUnlocked && !isChangingConfigurations()) {
+            InterceptionStateMachine.getInstance().onQuizAbandoned(targetPackage);
+        }
     }
 }
@@ -11,22 +11,25 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.smartappgatekeeper.R;
 import com.smartappgatekeeper.database.entities.UsageEvent;
+import com.smartappgatekeeper.repository.UsageEventPager;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
 
 /**
  * Adapter for recent activity RecyclerView
- * Displays recent usage events in dashboard
+ * Displays recent usage events in dashboard, read page by page from a UsageEventPager
  */
-public class RecentActivityAdapter extends RecyclerView.Adapter<RecentActivityAdapter.ViewHolder> {
+public class RecentActivityAdapter extends RecyclerView.Adapter<RecentActivityAdapter.ViewHolder>
+        implements UsageEventPager.Listener {
     
-    private List<UsageEvent> activities = new ArrayList<>();
-    private SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm", Locale.getDefault());
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd", Locale.getDefault());
+    private final UsageEventPager pager;
+    
+    public RecentActivityAdapter(UsageEventPager pager) {
+        this.pager = pager;
+        pager.setListener(this);
+    }
     
     @NonNull
     @Override
@@ -38,26 +41,39 @@ public class RecentActivityAdapter extends RecyclerView.Adapter<RecentActivityAd
     
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        UsageEvent activity = activities.get(position);
-        holder.bind(activity);
+        UsageEvent activity = pager.get(position);
+        if (activity != null) {
+            holder.bind(activity);
+        } else {
+            holder.bindPlaceholder();
+        }
     }
     
     @Override
     public int getItemCount() {
-        return activities.size();
+        return pager.size();
     }
     
-    /**
-     * Update the data list
-     */
-    public void updateData(List<UsageEvent> newActivities) {
-        activities.clear();
-        if (newActivities != null) {
-            activities.addAll(newActivities);
-        }
+    @Override
+    public void onRefreshed() {
         notifyDataSetChanged();
     }
     
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        notifyItemRangeChanged(positionStart, itemCount);
+    }
+    
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        notifyItemRangeInserted(positionStart, itemCount);
+    }
+    
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        notifyItemRangeRemoved(positionStart, itemCount);
+    }
+    
     /**
      * ViewHolder for activity items
      */
@@ -75,9 +91,16 @@ public class RecentActivityAdapter extends RecyclerView.Adapter<RecentActivityAd
             textActivityTime = itemView.findViewById(R.id.text_activity_time);
         }
         
+        public void bindPlaceholder() {
+            imageActivityIcon.setImageResource(R.drawable.ic_quiz);
+            textActivityTitle.setText("Loading…");
+            textActivityDescription.setText("");
+            textActivityTime.setText("");
+        }
+        
         public void bind(UsageEvent activity) {
             // Set activity icon based on event type
-            if (activity.eventType.equals("QUIZ_COMPLETED")) {
+            if ("QUIZ_COMPLETED".equals(activity.eventType)) {
                 imageActivityIcon.setImageResource(R.drawable.ic_quiz);
             } else {
                 imageActivityIcon.setImageResource(R.drawable.ic_quiz);
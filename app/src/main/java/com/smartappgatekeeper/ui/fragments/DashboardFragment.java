@@ -391,36 +391,8 @@ public class DashboardFragment extends Fragment {
      * Setup recent activity adapter
      */
     private void setupRecentActivityAdapter() {
-        // Create a simple adapter for recent activity
-        androidx.recyclerview.widget.RecyclerView.Adapter<androidx.recyclerview.widget.RecyclerView.ViewHolder> adapter = 
-            new androidx.recyclerview.widget.RecyclerView.Adapter<androidx.recyclerview.widget.RecyclerView.ViewHolder>() {
-                @Override
-                public androidx.recyclerview.widget.RecyclerView.ViewHolder onCreateViewHolder(android.view.ViewGroup parent, int viewType) {
-                    android.view.View view = android.view.LayoutInflater.from(parent.getContext())
-                        .inflate(android.R.layout.simple_list_item_1, parent, false);
-                    return new androidx.recyclerview.widget.RecyclerView.ViewHolder(view) {};
-                }
-                
-                @Override
-                public void onBindViewHolder(androidx.recyclerview.widget.RecyclerView.ViewHolder holder, int position) {
-                    String[] activities = {
-                        "Completed Quiz: Programming Basics",
-                        "Earned 50 coins",
-                        "Achievement Unlocked: First Steps",
-                        "Started Course: Data Structures",
-                        "Streak: 5 days maintained"
-                    };
-                    if (position < activities.length) {
-                        ((android.widget.TextView) holder.itemView).setText(activities[position]);
-                    }
-                }
-                
-                @Override
-                public int getItemCount() {
-                    return 5; // Show 5 recent activities
-                }
-            };
-        recyclerRecentActivity.setAdapter(adapter);
+        recentActivityAdapter = new RecentActivityAdapter(viewModel.getRecentActivityPager());
+        recyclerRecentActivity.setAdapter(recentActivityAdapter);
     }
     
     /**
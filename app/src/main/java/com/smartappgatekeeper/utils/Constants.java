@@ -60,6 +60,9 @@ public class Constants {
     public static final String ACTION_ANALYZE_USAGE_PATTERNS = "ANALYZE_USAGE_PATTERNS";
     public static final String ACTION_CLEANUP_OLD_DATA = "CLEANUP_OLD_DATA";
     
+    // App Interception
+    public static final long INTERCEPTION_COALESCE_WINDOW_MS = 1500; // window events from one launch
+    
     // Event Types
     public static final String EVENT_QUIZ_STARTED = "quiz_started";
     public static final String EVENT_QUIZ_COMPLETED = "quiz_completed";
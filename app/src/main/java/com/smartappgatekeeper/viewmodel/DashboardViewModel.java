@@ -6,18 +6,15 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.smartappgatekeeper.repository.AppRepository;
-import com.smartappgatekeeper.database.entities.UsageEvent;
+import com.smartappgatekeeper.repository.QuerySubscriptions;
+import com.smartappgatekeeper.repository.UsageEventPager;
+import com.smartappgatekeeper.model.DashboardSnapshot;
 import com.smartappgatekeeper.database.entities.Streak;
 
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.Set;
-import java.util.HashSet;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * ViewModel for Dashboard Fragment
@@ -25,7 +22,14 @@ import java.util.concurrent.CompletableFuture;
  */
 public class DashboardViewModel extends AndroidViewModel {
     
+    private static final String USER_ID = "user_001";
+    private static final int RECENT_ACTIVITY_PAGE_SIZE = 10;
+    private static final int RECENT_ACTIVITY_PREFETCH_DISTANCE = 3;
+    private static final int RECENT_ACTIVITY_MAX_ITEMS = 10;
+    
     private final AppRepository repository;
+    private final QuerySubscriptions subscriptions = new QuerySubscriptions();
+    private final UsageEventPager recentActivityPager;
     
     // LiveData for UI
     private final MutableLiveData<String> todayUsage = new MutableLiveData<>();
@@ -36,178 +40,64 @@ public class DashboardViewModel extends AndroidViewModel {
     private final MutableLiveData<Integer> coinsEarned = new MutableLiveData<>();
     private final MutableLiveData<Integer> coursesCompleted = new MutableLiveData<>();
     private final MutableLiveData<String> courseProgress = new MutableLiveData<>();
-    private final MutableLiveData<List<UsageEvent>> recentActivity = new MutableLiveData<>();
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     
     public DashboardViewModel(Application application) {
         super(application);
         repository = AppRepository.getInstance(application);
+        recentActivityPager = new UsageEventPager(repository, RECENT_ACTIVITY_PAGE_SIZE,
+            RECENT_ACTIVITY_PREFETCH_DISTANCE, true, RECENT_ACTIVITY_MAX_ITEMS);
     }
     
     /**
      * Load all dashboard data
      */
     public void loadDashboardData() {
-        loadTodayUsage();
-        loadWeeklyUsage();
-        loadCurrentStreak();
-        loadQuestionsAnswered();
-        loadAccuracyRate();
-        loadCoinsEarned();
-        loadCoursesCompleted();
+        // Drop the previous load's observers before subscribing again
+        subscriptions.clear();
+        loadSnapshot();
+        loadCourseProgress();
         loadRecentActivity();
     }
     
     /**
-     * Load today's usage statistics
-     */
-    private void loadTodayUsage() {
-        Calendar calendar = Calendar.getInstance();
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        Date startOfDay = calendar.getTime();
-        
-        calendar.add(Calendar.DAY_OF_MONTH, 1);
-        Date endOfDay = calendar.getTime();
-        
-        repository.getUsageEventsByDateRange(startOfDay, endOfDay).observeForever(events -> {
-            if (events != null) {
-                long totalMinutes = calculateTotalUsageMinutes(events);
-                todayUsage.setValue(formatUsageTime(totalMinutes));
-            }
-        });
-    }
-    
-    /**
-     * Load weekly usage statistics
-     */
-    private void loadWeeklyUsage() {
-        Calendar calendar = Calendar.getInstance();
-        calendar.set(Calendar.DAY_OF_WEEK, Calendar.MONDAY);
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        Date startOfWeek = calendar.getTime();
-        
-        calendar.add(Calendar.DAY_OF_MONTH, 7);
-        Date endOfWeek = calendar.getTime();
-        
-        repository.getUsageEventsByDateRange(startOfWeek, endOfWeek).observeForever(events -> {
-            if (events != null) {
-                long totalMinutes = calculateTotalUsageMinutes(events);
-                weeklyUsage.setValue(formatUsageTime(totalMinutes));
-            }
-        });
-    }
-    
-    /**
-     * Load current streak
-     */
-    private void loadCurrentStreak() {
-        repository.getStreakByType("daily").observeForever(streak -> {
-            if (streak != null) {
-                currentStreak.setValue(streak.currentCount);
-            } else {
-                currentStreak.setValue(0);
-            }
-        });
-    }
-    
-    /**
-     * Load questions answered count
-     */
-    private void loadQuestionsAnswered() {
-        repository.getTotalQuestionsAnswered().observeForever(count -> {
-            if (count != null) {
-                questionsAnswered.setValue(count);
-            } else {
-                questionsAnswered.setValue(0);
-            }
-        });
-    }
-    
-    /**
-     * Load accuracy rate
-     */
-    private void loadAccuracyRate() {
-        CompletableFuture<Integer> totalQuestionsFuture = repository.getTotalQuestionsAnswered().getValue() != null ?
-            CompletableFuture.completedFuture(repository.getTotalQuestionsAnswered().getValue()) :
-            CompletableFuture.completedFuture(0);
-            
-        CompletableFuture<Integer> correctAnswersFuture = repository.getTotalCorrectAnswers().getValue() != null ?
-            CompletableFuture.completedFuture(repository.getTotalCorrectAnswers().getValue()) :
-            CompletableFuture.completedFuture(0);
-        
-        CompletableFuture.allOf(totalQuestionsFuture, correctAnswersFuture).thenRun(() -> {
-            int total = totalQuestionsFuture.join();
-            int correct = correctAnswersFuture.join();
-            
-            if (total > 0) {
-                double accuracy = (double) correct / total * 100;
-                accuracyRate.setValue(accuracy);
-            } else {
-                accuracyRate.setValue(0.0);
-            }
-        });
-    }
-    
-    /**
-     * Load coins earned
+     * Show the last persisted snapshot at once, then follow the live aggregate
      */
-    private void loadCoinsEarned() {
-        repository.getTotalCoinsEarned().observeForever(coins -> {
-            if (coins != null) {
-                coinsEarned.setValue(coins);
-            } else {
-                coinsEarned.setValue(0);
+    private void loadSnapshot() {
+        DashboardSnapshot cached = repository.getCachedDashboardSnapshot();
+        if (cached != null) {
+            applySnapshot(cached);
+        }
+        subscriptions.observe(repository.getDashboardSnapshot(USER_ID), snapshot -> {
+            if (snapshot != null) {
+                applySnapshot(snapshot);
             }
         });
     }
     
-    /**
-     * Load courses completed count
-     */
-    private void loadCoursesCompleted() {
-        // Implement course completion tracking
-        trackCourseCompletion();
-        coursesCompleted.setValue(0);
+    private void applySnapshot(DashboardSnapshot snapshot) {
+        // Usage figures of a snapshot from an earlier day no longer apply
+        boolean sameDay = snapshot.epochDay == LocalDate.now().toEpochDay();
+        todayUsage.setValue(formatUsageTime(sameDay ? snapshot.todayUnlockedSeconds / 60 : 0));
+        weeklyUsage.setValue(formatUsageTime(snapshot.weekUnlockedSeconds / 60));
+        currentStreak.setValue(snapshot.currentStreak);
+        questionsAnswered.setValue(snapshot.questionsAnswered);
+        accuracyRate.setValue(snapshot.getAccuracy());
+        coinsEarned.setValue(snapshot.coinsEarned);
+        coursesCompleted.setValue(snapshot.coursesCompleted);
     }
     
     /**
-     * Track course completion based on quiz results
+     * Load per-topic course progress from quiz results
      */
-    private void trackCourseCompletion() {
-        // Get quiz results from repository
-        repository.getQuizResultsByUser("user_001").observeForever(quizResults -> {
+    private void loadCourseProgress() {
+        subscriptions.observe(repository.getQuizResultsByUser(USER_ID), quizResults -> {
             if (quizResults != null) {
-                // Count completed courses based on quiz topics
-                int completedCourses = calculateCompletedCourses(quizResults);
-                coursesCompleted.setValue(completedCourses);
-                
-                // Update course progress
                 updateCourseProgress(quizResults);
             }
         });
     }
     
-    /**
-     * Calculate completed courses based on quiz results
-     */
-    private int calculateCompletedCourses(List<com.smartappgatekeeper.database.entities.QuizResult> quizResults) {
-        Set<String> completedTopics = new HashSet<>();
-        
-        for (com.smartappgatekeeper.database.entities.QuizResult result : quizResults) {
-            if (result.isPassed && result.accuracy >= 80.0) { // 80%+ accuracy for course completion
-                completedTopics.add(result.topic);
-            }
-        }
-        
-        return completedTopics.size();
-    }
-    
     /**
      * Update course progress based on quiz performance
      */
@@ -242,31 +132,12 @@ public class DashboardViewModel extends AndroidViewModel {
      * Load recent activity
      */
     private void loadRecentActivity() {
-        repository.getAllUsageEvents().observeForever(events -> {
-            if (events != null) {
-                // Get last 10 events
-                List<UsageEvent> recentEvents = events.size() > 10 ? 
-                    events.subList(0, 10) : events;
-                recentActivity.setValue(recentEvents);
-            } else {
-                recentActivity.setValue(new ArrayList<>());
-            }
+        // Any change to usage_events restarts the feed from the newest page
+        subscriptions.observe(repository.getUsageEventCount(), count -> {
+            recentActivityPager.refresh(count != null ? count : 0);
         });
     }
     
-    /**
-     * Calculate total usage minutes from events
-     */
-    private long calculateTotalUsageMinutes(List<UsageEvent> events) {
-        long totalSeconds = 0;
-        for (UsageEvent event : events) {
-            if ("app_unlock".equals(event.eventType) && event.durationSeconds > 0) {
-                totalSeconds += event.durationSeconds;
-            }
-        }
-        return totalSeconds / 60; // Convert to minutes
-    }
-    
     /**
      * Format usage time for display
      */
@@ -289,6 +160,12 @@ public class DashboardViewModel extends AndroidViewModel {
     public LiveData<Integer> getCoinsEarned() { return coinsEarned; }
     public LiveData<Integer> getCoursesCompleted() { return coursesCompleted; }
     public LiveData<String> getCourseProgress() { return courseProgress; }
-    public LiveData<List<UsageEvent>> getRecentActivity() { return recentActivity; }
+    public UsageEventPager getRecentActivityPager() { return recentActivityPager; }
     public LiveData<String> getErrorMessage() { return errorMessage; }
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        subscriptions.clear();
+    }
 }
\ No newline at end of file
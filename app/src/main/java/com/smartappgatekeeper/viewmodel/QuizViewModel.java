@@ -6,9 +6,12 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.smartappgatekeeper.model.Question;
+import com.smartappgatekeeper.model.QuizSession;
 import com.smartappgatekeeper.database.entities.QuizResult;
 import com.smartappgatekeeper.repository.AppRepository;
 import com.smartappgatekeeper.service.QuestionBankService;
+import com.smartappgatekeeper.service.ReadyQuizPool;
+import com.smartappgatekeeper.service.ReviewScheduler;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,6 +42,7 @@ public class QuizViewModel extends AndroidViewModel {
     private int correctCount = 0;
     private boolean quizActive = false;
     private boolean quizCompleted = false;
+    private long questionShownAtMillis = System.currentTimeMillis();
     
     public QuizViewModel(Application application) {
         super(application);
@@ -61,6 +65,23 @@ public class QuizViewModel extends AndroidViewModel {
         generateSampleQuestions();
     }
     
+    /**
+     * Load a quiz session pre-built by ReadyQuizPool
+     * @return false if the session is unknown or was already claimed
+     */
+    public boolean loadPreparedSession(String sessionId) {
+        QuizSession session = ReadyQuizPool.getInstance(getApplication()).claim(sessionId);
+        if (session == null || session.isEmpty()) {
+            return false;
+        }
+        
+        allQuestions = new ArrayList<>(session.getQuestions());
+        currentQuestion.setValue(allQuestions.get(0));
+        questionShownAtMillis = System.currentTimeMillis();
+        totalQuestions.setValue(allQuestions.size());
+        return true;
+    }
+    
     /**
      * Get next question
      */
@@ -69,6 +90,7 @@ public class QuizViewModel extends AndroidViewModel {
             currentIndex++;
             currentQuestionIndex.setValue(currentIndex);
             currentQuestion.setValue(allQuestions.get(currentIndex));
+            questionShownAtMillis = System.currentTimeMillis();
         }
     }
     
@@ -80,6 +102,7 @@ public class QuizViewModel extends AndroidViewModel {
             currentIndex--;
             currentQuestionIndex.setValue(currentIndex);
             currentQuestion.setValue(allQuestions.get(currentIndex));
+            questionShownAtMillis = System.currentTimeMillis();
         }
     }
     
@@ -90,6 +113,8 @@ public class QuizViewModel extends AndroidViewModel {
         if (currentIndex < allQuestions.size()) {
             Question question = allQuestions.get(currentIndex);
             boolean isCorrect = selectedAnswer.equals(question.getCorrectAnswer());
+            int secondsSpent = (int) ((System.currentTimeMillis() - questionShownAtMillis) / 1000);
+            ReviewScheduler.getInstance(getApplication()).recordAnswer(question, isCorrect, secondsSpent);
             
             if (isCorrect) {
                 currentScore += 10; // 10 points per correct answer
@@ -197,13 +222,13 @@ public class QuizViewModel extends AndroidViewModel {
      * Generate questions from comprehensive question bank
      */
     public void generateSampleQuestions() {
-        QuestionBankService questionBank = QuestionBankService.getInstance();
-        allQuestions = questionBank.getRandomQuestions(15); // Get 15 random questions
-        Collections.shuffle(allQuestions);
+        QuestionBankService questionBank = QuestionBankService.getInstance(getApplication());
+        allQuestions = questionBank.getRandomQuestions(15); // Get 15 random questions, already in random order
         
         // Update UI
         if (!allQuestions.isEmpty()) {
             currentQuestion.setValue(allQuestions.get(0));
+            questionShownAtMillis = System.currentTimeMillis();
             totalQuestions.setValue(allQuestions.size());
         }
     }
@@ -212,12 +237,13 @@ public class QuizViewModel extends AndroidViewModel {
      * Generate questions by topic
      */
     public void generateQuestionsByTopic(String topic) {
-        QuestionBankService questionBank = QuestionBankService.getInstance();
+        QuestionBankService questionBank = QuestionBankService.getInstance(getApplication());
         allQuestions = questionBank.getQuestionsByTopic(topic);
         Collections.shuffle(allQuestions);
         
         if (!allQuestions.isEmpty()) {
             currentQuestion.setValue(allQuestions.get(0));
+            questionShownAtMillis = System.currentTimeMillis();
             totalQuestions.setValue(allQuestions.size());
         }
     }
@@ -226,12 +252,13 @@ public class QuizViewModel extends AndroidViewModel {
      * Generate questions by difficulty
      */
     public void generateQuestionsByDifficulty(String difficulty) {
-        QuestionBankService questionBank = QuestionBankService.getInstance();
+        QuestionBankService questionBank = QuestionBankService.getInstance(getApplication());
         allQuestions = questionBank.getQuestionsByDifficulty(difficulty);
         Collections.shuffle(allQuestions);
         
         if (!allQuestions.isEmpty()) {
             currentQuestion.setValue(allQuestions.get(0));
+            questionShownAtMillis = System.currentTimeMillis();
             totalQuestions.setValue(allQuestions.size());
         }
     }
@@ -240,7 +267,7 @@ public class QuizViewModel extends AndroidViewModel {
      * Get available topics
      */
     public List<String> getAvailableTopics() {
-        QuestionBankService questionBank = QuestionBankService.getInstance();
+        QuestionBankService questionBank = QuestionBankService.getInstance(getApplication());
         return questionBank.getAvailableTopics();
     }
     
@@ -248,7 +275,7 @@ public class QuizViewModel extends AndroidViewModel {
      * Get question count by topic
      */
     public int getQuestionCountByTopic(String topic) {
-        QuestionBankService questionBank = QuestionBankService.getInstance();
+        QuestionBankService questionBank = QuestionBankService.getInstance(getApplication());
         return questionBank.getQuestionCountByTopic(topic);
     }
     
@@ -256,7 +283,7 @@ public class QuizViewModel extends AndroidViewModel {
      * Get total question count
      */
     public int getTotalQuestionCount() {
-        QuestionBankService questionBank = QuestionBankService.getInstance();
+        QuestionBankService questionBank = QuestionBankService.getInstance(getApplication());
         return questionBank.getTotalQuestionCount();
     }
     
@@ -316,9 +343,18 @@ public class QuizViewModel extends AndroidViewModel {
     }
     
     public void startQuiz() {
+        startQuiz(null);
+    }
+    
+    /**
+     * Start the quiz, preferring a pre-built session when one was handed over
+     */
+    public void startQuiz(String sessionId) {
         quizActive = true;
         isQuizActive.setValue(true);
-        loadQuestions();
+        if (sessionId == null || !loadPreparedSession(sessionId)) {
+            loadQuestions();
+        }
         startQuizTimer();
     }
     
@@ -1,17 +1,18 @@
 package com.smartappgatekeeper.viewmodel;
 
 import android.app.Application;
+import android.content.pm.PackageManager;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import com.smartappgatekeeper.repository.AppRepository;
-import com.smartappgatekeeper.database.entities.UsageEvent;
+import com.smartappgatekeeper.repository.QuerySubscriptions;
+import com.smartappgatekeeper.repository.UsageStatsEngine;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.LocalDate;
+import java.time.ZoneId;
 
 /**
  * ViewModel for ReportsFragment
@@ -19,7 +20,10 @@ import java.util.Map;
  */
 public class ReportsViewModel extends AndroidViewModel {
     
+    private static final int TOP_APPS_LIMIT = 5;
+    
     private final AppRepository repository;
+    private final QuerySubscriptions subscriptions = new QuerySubscriptions();
     private final MutableLiveData<UsageStats> todayStats = new MutableLiveData<>();
     private final MutableLiveData<UsageStats> weekStats = new MutableLiveData<>();
     private final MutableLiveData<UsageStats> monthStats = new MutableLiveData<>();
@@ -37,215 +41,61 @@ public class ReportsViewModel extends AndroidViewModel {
      * Load all reports data
      */
     private void loadData() {
-        loadTodayStats();
-        loadWeekStats();
-        loadMonthStats();
-        loadTopApps();
-        loadWeeklyProgress();
-    }
-    
-    /**
-     * Load today's usage statistics
-     */
-    private void loadTodayStats() {
-        repository.getAllUsageEvents().observeForever(events -> {
-            if (events != null) {
-                UsageStats stats = calculateUsageStats(events, getTodayStart(), getTodayEnd());
-                todayStats.setValue(stats);
-            } else {
-                todayStats.setValue(new UsageStats(0, 0, 0, 0));
-            }
-        });
-    }
-    
-    /**
-     * Load this week's usage statistics
-     */
-    private void loadWeekStats() {
-        repository.getAllUsageEvents().observeForever(events -> {
-            if (events != null) {
-                UsageStats stats = calculateUsageStats(events, getWeekStart(), getWeekEnd());
-                weekStats.setValue(stats);
-            } else {
-                weekStats.setValue(new UsageStats(0, 0, 0, 0));
-            }
-        });
-    }
-    
-    /**
-     * Load this month's usage statistics
-     */
-    private void loadMonthStats() {
-        repository.getAllUsageEvents().observeForever(events -> {
-            if (events != null) {
-                UsageStats stats = calculateUsageStats(events, getMonthStart(), getMonthEnd());
-                monthStats.setValue(stats);
-            } else {
-                monthStats.setValue(new UsageStats(0, 0, 0, 0));
-            }
-        });
-    }
-    
-    /**
-     * Load top used apps
-     */
-    private void loadTopApps() {
-        repository.getAllUsageEvents().observeForever(events -> {
-            if (events != null) {
-                List<AppUsage> topAppsList = calculateTopApps(events);
-                topApps.setValue(topAppsList);
-            } else {
-                topApps.setValue(new ArrayList<>());
+        // Drop the previous load's observers before subscribing again
+        subscriptions.clear();
+        
+        // One rollup query feeds every window, the weekly progress and the top apps
+        LocalDate subscribedDay = LocalDate.now();
+        long startDay = UsageStatsEngine.getStartDay(subscribedDay);
+        long endDay = UsageStatsEngine.getEndDay(subscribedDay);
+        subscriptions.observe(repository.getUsageRollupsByDays(startDay, endDay), rollups -> {
+            // The ViewModel can outlive midnight, so take the date on every emission
+            LocalDate today = LocalDate.now();
+            if (UsageStatsEngine.getStartDay(today) != startDay || UsageStatsEngine.getEndDay(today) != endDay) {
+                // The windows no longer fit the subscribed range; query the new one
+                loadData();
+                return;
             }
+            UsageStatsEngine.Result result = UsageStatsEngine.compute(rollups, today, TOP_APPS_LIMIT);
+            todayStats.setValue(toUsageStats(result.getWindow(UsageStatsEngine.WINDOW_TODAY)));
+            weekStats.setValue(toUsageStats(result.getWindow(UsageStatsEngine.WINDOW_WEEK)));
+            monthStats.setValue(toUsageStats(result.getWindow(UsageStatsEngine.WINDOW_MONTH)));
+            topApps.setValue(toAppUsage(result.topPackages));
+            weeklyProgress.setValue(toDailyProgress(result.weeklyProgress));
         });
     }
     
-    /**
-     * Load weekly progress data
-     */
-    private void loadWeeklyProgress() {
-        List<DailyProgress> progress = new ArrayList<>();
-        
-        Calendar cal = Calendar.getInstance();
-        for (int i = 6; i >= 0; i--) {
-            cal.add(Calendar.DAY_OF_MONTH, -i);
-            Date date = cal.getTime();
-            
-            // Mock data - in real app, calculate from actual usage
-            int questionsAnswered = (int) (Math.random() * 20);
-            int timeSaved = questionsAnswered * 2; // 2 minutes per question
-            int streak = i < 3 ? i + 1 : 0; // Mock streak pattern
-            
-            progress.add(new DailyProgress(date, questionsAnswered, timeSaved, streak));
-        }
-        
-        weeklyProgress.setValue(progress);
+    private UsageStats toUsageStats(UsageStatsEngine.WindowStats window) {
+        return new UsageStats(window.totalEvents, window.quizzesCompleted, window.minutesSaved, window.sessionsCompleted);
     }
     
     /**
-     * Calculate usage statistics for a time period
+     * Resolve top package names to app labels
      */
-    private UsageStats calculateUsageStats(List<UsageEvent> events, long startTime, long endTime) {
-        int totalQuestions = 0;
-        int correctAnswers = 0;
-        int timeSaved = 0;
-        int sessionsCompleted = 0;
-        
-        for (UsageEvent event : events) {
-            if (event.getTimestampLong() >= startTime && event.getTimestampLong() <= endTime) {
-                totalQuestions++;
-                if (event.getEventType().equals("quiz_completed")) {
-                    correctAnswers++;
-                    timeSaved += 2; // 2 minutes saved per correct answer
-                }
-                if (event.getEventType().equals("session_completed")) {
-                    sessionsCompleted++;
-                }
+    private List<AppUsage> toAppUsage(List<UsageStatsEngine.PackageCount> packageCounts) {
+        PackageManager packageManager = getApplication().getPackageManager();
+        List<AppUsage> topAppsList = new ArrayList<>(packageCounts.size());
+        for (UsageStatsEngine.PackageCount packageCount : packageCounts) {
+            String appName = packageCount.packageName;
+            try {
+                appName = packageManager.getApplicationLabel(
+                    packageManager.getApplicationInfo(packageCount.packageName, 0)).toString();
+            } catch (PackageManager.NameNotFoundException e) {
+                // Uninstalled since; show the package name
             }
+            topAppsList.add(new AppUsage(appName, packageCount.eventCount));
         }
-        
-        return new UsageStats(totalQuestions, correctAnswers, timeSaved, sessionsCompleted);
+        return topAppsList;
     }
     
-    /**
-     * Calculate top used apps
-     */
-    private List<AppUsage> calculateTopApps(List<UsageEvent> events) {
-        Map<String, Integer> appUsageCount = new HashMap<>();
-        
-        for (UsageEvent event : events) {
-            String appName = event.getAppName();
-            if (appName != null) {
-                appUsageCount.put(appName, appUsageCount.getOrDefault(appName, 0) + 1);
-            }
-        }
-        
-        List<AppUsage> topAppsList = new ArrayList<>();
-        for (Map.Entry<String, Integer> entry : appUsageCount.entrySet()) {
-            topAppsList.add(new AppUsage(entry.getKey(), entry.getValue()));
+    private List<DailyProgress> toDailyProgress(List<UsageStatsEngine.DayStats> days) {
+        ZoneId zone = ZoneId.systemDefault();
+        List<DailyProgress> progress = new ArrayList<>(days.size());
+        for (UsageStatsEngine.DayStats day : days) {
+            Date date = Date.from(LocalDate.ofEpochDay(day.epochDay).atStartOfDay(zone).toInstant());
+            progress.add(new DailyProgress(date, day.totalEvents, day.minutesSaved, day.streak));
         }
-        
-        // Sort by usage count (descending)
-        topAppsList.sort((a, b) -> Integer.compare(b.getUsageCount(), a.getUsageCount()));
-        
-        // Return top 5
-        return topAppsList.size() > 5 ? topAppsList.subList(0, 5) : topAppsList;
-    }
-    
-    /**
-     * Get today's start time
-     */
-    private long getTodayStart() {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-        return cal.getTimeInMillis();
-    }
-    
-    /**
-     * Get today's end time
-     */
-    private long getTodayEnd() {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.HOUR_OF_DAY, 23);
-        cal.set(Calendar.MINUTE, 59);
-        cal.set(Calendar.SECOND, 59);
-        cal.set(Calendar.MILLISECOND, 999);
-        return cal.getTimeInMillis();
-    }
-    
-    /**
-     * Get week's start time
-     */
-    private long getWeekStart() {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.DAY_OF_WEEK, Calendar.MONDAY);
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-        return cal.getTimeInMillis();
-    }
-    
-    /**
-     * Get week's end time
-     */
-    private long getWeekEnd() {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.DAY_OF_WEEK, Calendar.SUNDAY);
-        cal.set(Calendar.HOUR_OF_DAY, 23);
-        cal.set(Calendar.MINUTE, 59);
-        cal.set(Calendar.SECOND, 59);
-        cal.set(Calendar.MILLISECOND, 999);
-        return cal.getTimeInMillis();
-    }
-    
-    /**
-     * Get month's start time
-     */
-    private long getMonthStart() {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.DAY_OF_MONTH, 1);
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-        return cal.getTimeInMillis();
-    }
-    
-    /**
-     * Get month's end time
-     */
-    private long getMonthEnd() {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.DAY_OF_MONTH, cal.getActualMaximum(Calendar.DAY_OF_MONTH));
-        cal.set(Calendar.HOUR_OF_DAY, 23);
-        cal.set(Calendar.MINUTE, 59);
-        cal.set(Calendar.SECOND, 59);
-        cal.set(Calendar.MILLISECOND, 999);
-        return cal.getTimeInMillis();
+        return progress;
     }
     
     /**
@@ -255,6 +105,12 @@ public class ReportsViewModel extends AndroidViewModel {
         loadData();
     }
     
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        subscriptions.clear();
+    }
+    
     // Getters
     public LiveData<UsageStats> getTodayStats() {
         return todayStats;
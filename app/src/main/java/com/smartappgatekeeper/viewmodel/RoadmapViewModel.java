@@ -5,6 +5,7 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import com.smartappgatekeeper.repository.AppRepository;
+import com.smartappgatekeeper.repository.QuerySubscriptions;
 import com.smartappgatekeeper.database.entities.Streak;
 import com.smartappgatekeeper.database.entities.UsageEvent;
 import java.util.List;
@@ -18,7 +19,10 @@ import java.util.Date;
  */
 public class RoadmapViewModel extends AndroidViewModel {
     
+    private static final int RECENT_ACTIVITY_LIMIT = 10;
+    
     private final AppRepository repository;
+    private final QuerySubscriptions subscriptions = new QuerySubscriptions();
     private final MutableLiveData<List<LearningMilestone>> learningProgress = new MutableLiveData<>();
     private final MutableLiveData<Integer> currentStreak = new MutableLiveData<>();
     private final MutableLiveData<List<Achievement>> achievements = new MutableLiveData<>();
@@ -35,6 +39,8 @@ public class RoadmapViewModel extends AndroidViewModel {
      * Load all roadmap data
      */
     private void loadData() {
+        // Drop the previous load's observers before subscribing again
+        subscriptions.clear();
         loadLearningProgress();
         loadCurrentStreak();
         loadAchievements();
@@ -69,7 +75,7 @@ public class RoadmapViewModel extends AndroidViewModel {
      * Load current streak data
      */
     private void loadCurrentStreak() {
-        repository.getStreakByType("daily").observeForever(streak -> {
+        subscriptions.observe(repository.getStreakByType("daily"), streak -> {
             if (streak != null) {
                 currentStreak.setValue(streak.getCount());
             } else {
@@ -98,15 +104,9 @@ public class RoadmapViewModel extends AndroidViewModel {
      * Load recent activity
      */
     private void loadRecentActivity() {
-        repository.getAllUsageEvents().observeForever(events -> {
-            if (events != null && !events.isEmpty()) {
-                // Get last 10 events
-                List<UsageEvent> recent = events.size() > 10 ? 
-                    events.subList(events.size() - 10, events.size()) : events;
-                recentActivity.setValue(recent);
-            } else {
-                recentActivity.setValue(new ArrayList<>());
-            }
+        // Only the 10 newest events are read, newest first
+        subscriptions.observe(repository.getRecentUsageEvents(RECENT_ACTIVITY_LIMIT), events -> {
+            recentActivity.setValue(events != null ? events : new ArrayList<>());
         });
     }
     
@@ -117,6 +117,12 @@ public class RoadmapViewModel extends AndroidViewModel {
         loadData();
     }
     
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        subscriptions.clear();
+    }
+    
     // Getters
     public LiveData<List<LearningMilestone>> getLearningProgress() {
         return learningProgress;
@@ -234,13 +234,6 @@ public class SettingsViewModel extends AndroidViewModel {
                 }
             });
             
-            // Get usage events
-            repository.getAllUsageEvents().observeForever(usageEvents -> {
-                if (usageEvents != null) {
-                    exportData.usageEvents = usageEvents;
-                }
-            });
-            
             // Get streaks
             repository.getAllStreaks().observeForever(streaks -> {
                 if (streaks != null) {
@@ -248,11 +241,21 @@ public class SettingsViewModel extends AndroidViewModel {
                 }
             });
             
-            // Convert to JSON and save
-            String jsonData = convertToJson(exportData);
-            saveToFile(jsonData, "smart_app_gatekeeper_export.json");
-            
-            successMessage.setValue("✅ Data exported successfully!");
+            // The export only reports the usage event count; write it once the count is read
+            repository.getUsageEventCountAsync()
+                .thenAccept(usageEventCount -> {
+                    exportData.usageEventsCount = usageEventCount;
+                    
+                    // Convert to JSON and save
+                    String jsonData = convertToJson(exportData);
+                    saveToFile(jsonData, "smart_app_gatekeeper_export.json");
+                    
+                    successMessage.postValue("✅ Data exported successfully!");
+                })
+                .exceptionally(e -> {
+                    errorMessage.postValue("❌ Export failed: " + e.getMessage());
+                    return null;
+                });
             
         } catch (Exception e) {
             errorMessage.setValue("❌ Export failed: " + e.getMessage());
@@ -284,7 +287,7 @@ public class SettingsViewModel extends AndroidViewModel {
         json.append("  \"appVersion\": \"").append(exportData.appVersion).append("\",\n");
         json.append("  \"dataType\": \"Smart App Gatekeeper Export\",\n");
         json.append("  \"quizResultsCount\": ").append(exportData.quizResults != null ? exportData.quizResults.size() : 0).append(",\n");
-        json.append("  \"usageEventsCount\": ").append(exportData.usageEvents != null ? exportData.usageEvents.size() : 0).append(",\n");
+        json.append("  \"usageEventsCount\": ").append(exportData.usageEventsCount).append(",\n");
         json.append("  \"streaksCount\": ").append(exportData.streaks != null ? exportData.streaks.size() : 0).append("\n");
         json.append("}");
         return json.toString();
@@ -307,7 +310,7 @@ public class SettingsViewModel extends AndroidViewModel {
         public String appVersion;
         public com.smartappgatekeeper.database.entities.UserProfile userProfile;
         public java.util.List<com.smartappgatekeeper.database.entities.QuizResult> quizResults;
-        public java.util.List<com.smartappgatekeeper.database.entities.UsageEvent> usageEvents;
+        public int usageEventsCount;
         public java.util.List<com.smartappgatekeeper.database.entities.Streak> streaks;
     }
     
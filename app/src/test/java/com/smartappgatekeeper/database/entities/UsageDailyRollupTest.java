@@ -0,0 +1,130 @@
+package com.smartappgatekeeper.database.entities;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Incremental rollup deltas checked against a naive GROUP BY over the raw events
+ */
+public class UsageDailyRollupTest {
+
+    private static final String[] PACKAGES = {"com.example.a", "com.example.b", "com.example.c", "", null};
+    private static final String[] TYPES = {"app_launch", "app_unlock", "quiz_success", "quiz_failure", null};
+
+    @Test
+    public void nullAndEmptyKeysShareOneRow() {
+        UsageEvent withNulls = event(10, null, null, 5);
+        UsageEvent withEmpty = event(10, "", "", 7);
+
+        Collection<UsageDailyRollup> deltas = UsageDailyRollup.deltasOf(Arrays.asList(withNulls, withEmpty));
+
+        assertEquals(1, deltas.size());
+        UsageDailyRollup row = deltas.iterator().next();
+        assertEquals("", row.packageName);
+        assertEquals("", row.eventType);
+        assertEquals(2, row.eventCount);
+        assertEquals(12, row.totalDurationSeconds);
+    }
+
+    @Test
+    public void negativeDurationsCountAsZero() {
+        Collection<UsageDailyRollup> deltas = UsageDailyRollup.deltasOf(Arrays.asList(
+                event(10, "com.example.a", "app_unlock", -30),
+                event(10, "com.example.a", "app_unlock", 20)));
+
+        assertEquals(1, deltas.size());
+        assertEquals(20, deltas.iterator().next().totalDurationSeconds);
+    }
+
+    @Test
+    public void batchedDeltasMatchGroupByOnRandomEvents() {
+        Random random = new Random(13);
+        for (int round = 0; round < 20; round++) {
+            List<UsageEvent> events = new ArrayList<>();
+            int count = 1 + random.nextInt(5_000);
+            for (int i = 0; i < count; i++) {
+                UsageEvent event = event(
+                        19_000 + random.nextInt(30),
+                        PACKAGES[random.nextInt(PACKAGES.length)],
+                        TYPES[random.nextInt(TYPES.length)],
+                        random.nextInt(600) - 60);
+                event.coinsEarned = random.nextInt(20);
+                event.timeSpentSeconds = random.nextInt(120);
+                events.add(event);
+            }
+
+            // Events arrive in journal batches of any size; each batch is folded and merged on its own
+            Map<String, UsageDailyRollup> table = new HashMap<>();
+            int start = 0;
+            while (start < events.size()) {
+                int end = Math.min(events.size(), start + 1 + random.nextInt(100));
+                for (UsageDailyRollup delta : UsageDailyRollup.deltasOf(events.subList(start, end))) {
+                    applyDelta(table, delta);
+                }
+                start = end;
+            }
+
+            assertEquals(groupBy(events), table);
+        }
+    }
+
+    /**
+     * insertIfAbsent followed by addToRollup
+     */
+    private static void applyDelta(Map<String, UsageDailyRollup> table, UsageDailyRollup delta) {
+        String key = delta.epochDay + "|" + delta.packageName + "|" + delta.eventType;
+        UsageDailyRollup row = table.get(key);
+        if (row == null) {
+            row = new UsageDailyRollup(delta.epochDay, delta.packageName, delta.eventType);
+            table.put(key, row);
+        }
+        row.eventCount += delta.eventCount;
+        row.totalDurationSeconds += delta.totalDurationSeconds;
+        row.totalCoinsEarned += delta.totalCoinsEarned;
+        row.totalTimeSpentSeconds += delta.totalTimeSpentSeconds;
+    }
+
+    /**
+     * SELECT epochDay, IFNULL(packageName, ''), IFNULL(eventType, ''), COUNT(*), SUM(MAX(durationSeconds, 0)),
+     * SUM(coinsEarned), SUM(timeSpentSeconds) FROM usage_events GROUP BY 1, 2, 3
+     */
+    private static Map<String, UsageDailyRollup> groupBy(List<UsageEvent> events) {
+        Map<String, UsageDailyRollup> rows = new HashMap<>();
+        for (UsageEvent event : events) {
+            String packageName = event.packageName == null ? "" : event.packageName;
+            String eventType = event.eventType == null ? "" : event.eventType;
+            String key = event.epochDay + "|" + packageName + "|" + eventType;
+            UsageDailyRollup row = rows.get(key);
+            if (row == null) {
+                row = new UsageDailyRollup();
+                row.epochDay = event.epochDay;
+                row.packageName = packageName;
+                row.eventType = eventType;
+                rows.put(key, row);
+            }
+            row.eventCount++;
+            row.totalDurationSeconds += event.durationSeconds > 0 ? event.durationSeconds : 0;
+            row.totalCoinsEarned += event.coinsEarned;
+            row.totalTimeSpentSeconds += event.timeSpentSeconds;
+        }
+        return rows;
+    }
+
+    private static UsageEvent event(long epochDay, String packageName, String eventType, long durationSeconds) {
+        UsageEvent event = new UsageEvent();
+        event.epochDay = epochDay;
+        event.packageName = packageName;
+        event.eventType = eventType;
+        event.durationSeconds = durationSeconds;
+        return event;
+    }
+}
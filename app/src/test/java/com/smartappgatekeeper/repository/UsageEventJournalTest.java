@@ -0,0 +1,298 @@
+package com.smartappgatekeeper.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.smartappgatekeeper.database.entities.UsageEvent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UsageEventJournal batching, delayed flush, backpressure and failed writes, with an in-memory writer
+ */
+public class UsageEventJournalTest {
+
+    /**
+     * Records every batch; optionally blocks until released to simulate a slow database
+     */
+    private static final class RecordingWriter implements UsageEventJournal.BatchWriter {
+        final List<List<UsageEvent>> batches = new ArrayList<>();
+        final List<Long> writeTimes = new ArrayList<>();
+        volatile CountDownLatch gate;
+        volatile int failures; // next writes that throw, as a failed transaction would
+
+        @Override
+        public void write(List<UsageEvent> batch) {
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("database is locked");
+            }
+            CountDownLatch current = gate;
+            if (current != null) {
+                try {
+                    current.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (this) {
+                batches.add(new ArrayList<>(batch));
+                writeTimes.add(System.nanoTime());
+            }
+        }
+
+        synchronized int rowCount() {
+            int rows = 0;
+            for (List<UsageEvent> batch : batches) {
+                rows += batch.size();
+            }
+            return rows;
+        }
+
+        synchronized BitSet ids() {
+            BitSet ids = new BitSet();
+            for (List<UsageEvent> batch : batches) {
+                for (UsageEvent event : batch) {
+                    assertTrue("Event written twice: " + event.id, !ids.get(event.id));
+                    ids.set(event.id);
+                }
+            }
+            return ids;
+        }
+    }
+
+    @Test
+    public void fullBatchIsWrittenWithoutWaitingForTheTimer() {
+        RecordingWriter writer = new RecordingWriter();
+        UsageEventJournal journal = new UsageEventJournal(writer);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < UsageEventJournal.BATCH_SIZE; i++) {
+            journal.append(event(i));
+        }
+        awaitRows(writer, UsageEventJournal.BATCH_SIZE, UsageEventJournal.MAX_DELAY_MS / 2);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < UsageEventJournal.MAX_DELAY_MS);
+        assertEquals(1, writer.batches.size());
+        assertEquals(UsageEventJournal.BATCH_SIZE, writer.batches.get(0).size());
+        journal.flushAndWait(1000);
+    }
+
+    @Test
+    public void lonelyEventWaitsForTheDelay() {
+        RecordingWriter writer = new RecordingWriter();
+        UsageEventJournal journal = new UsageEventJournal(writer);
+
+        long start = System.nanoTime();
+        journal.append(event(0));
+        awaitRows(writer, 1, UsageEventJournal.MAX_DELAY_MS * 3);
+
+        long waited = TimeUnit.NANOSECONDS.toMillis(writer.writeTimes.get(0) - start);
+        assertTrue("Flushed after " + waited + " ms", waited >= UsageEventJournal.MAX_DELAY_MS - 50);
+        assertEquals(0, journal.getPendingCount());
+    }
+
+    @Test
+    public void flushAndWaitCommitsPendingEvents() {
+        RecordingWriter writer = new RecordingWriter();
+        UsageEventJournal journal = new UsageEventJournal(writer);
+
+        for (int i = 0; i < 10; i++) {
+            journal.append(event(i));
+        }
+        journal.flushAndWait(1000);
+
+        assertEquals(10, writer.rowCount());
+        assertEquals(1, writer.batches.size());
+        assertEquals(0, journal.getPendingCount());
+    }
+
+    @Test
+    public void concurrentProducersLoseNothing() throws InterruptedException {
+        RecordingWriter writer = new RecordingWriter();
+        UsageEventJournal journal = new UsageEventJournal(writer);
+        int producers = 8;
+        int perProducer = 10_000;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    journal.append(event(base + i));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        journal.flushAndWait(5000);
+
+        int total = producers * perProducer;
+        assertEquals(total, journal.getAppendedCount());
+        assertEquals(total, journal.getRowsWritten());
+        assertEquals(total, writer.ids().cardinality());
+        for (List<UsageEvent> batch : writer.batches) {
+            assertTrue(batch.size() <= UsageEventJournal.BATCH_SIZE);
+        }
+        // Group commit: far fewer transactions than rows
+        assertTrue(writer.batches.size() * 4 < total);
+    }
+
+    @Test
+    public void fullRingDropsAndCountsWithoutBlocking() throws InterruptedException {
+        RecordingWriter writer = new RecordingWriter();
+        writer.gate = new CountDownLatch(1);
+        UsageEventJournal journal = new UsageEventJournal(writer);
+        int total = UsageEventJournal.CAPACITY * 3;
+
+        // The writer is stuck on the first batch, so the ring fills and producers must not block
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            journal.append(event(i));
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+        long dropped = journal.getDroppedCount();
+        assertTrue(dropped > 0);
+        // Only the ring and the batch being written are held
+        assertTrue(dropped >= total - UsageEventJournal.CAPACITY - UsageEventJournal.BATCH_SIZE);
+
+        writer.gate.countDown();
+        journal.flushAndWait(5000);
+
+        assertEquals(total, journal.getRowsWritten() + dropped);
+        assertEquals(journal.getRowsWritten(), writer.ids().cardinality());
+    }
+
+    @Test
+    public void failedBatchIsRetriedOnceAtTheNextDrain() {
+        RecordingWriter writer = new RecordingWriter();
+        writer.failures = 1;
+        UsageEventJournal journal = new UsageEventJournal(writer);
+
+        for (int i = 0; i < 10; i++) {
+            journal.append(event(i));
+        }
+        journal.flushAndWait(1000);
+        assertEquals(0, journal.getRowsWritten());
+
+        journal.flushAndWait(1000);
+        assertEquals(10, journal.getRowsWritten());
+        assertEquals(10, writer.ids().cardinality());
+        assertEquals(0, journal.getDroppedCount());
+    }
+
+    @Test
+    public void batchFailingTwiceIsDroppedAndCounted() {
+        RecordingWriter writer = new RecordingWriter();
+        writer.failures = 2;
+        UsageEventJournal journal = new UsageEventJournal(writer);
+
+        for (int i = 0; i < 10; i++) {
+            journal.append(event(i));
+        }
+        journal.flushAndWait(1000);
+        journal.flushAndWait(1000);
+        journal.append(event(10));
+        journal.flushAndWait(1000);
+
+        assertEquals(10, journal.getDroppedCount());
+        assertEquals(1, journal.getRowsWritten());
+        assertEquals(1, writer.rowCount());
+    }
+
+    /**
+     * Throughput and wakeups against the per-row path it replaced: one executor task and one
+     * transaction per event. Each transaction costs a fixed commit plus a little per row.
+     */
+    @Test
+    public void groupCommitBeatsPerRowTransactions() throws InterruptedException {
+        int total = 20_000;
+        CommitCostWriter perRowWriter = new CommitCostWriter();
+        ExecutorService perRowExecutor = Executors.newSingleThreadExecutor();
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            UsageEvent event = event(i);
+            perRowExecutor.execute(() -> perRowWriter.write(Collections.singletonList(event)));
+        }
+        perRowExecutor.shutdown();
+        assertTrue(perRowExecutor.awaitTermination(60, TimeUnit.SECONDS));
+        long perRowNanos = System.nanoTime() - start;
+
+        CommitCostWriter journalWriter = new CommitCostWriter();
+        UsageEventJournal journal = new UsageEventJournal(journalWriter);
+        start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            // Stay below the ring size so the comparison measures writing, not dropping
+            while (journal.getPendingCount() >= UsageEventJournal.CAPACITY - UsageEventJournal.BATCH_SIZE) {
+                Thread.yield();
+            }
+            journal.append(event(i));
+        }
+        journal.flushAndWait(60_000);
+        long journalNanos = System.nanoTime() - start;
+
+        assertEquals(0, journal.getDroppedCount());
+        assertEquals(total, journal.getRowsWritten());
+        long perRowRate = total * 1_000_000_000L / perRowNanos;
+        long journalRate = total * 1_000_000_000L / journalNanos;
+        System.out.println("Per-row: " + perRowRate + " rows/s, " + perRowWriter.transactions + " wakeups; "
+                + "journal: " + journalRate + " rows/s, " + journal.getFlushWakeups() + " wakeups, "
+                + journalWriter.transactions + " transactions");
+        assertEquals(total, perRowWriter.transactions);
+        assertTrue(journalRate > perRowRate * 5);
+        assertTrue(journal.getFlushWakeups() * 10 < total);
+    }
+
+    /**
+     * Spins for the cost of one transaction: a fixed commit plus a per-row insert
+     */
+    private static final class CommitCostWriter implements UsageEventJournal.BatchWriter {
+        static final long COMMIT_NANOS = 50_000;
+        static final long ROW_NANOS = 1_000;
+        int transactions; // writer thread only; read after it finishes
+
+        @Override
+        public void write(List<UsageEvent> batch) {
+            long until = System.nanoTime() + COMMIT_NANOS + batch.size() * ROW_NANOS;
+            while (System.nanoTime() < until) {
+                // Busy, as a commit holds the writer
+            }
+            transactions++;
+        }
+    }
+
+    private static UsageEvent event(int id) {
+        UsageEvent event = new UsageEvent();
+        event.id = id;
+        event.packageName = "com.example." + (id % 7);
+        event.eventType = "app_launch";
+        return event;
+    }
+
+    private static void awaitRows(RecordingWriter writer, int rows, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (writer.rowCount() < rows) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Only " + writer.rowCount() + " of " + rows + " rows written");
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.smartappgatekeeper.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.smartappgatekeeper.database.entities.UsageDailyRollup;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * UsageStatsEngine checked against a naive computation that filters the rows once per window and per day
+ */
+public class UsageStatsEngineTest {
+
+    private static final String[] PACKAGES = {"com.example.a", "com.example.b", "com.example.c",
+            "com.example.d", "com.example.e", ""};
+    private static final String[] TYPES = {"quiz_completed", "session_completed", "app_launch", "app_unlock", ""};
+
+    @Test
+    public void emptyInputGivesZeros() {
+        LocalDate today = LocalDate.of(2024, 3, 15);
+        UsageStatsEngine.Result result = UsageStatsEngine.compute(null, today, 5);
+
+        for (int w = UsageStatsEngine.WINDOW_TODAY; w <= UsageStatsEngine.WINDOW_MONTH; w++) {
+            assertEquals(0, result.getWindow(w).totalEvents);
+        }
+        assertEquals(UsageStatsEngine.PROGRESS_DAYS, result.weeklyProgress.size());
+        assertEquals(today.toEpochDay(), result.weeklyProgress.get(UsageStatsEngine.PROGRESS_DAYS - 1).epochDay);
+        assertTrue(result.topPackages.isEmpty());
+    }
+
+    @Test
+    public void coveredRangeSpansEveryWindow() {
+        LocalDate day = LocalDate.of(2023, 1, 1);
+        for (int i = 0; i < 800; i++, day = day.plusDays(1)) {
+            long start = UsageStatsEngine.getStartDay(day);
+            long end = UsageStatsEngine.getEndDay(day);
+            assertTrue(start <= day.minusDays(UsageStatsEngine.PROGRESS_DAYS - 1).toEpochDay());
+            assertTrue(start <= day.with(DayOfWeek.MONDAY).toEpochDay());
+            assertTrue(start <= day.withDayOfMonth(1).toEpochDay());
+            assertTrue(end >= day.with(DayOfWeek.SUNDAY).toEpochDay());
+            assertTrue(end >= day.withDayOfMonth(day.lengthOfMonth()).toEpochDay());
+        }
+    }
+
+    @Test
+    public void topPackagesBreakTiesByName() {
+        LocalDate today = LocalDate.of(2024, 3, 15);
+        long day = today.toEpochDay();
+        List<UsageDailyRollup> rollups = Arrays.asList(
+                rollup(day, "com.example.c", "app_launch", 5),
+                rollup(day, "com.example.a", "app_launch", 5),
+                rollup(day, "com.example.b", "app_launch", 7),
+                rollup(day, "", "app_launch", 100));
+
+        List<UsageStatsEngine.PackageCount> top = UsageStatsEngine.compute(rollups, today, 2).topPackages;
+
+        assertEquals(2, top.size());
+        assertEquals("com.example.b", top.get(0).packageName);
+        assertEquals("com.example.a", top.get(1).packageName);
+        assertEquals(5, top.get(1).eventCount);
+    }
+
+    @Test
+    public void matchesNaiveComputationOnRandomRollups() {
+        Random random = new Random(16);
+        LocalDate first = LocalDate.of(2023, 12, 20);
+        for (int round = 0; round < 500; round++) {
+            // Covers month, year and leap-day boundaries and every weekday
+            LocalDate today = first.plusDays(random.nextInt(120));
+            long from = UsageStatsEngine.getStartDay(today) - 10;
+            long to = UsageStatsEngine.getEndDay(today) + 10;
+
+            List<UsageDailyRollup> rollups = new ArrayList<>();
+            int rows = random.nextInt(400);
+            for (int i = 0; i < rows; i++) {
+                long day = from + random.nextInt((int) (to - from + 1));
+                // Sparse quiz days so streaks both build and break
+                String type = TYPES[random.nextInt(TYPES.length)];
+                if ("quiz_completed".equals(type) && random.nextInt(3) == 0) {
+                    type = "app_launch";
+                }
+                rollups.add(rollup(day, PACKAGES[random.nextInt(PACKAGES.length)], type, 1 + random.nextInt(20)));
+            }
+            Collections.shuffle(rollups, random);
+            int topK = random.nextInt(7);
+
+            UsageStatsEngine.Result result = UsageStatsEngine.compute(rollups, today, topK);
+
+            assertWindow(rollups, today.toEpochDay(), today.toEpochDay(),
+                    result.getWindow(UsageStatsEngine.WINDOW_TODAY));
+            assertWindow(rollups, today.with(DayOfWeek.MONDAY).toEpochDay(), today.with(DayOfWeek.SUNDAY).toEpochDay(),
+                    result.getWindow(UsageStatsEngine.WINDOW_WEEK));
+            assertWindow(rollups, today.withDayOfMonth(1).toEpochDay(),
+                    today.withDayOfMonth(today.lengthOfMonth()).toEpochDay(),
+                    result.getWindow(UsageStatsEngine.WINDOW_MONTH));
+
+            long startDay = UsageStatsEngine.getStartDay(today);
+            assertEquals(UsageStatsEngine.PROGRESS_DAYS, result.weeklyProgress.size());
+            for (int i = 0; i < UsageStatsEngine.PROGRESS_DAYS; i++) {
+                long day = today.minusDays(UsageStatsEngine.PROGRESS_DAYS - 1 - i).toEpochDay();
+                UsageStatsEngine.DayStats stats = result.weeklyProgress.get(i);
+                assertEquals(day, stats.epochDay);
+                assertEquals(sum(rollups, day, day, null), stats.totalEvents);
+                assertEquals(sum(rollups, day, day, "quiz_completed"), stats.quizzesCompleted);
+                assertEquals(stats.quizzesCompleted * UsageStatsEngine.MINUTES_SAVED_PER_QUIZ, stats.minutesSaved);
+                // Streaks are counted back to the start of the covered range
+                int streak = 0;
+                for (long d = day; d >= startDay && sum(rollups, d, d, "quiz_completed") > 0; d--) {
+                    streak++;
+                }
+                assertEquals(streak, stats.streak);
+            }
+
+            List<UsageStatsEngine.PackageCount> expectedTop = naiveTop(rollups, today, topK);
+            assertEquals(expectedTop.size(), result.topPackages.size());
+            for (int i = 0; i < expectedTop.size(); i++) {
+                assertEquals(expectedTop.get(i).packageName, result.topPackages.get(i).packageName);
+                assertEquals(expectedTop.get(i).eventCount, result.topPackages.get(i).eventCount);
+            }
+        }
+    }
+
+    private static void assertWindow(List<UsageDailyRollup> rollups, long from, long to,
+                                     UsageStatsEngine.WindowStats stats) {
+        assertEquals(sum(rollups, from, to, null), stats.totalEvents);
+        assertEquals(sum(rollups, from, to, "quiz_completed"), stats.quizzesCompleted);
+        assertEquals(sum(rollups, from, to, "session_completed"), stats.sessionsCompleted);
+        assertEquals(stats.quizzesCompleted * UsageStatsEngine.MINUTES_SAVED_PER_QUIZ, stats.minutesSaved);
+    }
+
+    private static int sum(List<UsageDailyRollup> rollups, long from, long to, String eventType) {
+        int total = 0;
+        for (UsageDailyRollup rollup : rollups) {
+            if (rollup.epochDay >= from && rollup.epochDay <= to
+                    && (eventType == null || eventType.equals(rollup.eventType))) {
+                total += rollup.eventCount;
+            }
+        }
+        return total;
+    }
+
+    private static List<UsageStatsEngine.PackageCount> naiveTop(List<UsageDailyRollup> rollups, LocalDate today, int k) {
+        long from = today.withDayOfMonth(1).toEpochDay();
+        long to = today.withDayOfMonth(today.lengthOfMonth()).toEpochDay();
+        Map<String, Integer> counts = new HashMap<>();
+        for (UsageDailyRollup rollup : rollups) {
+            if (rollup.epochDay >= from && rollup.epochDay <= to && !rollup.packageName.isEmpty()) {
+                counts.merge(rollup.packageName, rollup.eventCount, Integer::sum);
+            }
+        }
+        List<UsageStatsEngine.PackageCount> all = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            all.add(new UsageStatsEngine.PackageCount(entry.getKey(), entry.getValue()));
+        }
+        all.sort((a, b) -> a.eventCount != b.eventCount
+                ? Integer.compare(b.eventCount, a.eventCount)
+                : a.packageName.compareTo(b.packageName));
+        return all.subList(0, Math.min(k, all.size()));
+    }
+
+    private static UsageDailyRollup rollup(long epochDay, String packageName, String eventType, int eventCount) {
+        UsageDailyRollup rollup = new UsageDailyRollup(epochDay, packageName, eventType);
+        rollup.eventCount = eventCount;
+        return rollup;
+    }
+}
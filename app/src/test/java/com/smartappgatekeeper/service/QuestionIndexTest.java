@@ -0,0 +1,263 @@
+package com.smartappgatekeeper.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.smartappgatekeeper.model.Question;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * QuestionIndex counts and position lists checked against a linear scan, and sample() checked
+ * for size, distinctness and uniformity of both membership and order
+ */
+public class QuestionIndexTest {
+
+    private static final String[] TOPICS = {"java", "python", "sql", "git", "linux", "math", "physics", "history"};
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+
+    private List<Question> questions;
+    private QuestionIndex index;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(21);
+        questions = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Skewed topics so some cells are large and some tiny or empty
+            String topic = TOPICS[Math.min(random.nextInt(TOPICS.length), random.nextInt(TOPICS.length))];
+            String difficulty = DIFFICULTIES[random.nextInt(DIFFICULTIES.length)];
+            if ("history".equals(topic)) {
+                difficulty = "hard";
+            }
+            questions.add(new Question("Question " + i, Arrays.asList("a", "b", "c", "d"), "a", "", difficulty, topic));
+        }
+        index = QuestionIndex.build(questions);
+    }
+
+    @Test
+    public void countsAndPositionsMatchScan() {
+        for (String topic : TOPICS) {
+            assertArrayEquals(topic, scan(topic, null), toArray(index.topicPositions(topic)));
+            assertEquals(scan(topic, null).length, index.countByTopic(topic));
+            for (String difficulty : DIFFICULTIES) {
+                int[] expected = scan(topic, difficulty);
+                assertArrayEquals(topic + "/" + difficulty, expected, toArray(index.cellPositions(topic, difficulty)));
+                assertEquals(expected.length, index.countByTopicAndDifficulty(topic, difficulty));
+            }
+        }
+        for (String difficulty : DIFFICULTIES) {
+            assertArrayEquals(difficulty, scan(null, difficulty), toArray(index.difficultyPositions(difficulty)));
+            assertEquals(scan(null, difficulty).length, index.countByDifficulty(difficulty));
+        }
+        assertEquals(0, index.countByTopic("unknown"));
+        assertEquals(0, index.countByDifficulty("unknown"));
+        assertEquals(0, index.countByTopicAndDifficulty("java", "unknown"));
+        assertEquals(0, index.countByTopicAndDifficulty("history", "easy"));
+        assertEquals(questions.size(), index.size());
+    }
+
+    @Test
+    public void topicsKeepFirstSeenOrder() {
+        List<String> firstSeen = new ArrayList<>();
+        for (Question question : questions) {
+            if (!firstSeen.contains(question.getTopic())) {
+                firstSeen.add(question.getTopic());
+            }
+        }
+        assertEquals(firstSeen, index.getTopics());
+    }
+
+    @Test
+    public void positionsForConcatenatesDistinctTopics() {
+        List<String> topics = Arrays.asList("sql", "java", "unknown", "sql", "history");
+        for (String difficulty : new String[] {null, "easy", "hard"}) {
+            List<Integer> expected = new ArrayList<>();
+            for (String topic : new String[] {"sql", "java", "history"}) {
+                for (int position : scan(topic, difficulty)) {
+                    expected.add(position);
+                }
+            }
+            int[] actual = toArray(index.positionsFor(topics, difficulty));
+            assertEquals(expected.size(), actual.length);
+            for (int i = 0; i < actual.length; i++) {
+                assertEquals(expected.get(i).intValue(), actual[i]);
+            }
+        }
+    }
+
+    @Test
+    public void positionOfFindsEveryQuestion() {
+        for (int i = 0; i < questions.size(); i += 37) {
+            assertEquals(i, index.positionOf(QuestionBankService.keyOf(questions.get(i))));
+        }
+        Question missing = new Question("Not in the bank", Arrays.asList("a", "b", "c", "d"), "a", "", "easy", "java");
+        assertEquals(-1, index.positionOf(QuestionBankService.keyOf(missing)));
+    }
+
+    @Test
+    public void sampleReturnsDistinctCandidates() {
+        Random random = new Random(1);
+        IntBuffer candidates = index.topicPositions("sql");
+        Set<Integer> allowed = new HashSet<>();
+        for (int position : toArray(candidates)) {
+            allowed.add(position);
+        }
+        int n = candidates.limit();
+        // Floyd below n/2, partial Fisher-Yates above, and out-of-range requests
+        for (int k : new int[] {-1, 0, 1, 2, n / 3, n / 2, n / 2 + 1, n - 1, n, n + 10}) {
+            int[] picked = index.sample(candidates, k, random);
+            assertEquals(Math.max(0, Math.min(k, n)), picked.length);
+            Set<Integer> distinct = new HashSet<>();
+            for (int position : picked) {
+                assertTrue(allowed.contains(position));
+                assertTrue(distinct.add(position));
+            }
+        }
+
+        int[] whole = index.sample(null, 100, random);
+        assertEquals(100, whole.length);
+        Set<Integer> distinct = new HashSet<>();
+        for (int position : whole) {
+            assertTrue(position >= 0 && position < questions.size());
+            assertTrue(distinct.add(position));
+        }
+    }
+
+    @Test
+    public void sampleIsUniform() {
+        int n = 20;
+        int[] positions = new int[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = 100 + i * 3;
+        }
+        IntBuffer candidates = IntBuffer.wrap(positions);
+        Random random = new Random(2);
+        int trials = 100_000;
+
+        // One sparse (Floyd) and one dense (Fisher-Yates) draw size
+        for (int k : new int[] {5, 15}) {
+            long[] included = new long[n];
+            long[] first = new long[n];
+            long[] last = new long[n];
+            for (int trial = 0; trial < trials; trial++) {
+                int[] picked = index.sample(candidates, k, random);
+                for (int position : picked) {
+                    included[(position - 100) / 3]++;
+                }
+                first[(picked[0] - 100) / 3]++;
+                last[(picked[k - 1] - 100) / 3]++;
+            }
+            // 19 degrees of freedom; 43.8 is the 0.001 critical value
+            assertTrue("membership, k=" + k, chiSquare(included, (double) trials * k / n) < 43.8);
+            assertTrue("first slot, k=" + k, chiSquare(first, (double) trials / n) < 43.8);
+            assertTrue("last slot, k=" + k, chiSquare(last, (double) trials / n) < 43.8);
+        }
+    }
+
+    @Test
+    public void keyLookupsDecodeNoQuestion() {
+        CountingList counting = new CountingList(questions);
+        QuestionIndex counted = QuestionIndex.build(counting);
+        counting.gets = 0;
+
+        for (Question question : questions) {
+            counted.positionOf(QuestionBankService.keyOf(question));
+        }
+        assertEquals(0, counting.gets);
+
+        // Fetching k questions by key reads exactly those k
+        int k = 10;
+        for (int i = 0; i < k; i++) {
+            counted.getQuestions().get(counted.positionOf(QuestionBankService.keyOf(questions.get(i * 101))));
+        }
+        assertEquals(k, counting.gets);
+    }
+
+    @Test
+    public void compactBankKeepsKeyLookups() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CompactQuestionBank.write(questions, output);
+        byte[] bytes = output.toByteArray();
+        QuestionIndex compact = CompactQuestionBank.read(ByteBuffer.wrap(bytes));
+
+        assertEquals(questions.size(), compact.size());
+        for (int i = 0; i < questions.size(); i++) {
+            assertEquals(i, compact.positionOf(QuestionBankService.keyOf(questions.get(i))));
+        }
+        Question missing = new Question("Not in the bank", Arrays.asList("a", "b", "c", "d"), "a", "", "easy", "java");
+        assertEquals(-1, compact.positionOf(QuestionBankService.keyOf(missing)));
+        assertEquals(questions.get(4321).getQuestionText(), compact.getQuestions().get(4321).getQuestionText());
+    }
+
+    private static double chiSquare(long[] observed, double expected) {
+        double sum = 0;
+        for (long count : observed) {
+            double difference = count - expected;
+            sum += difference * difference / expected;
+        }
+        return sum;
+    }
+
+    private int[] scan(String topic, String difficulty) {
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < questions.size(); i++) {
+            Question question = questions.get(i);
+            if ((topic == null || topic.equals(question.getTopic()))
+                    && (difficulty == null || difficulty.equals(question.getDifficulty()))) {
+                positions.add(i);
+            }
+        }
+        int[] result = new int[positions.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = positions.get(i);
+        }
+        return result;
+    }
+
+    private static int[] toArray(IntBuffer buffer) {
+        int[] result = new int[buffer.limit()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = buffer.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Counts get() calls, i.e. question decodes on a compact bank
+     */
+    private static final class CountingList extends AbstractList<Question> implements RandomAccess {
+        private final List<Question> questions;
+        int gets;
+
+        CountingList(List<Question> questions) {
+            this.questions = questions;
+        }
+
+        @Override
+        public Question get(int index) {
+            gets++;
+            return questions.get(index);
+        }
+
+        @Override
+        public int size() {
+            return questions.size();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.smartappgatekeeper.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * ReviewQueue checked against a full-scan oracle over a 50k-question bank and a year of answers
+ */
+public class ReviewQueueTest {
+
+    private static final int QUESTIONS = 50_000;
+    private static final String[] TOPICS = {"t0", "t1", "t2", "t3", "t4", "t5", "t6", "t7", "t8", "t9"};
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    public void sm2StepsFollowTheSchedule() {
+        ReviewQueue queue = new ReviewQueue();
+
+        int slot = queue.recordAnswer(1, "t", "easy", 5, 0);
+        assertEquals(1, queue.getIntervalDays(slot));
+        assertEquals(ReviewQueue.DAY_MILLIS, queue.getDueAt(slot));
+        queue.recordAnswer(1, "t", "easy", 5, 0);
+        assertEquals(6, queue.getIntervalDays(slot));
+        float ease = queue.getEase(slot);
+        queue.recordAnswer(1, "t", "easy", 4, 0);
+        assertEquals(Math.round(6 * ease), queue.getIntervalDays(slot));
+        assertEquals(3, queue.getRepetitions(slot));
+
+        queue.recordAnswer(1, "t", "easy", 0, 0);
+        assertEquals(0, queue.getRepetitions(slot));
+        assertEquals(1, queue.getIntervalDays(slot));
+        for (int i = 0; i < 20; i++) {
+            queue.recordAnswer(1, "t", "easy", 0, 0);
+        }
+        assertEquals(ReviewQueue.MIN_EASE, queue.getEase(slot), 0);
+    }
+
+    @Test
+    public void unavailableQuestionsAreParkedUntilAnsweredAgain() {
+        ReviewQueue queue = new ReviewQueue();
+        for (int i = 0; i < 20; i++) {
+            queue.load(i, "t", "easy", i, 1, ReviewQueue.INITIAL_EASE, 1);
+        }
+        Set<Long> removed = new HashSet<>(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 6L));
+
+        assertArrayEquals(new long[] {7, 8, 9, 10, 11}, queue.selectDue(null, null, 5, 100, key -> !removed.contains(key)));
+        // Parked questions no longer come back, even when the bank has them again
+        assertArrayEquals(new long[] {7, 8, 9, 10, 11}, queue.selectDue(null, null, 5, 100, key -> true));
+        assertEquals(20, queue.size());
+
+        queue.recordAnswer(3, "t", "easy", 0, 0);
+        long[] due = queue.selectDue(null, null, 30, 2 * ReviewQueue.DAY_MILLIS, key -> true);
+        assertEquals(14, due.length);
+        assertEquals(3, due[due.length - 1]);
+    }
+
+    @Test
+    public void matchesFullScanOverAYear() {
+        Random random = new Random(25);
+        ReviewQueue queue = new ReviewQueue();
+        Oracle oracle = new Oracle();
+        long now = START;
+
+        // Start from a full bank of persisted reviews
+        for (int key = 0; key < QUESTIONS; key++) {
+            long due = now + (long) (random.nextDouble() * 30 * ReviewQueue.DAY_MILLIS);
+            queue.load(key, topicOf(key), difficultyOf(key), due, 1, ReviewQueue.INITIAL_EASE, 1);
+            oracle.load(key, topicOf(key), difficultyOf(key), due, 1, ReviewQueue.INITIAL_EASE, 1);
+        }
+
+        boolean[] removed = new boolean[QUESTIONS];
+        int selections = 0;
+        long[] selectNanos = new long[365 * 30];
+        for (int day = 0; day < 365; day++) {
+            // The bank loses and regains questions between syncs
+            for (int i = 0; i < 50; i++) {
+                removed[random.nextInt(QUESTIONS)] = random.nextInt(4) != 0;
+            }
+
+            for (int round = 0; round < 30; round++) {
+                now += ReviewQueue.DAY_MILLIS / 30;
+                List<String> topics = random.nextInt(10) == 0
+                        ? null
+                        : Arrays.asList(TOPICS[random.nextInt(TOPICS.length)], TOPICS[random.nextInt(TOPICS.length)]);
+                String difficulty = random.nextInt(5) == 0 ? null : DIFFICULTIES[random.nextInt(DIFFICULTIES.length)];
+                int k = 1 + random.nextInt(10);
+
+                long[] expected = oracle.selectDue(topics, difficulty, k, now, removed);
+                long started = System.nanoTime();
+                long[] actual = queue.selectDue(topics, difficulty, k, now, key -> !removed[(int) key]);
+                selectNanos[selections++] = System.nanoTime() - started;
+                assertArrayEquals("day " + day + " round " + round, expected, actual);
+
+                // Answer what was shown plus a few questions picked by the user
+                Set<Long> answered = new HashSet<>();
+                for (long key : actual) {
+                    answered.add(key);
+                }
+                for (int i = 0; i < 3; i++) {
+                    answered.add((long) random.nextInt(QUESTIONS));
+                }
+                for (long key : answered) {
+                    int question = (int) key;
+                    // Now and then a question is re-tagged into another cell
+                    String topic = random.nextInt(200) == 0 ? TOPICS[random.nextInt(TOPICS.length)] : topicOf(question);
+                    int quality = random.nextInt(6);
+                    int slot = queue.recordAnswer(key, topic, difficultyOf(question), quality, now);
+                    oracle.recordAnswer(question, topic, difficultyOf(question), quality, now);
+                    assertEquals(oracle.dueAt[question], queue.getDueAt(slot));
+                    assertEquals(oracle.intervalDays[question], queue.getIntervalDays(slot));
+                    assertEquals(oracle.ease[question], queue.getEase(slot), 0);
+                    assertEquals(oracle.repetitions[question], queue.getRepetitions(slot));
+                }
+            }
+        }
+        assertEquals(QUESTIONS, queue.size());
+
+        // Generous bound; the heaps answer in tens of microseconds, a full scan takes milliseconds
+        Arrays.sort(selectNanos, 0, selections);
+        long p99Micros = selectNanos[selections * 99 / 100] / 1000;
+        assertTrue("selectDue p99 " + p99Micros + " us", p99Micros < 2_000);
+    }
+
+    private static String topicOf(int key) {
+        return TOPICS[key % TOPICS.length];
+    }
+
+    private static String difficultyOf(int key) {
+        return DIFFICULTIES[(key / TOPICS.length) % DIFFICULTIES.length];
+    }
+
+    /**
+     * Same state per question in plain arrays; selection scans every question and sorts
+     */
+    private static final class Oracle {
+        final long[] dueAt = new long[QUESTIONS];
+        final int[] intervalDays = new int[QUESTIONS];
+        final float[] ease = new float[QUESTIONS];
+        final int[] repetitions = new int[QUESTIONS];
+        final int[] topic = new int[QUESTIONS];
+        final int[] difficulty = new int[QUESTIONS];
+        final boolean[] parked = new boolean[QUESTIONS];
+        final int[] order = new int[QUESTIONS]; // first-seen order, the queue's tie-break
+        final int[] keyByOrder = new int[QUESTIONS];
+        final boolean[] known = new boolean[QUESTIONS];
+        int seen = 0;
+
+        void load(int key, String topicName, String difficultyName, long due, int interval, float easeFactor, int reps) {
+            touch(key, topicName, difficultyName);
+            dueAt[key] = due;
+            intervalDays[key] = interval;
+            ease[key] = easeFactor;
+            repetitions[key] = reps;
+        }
+
+        void recordAnswer(int key, String topicName, String difficultyName, int quality, long now) {
+            touch(key, topicName, difficultyName);
+            if (quality >= 3) {
+                int reps = repetitions[key];
+                intervalDays[key] = reps == 0 ? 1
+                        : reps == 1 ? 6
+                        : Math.max(1, Math.round(intervalDays[key] * ease[key]));
+                repetitions[key] = reps + 1;
+            } else {
+                repetitions[key] = 0;
+                intervalDays[key] = 1;
+            }
+            int miss = 5 - quality;
+            ease[key] = Math.max(ReviewQueue.MIN_EASE, ease[key] + 0.1f - miss * (0.08f + miss * 0.02f));
+            dueAt[key] = now + intervalDays[key] * ReviewQueue.DAY_MILLIS;
+        }
+
+        long[] selectDue(List<String> topics, String difficultyName, int k, long now, boolean[] removed) {
+            boolean[] topicMask = new boolean[TOPICS.length];
+            for (int t = 0; t < TOPICS.length; t++) {
+                topicMask[t] = topics == null || topics.contains(TOPICS[t]);
+            }
+            int difficultyId = difficultyName == null ? -1 : Arrays.asList(DIFFICULTIES).indexOf(difficultyName);
+
+            // Due time in the high bits, first-seen order in the low 16, so a primitive sort gives the queue's order
+            long[] due = new long[QUESTIONS];
+            int dueCount = 0;
+            for (int key = 0; key < QUESTIONS; key++) {
+                if (known[key] && !parked[key] && dueAt[key] <= now && topicMask[topic[key]]
+                        && (difficultyId < 0 || difficultyId == difficulty[key])) {
+                    due[dueCount++] = dueAt[key] << 16 | order[key];
+                }
+            }
+            Arrays.sort(due, 0, dueCount);
+
+            long[] picked = new long[k];
+            int count = 0;
+            for (int i = 0; i < dueCount && count < k; i++) {
+                int key = keyByOrder[(int) (due[i] & 0xFFFF)];
+                if (removed[key]) {
+                    parked[key] = true;
+                } else {
+                    picked[count++] = key;
+                }
+            }
+            return Arrays.copyOf(picked, count);
+        }
+
+        private void touch(int key, String topicName, String difficultyName) {
+            if (!known[key]) {
+                known[key] = true;
+                order[key] = seen;
+                keyByOrder[seen++] = key;
+                ease[key] = ReviewQueue.INITIAL_EASE;
+            }
+            topic[key] = Arrays.asList(TOPICS).indexOf(topicName);
+            difficulty[key] = Arrays.asList(DIFFICULTIES).indexOf(difficultyName);
+            parked[key] = false;
+        }
+    }
+}
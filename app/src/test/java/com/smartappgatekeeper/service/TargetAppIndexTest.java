@@ -0,0 +1,191 @@
+package com.smartappgatekeeper.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.smartappgatekeeper.database.entities.TargetApp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * TargetAppIndex checked against a HashSet of the enabled package names
+ */
+public class TargetAppIndexTest {
+
+    @Test
+    public void emptyAndNullListsGiveEmptyIndex() {
+        assertSame(TargetAppIndex.EMPTY, TargetAppIndex.build(null));
+        assertSame(TargetAppIndex.EMPTY, TargetAppIndex.build(Collections.<TargetApp>emptyList()));
+        assertEquals(0, TargetAppIndex.EMPTY.size());
+        assertFalse(TargetAppIndex.EMPTY.contains("com.example.app"));
+        assertFalse(TargetAppIndex.EMPTY.contains(null));
+    }
+
+    @Test
+    public void skipsDisabledNullAndDuplicateEntries() {
+        TargetApp disabled = app("com.example.disabled");
+        disabled.isEnabled = false;
+        TargetApp noPackage = app(null);
+
+        TargetAppIndex index = TargetAppIndex.build(Arrays.asList(
+                app("com.example.a"), null, disabled, noPackage, app("com.example.a"), app("com.example.b")));
+
+        assertEquals(2, index.size());
+        assertTrue(index.contains("com.example.a"));
+        assertTrue(index.contains("com.example.b"));
+        assertFalse(index.contains("com.example.disabled"));
+        assertFalse(index.contains(null));
+        assertFalse(index.contains(""));
+    }
+
+    @Test
+    public void onlyDisabledAppsGiveEmptyIndex() {
+        TargetApp disabled = app("com.example.disabled");
+        disabled.isEnabled = false;
+        assertSame(TargetAppIndex.EMPTY, TargetAppIndex.build(Collections.singletonList(disabled)));
+    }
+
+    @Test
+    public void acceptsAnyCharSequence() {
+        TargetAppIndex index = TargetAppIndex.build(Collections.singletonList(app("com.example.a")));
+
+        assertTrue(index.contains(new StringBuilder("com.example.a")));
+        assertFalse(index.contains(new StringBuilder("com.example.b")));
+        assertFalse(index.contains(new StringBuilder("com.example.a.extra")));
+        assertFalse(index.contains(new StringBuilder("com.example.")));
+    }
+
+    @Test
+    public void collidingHashesAreToldApart() {
+        // "Aa" and "BB" share String.hashCode(), so they probe the same chain
+        TargetAppIndex index = TargetAppIndex.build(Arrays.asList(app("Aa"), app("AaAa")));
+
+        assertTrue(index.contains("Aa"));
+        assertTrue(index.contains("AaAa"));
+        assertFalse(index.contains("BB"));
+        assertFalse(index.contains(new StringBuilder("BBBB")));
+        assertFalse(index.contains("AaBB"));
+    }
+
+    @Test
+    public void matchesHashSetOnRandomPackages() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            int count = random.nextInt(500);
+            List<TargetApp> apps = new ArrayList<>();
+            Set<String> enabled = new HashSet<>();
+            List<String> probes = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                String packageName = randomPackage(random);
+                TargetApp targetApp = app(packageName);
+                targetApp.isEnabled = random.nextInt(4) != 0;
+                apps.add(targetApp);
+                if (targetApp.isEnabled) {
+                    enabled.add(packageName);
+                }
+                probes.add(packageName);
+            }
+            for (int i = 0; i < 1000; i++) {
+                probes.add(randomPackage(random));
+            }
+
+            TargetAppIndex index = TargetAppIndex.build(apps);
+
+            assertEquals(enabled.size(), index.size());
+            for (String probe : probes) {
+                assertEquals(probe, enabled.contains(probe), index.contains(probe));
+                assertEquals(probe, enabled.contains(probe), index.contains(new StringBuilder(probe)));
+            }
+        }
+    }
+
+    /**
+     * Lookup time per list size for the index and for the linear scan isTargetApp used before.
+     * The index must stay flat as the target list grows; the scan must not.
+     */
+    @Test
+    public void lookupTimeStaysFlatAsTheListGrows() {
+        int[] sizes = {10, 100, 1_000, 10_000};
+        double[] indexNanos = new double[sizes.length];
+        double[] scanNanos = new double[sizes.length];
+        Random random = new Random(1);
+        long sink = 0;
+
+        for (int round = 0; round < 2; round++) {
+            // The first round only warms up the JIT
+            for (int s = 0; s < sizes.length; s++) {
+                List<TargetApp> apps = new ArrayList<>();
+                for (int i = 0; i < sizes[s]; i++) {
+                    apps.add(app("com.example.app" + i));
+                }
+                TargetAppIndex index = TargetAppIndex.build(apps);
+                // Event package names arrive as CharSequences; half are targets
+                CharSequence[] probes = new CharSequence[1024];
+                for (int i = 0; i < probes.length; i++) {
+                    probes[i] = new StringBuilder(i % 2 == 0
+                            ? "com.example.app" + random.nextInt(sizes[s])
+                            : "com.other.app" + random.nextInt(sizes[s]));
+                }
+
+                int lookups = 2_000_000;
+                long start = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    sink += index.contains(probes[i & (probes.length - 1)]) ? 1 : 0;
+                }
+                indexNanos[s] = (double) (System.nanoTime() - start) / lookups;
+
+                int scans = 20_000_000 / sizes[s];
+                start = System.nanoTime();
+                for (int i = 0; i < scans; i++) {
+                    // The old path also copied the name to a String per event
+                    sink += scan(apps, probes[i & (probes.length - 1)].toString()) ? 1 : 0;
+                }
+                scanNanos[s] = (double) (System.nanoTime() - start) / scans;
+            }
+        }
+
+        for (int s = 0; s < sizes.length; s++) {
+            System.out.printf("%6d apps: index %.1f ns, scan %.1f ns%n", sizes[s], indexNanos[s], scanNanos[s]);
+        }
+        assertTrue(sink > 0);
+        // Generous bounds; larger tables only add cache misses, the scan grows 1000x
+        assertTrue(indexNanos[sizes.length - 1] < indexNanos[0] * 5 + 20);
+        assertTrue(scanNanos[sizes.length - 1] > scanNanos[0] * 20);
+    }
+
+    /**
+     * The former AppInterceptionService.isTargetApp loop
+     */
+    private static boolean scan(List<TargetApp> apps, String packageName) {
+        for (TargetApp app : apps) {
+            if (app.packageName.equals(packageName) && app.isEnabled) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static TargetApp app(String packageName) {
+        return new TargetApp(packageName, packageName, "Social", true);
+    }
+
+    private static String randomPackage(Random random) {
+        // Short segments from a tiny alphabet so hits, misses and collisions all happen
+        StringBuilder builder = new StringBuilder("com.");
+        int length = 1 + random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(3)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,176 @@
+package com.smartappgatekeeper.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * UnlockTimerScheduler driven by a fake clock and checked against a plain map of deadlines
+ */
+public class UnlockTimerSchedulerTest {
+
+    private static final long START_MILLIS = 1_700_000_000_000L;
+
+    private long now;
+    private UnlockTimerScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        now = START_MILLIS;
+        scheduler = new UnlockTimerScheduler(() -> now);
+    }
+
+    @Test
+    public void emptySchedulerHasNoDeadline() {
+        assertTrue(scheduler.isEmpty());
+        assertEquals(UnlockTimerScheduler.NO_DEADLINE, scheduler.nextDeadlineMillis());
+        now += 10_000;
+        assertTrue(scheduler.advance().isEmpty());
+    }
+
+    @Test
+    public void firesOnlyOnceDeadlinePasses() {
+        scheduler.schedule("com.example.a", "A", now + 1500);
+
+        assertEquals(now + 1500, scheduler.nextDeadlineMillis());
+        now += 1499;
+        assertTrue(scheduler.advance().isEmpty());
+
+        now += 1;
+        List<UnlockTimerScheduler.Timer> expired = scheduler.advance();
+        assertEquals(1, expired.size());
+        assertEquals("com.example.a", expired.get(0).packageName);
+        assertEquals("A", expired.get(0).appName);
+        assertTrue(scheduler.isEmpty());
+        assertEquals(UnlockTimerScheduler.NO_DEADLINE, scheduler.nextDeadlineMillis());
+    }
+
+    @Test
+    public void pastDeadlineFiresOnNextAdvance() {
+        scheduler.schedule("com.example.a", "A", now - 60_000);
+
+        assertEquals(now - 60_000, scheduler.nextDeadlineMillis());
+        assertEquals(1, scheduler.advance().size());
+    }
+
+    @Test
+    public void rescheduleReplacesDeadline() {
+        scheduler.schedule("com.example.a", "A", now + 1000);
+        scheduler.schedule("com.example.a", "A", now + 5000);
+
+        assertEquals(1, scheduler.size());
+        assertEquals(now + 5000, scheduler.get("com.example.a").deadlineMillis);
+        now += 1000;
+        assertTrue(scheduler.advance().isEmpty());
+        now += 4000;
+        assertEquals(1, scheduler.advance().size());
+    }
+
+    @Test
+    public void cancelRemovesTimer() {
+        scheduler.schedule("com.example.a", "A", now + 1000);
+        scheduler.schedule("com.example.b", "B", now + 1000);
+
+        assertTrue(scheduler.cancel("com.example.a"));
+        assertFalse(scheduler.cancel("com.example.a"));
+        assertNull(scheduler.get("com.example.a"));
+
+        now += 1000;
+        List<UnlockTimerScheduler.Timer> expired = scheduler.advance();
+        assertEquals(1, expired.size());
+        assertEquals("com.example.b", expired.get(0).packageName);
+    }
+
+    @Test
+    public void deadlinesBeyondOneRotationWaitForTheirTurn() {
+        UnlockTimerScheduler small = new UnlockTimerScheduler(() -> now, 1000, 8);
+        // Same slot as now + 1s, but seven rotations later
+        small.schedule("com.example.far", "Far", now + 57_000);
+        small.schedule("com.example.near", "Near", now + 1_000);
+
+        assertEquals(now + 1_000, small.nextDeadlineMillis());
+        now += 1_000;
+        List<UnlockTimerScheduler.Timer> expired = small.advance();
+        assertEquals(1, expired.size());
+        assertEquals("com.example.near", expired.get(0).packageName);
+
+        assertEquals(START_MILLIS + 57_000, small.nextDeadlineMillis());
+        now = START_MILLIS + 56_999;
+        assertTrue(small.advance().isEmpty());
+        now += 1;
+        assertEquals(1, small.advance().size());
+    }
+
+    @Test
+    public void sleepingPastManyRotationsExpiresEverything() {
+        UnlockTimerScheduler small = new UnlockTimerScheduler(() -> now, 1000, 8);
+        for (int i = 0; i < 100; i++) {
+            small.schedule("com.example." + i, "App " + i, now + i * 700L);
+        }
+
+        now += 3_600_000;
+        assertEquals(100, small.advance().size());
+        assertTrue(small.isEmpty());
+    }
+
+    @Test
+    public void rejectsWheelSizeThatIsNotPowerOfTwo() {
+        try {
+            new UnlockTimerScheduler(() -> now, 1000, 100);
+        } catch (IllegalArgumentException expected) {
+            return;
+        }
+        throw new AssertionError("Expected IllegalArgumentException");
+    }
+
+    @Test
+    public void matchesDeadlineMapOnRandomOperations() {
+        Random random = new Random(7);
+        UnlockTimerScheduler small = new UnlockTimerScheduler(() -> now, 1000, 64);
+        Map<String, Long> expected = new HashMap<>();
+
+        for (int step = 0; step < 20_000; step++) {
+            String packageName = "com.example." + random.nextInt(2_000);
+            int operation = random.nextInt(10);
+            if (operation < 5) {
+                // Mostly within a rotation, some far beyond it, a few already past
+                long delay = random.nextInt(10) == 0
+                        ? random.nextInt(600_000)
+                        : random.nextInt(60_000) - 2_000;
+                small.schedule(packageName, packageName, now + delay);
+                expected.put(packageName, now + delay);
+            } else if (operation < 7) {
+                assertEquals(expected.remove(packageName) != null, small.cancel(packageName));
+            } else {
+                now += random.nextInt(random.nextInt(50) == 0 ? 200_000 : 3_000);
+                Set<String> fired = new HashSet<>();
+                for (UnlockTimerScheduler.Timer timer : small.advance()) {
+                    assertTrue(timer.deadlineMillis <= now);
+                    assertTrue(fired.add(timer.packageName));
+                    assertEquals(expected.remove(timer.packageName), Long.valueOf(timer.deadlineMillis));
+                }
+                for (long deadline : expected.values()) {
+                    assertTrue("Missed an expired deadline", deadline > now);
+                }
+            }
+
+            assertEquals(expected.size(), small.size());
+            long earliest = UnlockTimerScheduler.NO_DEADLINE;
+            for (long deadline : expected.values()) {
+                earliest = Math.min(earliest, deadline);
+            }
+            assertEquals(earliest, small.nextDeadlineMillis());
+        }
+    }
+}